@@ -0,0 +1,102 @@
+package com.expogarden.repository;
+
+import com.expogarden.domain.VisitEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * visit_events 기록 방식별 처리량 비교 (다중 VALUES INSERT vs binary COPY)
+ *
+ * 실제 PostgreSQL이 필요하다 (exhibitions.id = 1 이 존재해야 함, V7 샘플 데이터).
+ * ./gradlew jmh -Pjmh.includes=VisitEventWriteBenchmark \
+ *     -Pjmh.jdbc.url=jdbc:postgresql://localhost:5432/expogarden -Pjmh.jdbc.username=postgres -Pjmh.jdbc.password=postgres
+ * (-D 로 주면 Gradle JVM에만 설정되고 fork 된 벤치마크 JVM에는 전달되지 않는다. build.gradle의 jmh.jvmArgs 참고)
+ *
+ * 결과의 "rows" 보조 카운터(OPERATIONS)가 전략·배치 크기별 초당 기록 행 수(rows/s)다.
+ * 기본 "write" 점수는 초당 배치 수다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class VisitEventWriteBenchmark {
+
+    private static final String SESSION_PREFIX = "jmh-bench-";
+
+    @Param({"50", "500", "5000"})
+    private int batchSize;
+
+    @Param({"INSERT", "COPY"})
+    private String strategy;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private VisitEventJdbcRepository repository;
+    private List<VisitEvent> batch;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Rows {
+        public long rows;
+
+        // OPERATIONS 카운터는 반복(iteration)마다 측정 시간으로 나누므로 반복 시작 때 0으로 돌린다
+        @Setup(Level.Iteration)
+        public void reset() {
+            rows = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = new SingleConnectionDataSource(
+            System.getProperty("jmh.jdbc.url", "jdbc:postgresql://localhost:5432/expogarden"),
+            System.getProperty("jmh.jdbc.username", "postgres"),
+            System.getProperty("jmh.jdbc.password", "postgres"),
+            true
+        );
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        repository = new VisitEventJdbcRepository(jdbcTemplate, new ObjectMapper(), 0);
+
+        Instant now = Instant.now();
+        batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(VisitEvent.builder()
+                .exhibitionId(1L)
+                .sessionId(SESSION_PREFIX + (i % 97))
+                .action(i % 10 == 0 ? "CLICK_LINK" : "VIEW")
+                .metadata(i % 3 == 0 ? Map.of("duration", i, "source", "jmh") : null)
+                .createdAt(now)
+                .build());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jdbcTemplate.update("DELETE FROM visit_events WHERE session_id LIKE ?", SESSION_PREFIX + "%");
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public int write(Rows rows) {
+        int written = "COPY".equals(strategy) ? repository.copyBatch(batch) : repository.insertBatch(batch);
+        rows.rows += written;
+        return written;
+    }
+}
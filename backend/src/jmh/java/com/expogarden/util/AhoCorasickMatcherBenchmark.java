@@ -0,0 +1,99 @@
+package com.expogarden.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 메시지 1건당 금칙어 검사 비용 측정
+ *
+ * ./gradlew jmh -Pjmh.includes=AhoCorasickMatcherBenchmark
+ *
+ * dictionarySize별로 오토마톤 스캔(containsMatch), 마스킹(mask),
+ * 그리고 비교용으로 단어별 정규식 루프를 측정한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AhoCorasickMatcherBenchmark {
+
+    private static final String[] MESSAGES = {
+        "안녕하세요! 부스 구경 왔어요 ㅎㅎ 작품 너무 멋지네요",
+        "혹시 이 게임 언제 출시되나요? 스팀에서도 나오나요?",
+        "와 3D 모델링 퀄리티 미쳤다 진짜 대박이네요 👍",
+        "영상 재생이 안 되는데 저만 그런가요? 크롬 쓰고 있어요",
+        "Is there an English version of the demo available?",
+        "다음 전시에도 참가하시나요? 팔로우하고 갈게요~",
+        "이거 무료충전 이벤트 하는 곳 아님? ㅋㅋㅋ",
+        "작가님 포트폴리오 링크 공유해 주실 수 있나요"
+    };
+
+    @Param({"100", "1000", "10000"})
+    private int dictionarySize;
+
+    private AhoCorasickMatcher matcher;
+    private List<Pattern> regexes;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        List<String> terms = new ArrayList<>(dictionarySize);
+        terms.add("무료충전");
+        while (terms.size() < dictionarySize) {
+            int length = 2 + random.nextInt(3);
+            StringBuilder sb = new StringBuilder(length);
+            for (int i = 0; i < length; i++) {
+                sb.append((char) ('가' + random.nextInt('힣' - '가' + 1)));
+            }
+            terms.add(sb.toString());
+        }
+
+        matcher = AhoCorasickMatcher.compile(terms, true);
+
+        regexes = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            regexes.add(Pattern.compile(Pattern.quote(term), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE));
+        }
+    }
+
+    private String nextMessage() {
+        cursor = (cursor + 1) % MESSAGES.length;
+        return MESSAGES[cursor];
+    }
+
+    @Benchmark
+    public boolean automatonScan() {
+        return matcher.containsMatch(nextMessage());
+    }
+
+    @Benchmark
+    public String automatonMask() {
+        return matcher.mask(nextMessage(), '*');
+    }
+
+    @Benchmark
+    public void regexLoop(Blackhole blackhole) {
+        String message = nextMessage();
+        for (Pattern regex : regexes) {
+            if (regex.matcher(message).find()) {
+                blackhole.consume(true);
+                return;
+            }
+        }
+        blackhole.consume(false);
+    }
+}
@@ -77,6 +77,7 @@ public class SecurityConfig {
                     "/uploads/**",
                     "/ws/**",
                     "/booths/*/chat/**",
+                    "/booths/*/similar",  // 접근 여부는 @PreAuthorize에서 처리
                     "/statistics/**"
                 ).permitAll()
                 // /booths/{id}는 @PreAuthorize에서 처리 (APPROVED면 principal null 허용)
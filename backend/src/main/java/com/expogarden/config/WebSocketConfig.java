@@ -1,11 +1,13 @@
 package com.expogarden.config;
 
+import com.expogarden.security.StompAuthChannelInterceptor;
 import com.expogarden.service.PlayerPositionService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.context.event.EventListener;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -19,10 +21,16 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     
     private final PlayerPositionService playerPositionService;
     private final SimpMessagingTemplate messagingTemplate;
+    private final StompAuthChannelInterceptor stompAuthChannelInterceptor;
     
-    public WebSocketConfig(PlayerPositionService playerPositionService, @Lazy SimpMessagingTemplate messagingTemplate) {
+    public WebSocketConfig(
+        PlayerPositionService playerPositionService,
+        @Lazy SimpMessagingTemplate messagingTemplate,
+        StompAuthChannelInterceptor stompAuthChannelInterceptor
+    ) {
         this.playerPositionService = playerPositionService;
         this.messagingTemplate = messagingTemplate;
+        this.stompAuthChannelInterceptor = stompAuthChannelInterceptor;
     }
     
     @Override
@@ -33,6 +41,12 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         config.setApplicationDestinationPrefixes("/app");
     }
     
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // CONNECT 토큰 인증, 실시간 통계 토픽 구독 권한 확인
+        registration.interceptors(stompAuthChannelInterceptor);
+    }
+    
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws")
@@ -4,8 +4,10 @@ import com.expogarden.domain.BoothStatus;
 import com.expogarden.dto.BoothCreateRequest;
 import com.expogarden.dto.BoothDto;
 import com.expogarden.dto.RejectRequest;
+import com.expogarden.dto.SimilarBoothDto;
 import com.expogarden.security.UserPrincipal;
 import com.expogarden.service.BoothService;
+import com.expogarden.service.CoVisitationService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -18,6 +20,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -26,6 +29,7 @@ import java.util.Map;
 public class BoothController {
     
     private final BoothService boothService;
+    private final CoVisitationService coVisitationService;
     
     @GetMapping
     public ResponseEntity<?> getBooths(
@@ -64,6 +68,23 @@ public class BoothController {
         return ResponseEntity.ok(Map.of("data", booth));
     }
     
+    // 이 부스를 본 방문자가 함께 본 부스 (같은 전시의 승인된 부스만)
+    @GetMapping("/{id}/similar")
+    @PreAuthorize("@boothSecurityService.canAccessBooth(#id, principal)")
+    public ResponseEntity<?> getSimilarBooths(
+        @PathVariable Long id,
+        @RequestParam(defaultValue = "10") int limit,
+        @RequestParam(required = false) Double blend,
+        @AuthenticationPrincipal UserPrincipal principal
+    ) {
+        try {
+            List<SimilarBoothDto> similar = coVisitationService.getSimilarBooths(id, Math.max(1, Math.min(limit, 30)), blend);
+            return ResponseEntity.ok(Map.of("data", similar));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", Map.of("message", e.getMessage())));
+        }
+    }
+    
     @PostMapping
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> createBooth(
@@ -0,0 +1,38 @@
+package com.expogarden.controller;
+
+import com.expogarden.dto.SearchResultDto;
+import com.expogarden.service.BoothSearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+public class BoothSearchController {
+    
+    private final BoothSearchService boothSearchService;
+    
+    // 부스 채팅/질문 검색 (ADMIN 또는 부스 소유자)
+    @GetMapping("/booths/{boothId}/search")
+    @PreAuthorize("hasRole('ADMIN') or @boothSecurityService.isOwner(#boothId, principal)")
+    public ResponseEntity<?> search(
+        @PathVariable Long boothId,
+        @RequestParam("q") String query,
+        @RequestParam(required = false) SearchResultDto.SourceType type,
+        @RequestParam(defaultValue = "20") int limit
+    ) {
+        try {
+            List<SearchResultDto> results = boothSearchService.search(boothId, query, type, limit);
+            return ResponseEntity.ok(Map.of("data", results));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", Map.of("message", e.getMessage())));
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.expogarden.controller;
 
+import com.expogarden.dto.BoothPresenceDto;
 import com.expogarden.dto.ChatMessageDto;
 import com.expogarden.dto.ChatNotificationDto;
+import com.expogarden.service.BoothChatRosterService;
+import com.expogarden.service.ChatRateLimiter;
 import com.expogarden.service.ChatService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -11,11 +14,9 @@ import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.stereotype.Controller;
 
-import java.time.Instant;
-import java.util.UUID;
-
 @Controller
 @RequiredArgsConstructor
 @Slf4j
@@ -23,6 +24,8 @@ public class ChatController {
     
     private final SimpMessagingTemplate messagingTemplate;
     private final ChatService chatService;
+    private final ChatRateLimiter chatRateLimiter;
+    private final BoothChatRosterService boothChatRosterService;
     
     // 부스별 채팅 메시지 전송
     @MessageMapping("/chat.booth.{boothId}")
@@ -32,6 +35,8 @@ public class ChatController {
         @Payload ChatMessageDto message,
         SimpMessageHeaderAccessor headerAccessor
     ) {
+        chatRateLimiter.checkSend(ChatRateLimiter.Destination.BOOTH, headerAccessor.getSessionId(), headerAccessor.getUser());
+
         ChatMessageDto savedMessage = chatService.createChatMessage(boothId, message);
 
         log.info("Chat message in booth {}: {} - {}", boothId, savedMessage.getUsername(), savedMessage.getMessage());
@@ -49,10 +54,10 @@ public class ChatController {
         return savedMessage;
     }
     
-    // 사용자 입장
+    // 사용자 입장 (입장 메시지 대신 로스터에 등록하고, 인원수 변화는 주기적으로 presence 토픽에 발행)
     @MessageMapping("/chat.join.{boothId}")
-    @SendTo("/topic/booth.{boothId}")
-    public ChatMessageDto addUser(
+    @SendToUser(destinations = "/queue/presence", broadcast = false)
+    public BoothPresenceDto addUser(
         @DestinationVariable Long boothId,
         @Payload ChatMessageDto message,
         SimpMessageHeaderAccessor headerAccessor
@@ -61,14 +66,29 @@ public class ChatController {
         headerAccessor.getSessionAttributes().put("username", message.getUsername());
         headerAccessor.getSessionAttributes().put("boothId", boothId);
         
-        message.setId(UUID.randomUUID().toString());
-        message.setBoothId(boothId);
-        message.setType(ChatMessageDto.MessageType.JOIN);
-        message.setTimestamp(Instant.now());
-        message.setMessage(message.getUsername() + "님이 입장하셨습니다.");
+        boothChatRosterService.join(boothId, headerAccessor.getSessionId(), message.getUserId(), message.getUsername());
         
         log.info("User {} joined booth {}", message.getUsername(), boothId);
         
-        return message;
+        // 입장한 세션에게만 현재 인원수 전달
+        return boothChatRosterService.getPresence(boothId);
+    }
+    
+    // 사용자 퇴장
+    @MessageMapping("/chat.leave.{boothId}")
+    public void removeUser(
+        @DestinationVariable Long boothId,
+        SimpMessageHeaderAccessor headerAccessor
+    ) {
+        boothChatRosterService.leave(headerAccessor.getSessionId());
+        
+        log.info("Session {} left booth {}", headerAccessor.getSessionId(), boothId);
+    }
+    
+    // 전체 접속자 명단 (요청한 세션에게만)
+    @MessageMapping("/chat.roster.{boothId}")
+    @SendToUser(destinations = "/queue/roster", broadcast = false)
+    public BoothPresenceDto getRoster(@DestinationVariable Long boothId) {
+        return boothChatRosterService.getRoster(boothId);
     }
 }
@@ -0,0 +1,26 @@
+package com.expogarden.controller;
+
+import com.expogarden.service.ChatRateLimiter;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+
+import java.util.Map;
+
+/**
+ * STOMP 채팅(@MessageMapping) 공통 예외 처리
+ */
+@ControllerAdvice
+public class ChatMessageExceptionAdvice {
+
+    // 도배 제한 초과 시 보낸 세션에만 에러 전달 (부스/홀 채팅 공통)
+    @MessageExceptionHandler(ChatRateLimiter.RateLimitExceededException.class)
+    @SendToUser(destinations = "/queue/errors", broadcast = false)
+    public Map<String, Object> handleRateLimitExceeded(ChatRateLimiter.RateLimitExceededException e) {
+        return Map.of("error", Map.of(
+            "code", "RATE_LIMIT_EXCEEDED",
+            "message", e.getMessage(),
+            "retryAfter", e.getRetryAfterSeconds()
+        ));
+    }
+}
@@ -4,10 +4,8 @@ import com.expogarden.dto.ChatMessageDto;
 import com.expogarden.security.UserPrincipal;
 import com.expogarden.service.ChatService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -16,31 +14,38 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @RestController
 @RequiredArgsConstructor
 public class ChatRestController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final ChatService chatService;
 
     @GetMapping("/booths/{boothId}/chat/messages")
     @PreAuthorize("@boothSecurityService.canAccessBooth(#boothId, principal)")
     public ResponseEntity<?> getChatMessages(
         @PathVariable Long boothId,
-        @RequestParam(defaultValue = "0") int page,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant before,
+        @RequestParam(required = false) Long beforeId,
         @RequestParam(defaultValue = "50") int size,
         @AuthenticationPrincipal UserPrincipal principal
     ) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<ChatMessageDto> messages = chatService.getMessages(boothId, pageable);
+        Slice<ChatMessageDto> messages = chatService.getMessages(boothId, before, beforeId,
+            Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
 
-        return ResponseEntity.ok(Map.of("data", Map.of(
-            "content", messages.getContent(),
-            "totalElements", messages.getTotalElements(),
-            "totalPages", messages.getTotalPages(),
-            "size", messages.getSize(),
-            "number", messages.getNumber()
-        )));
+        // 다음 페이지 커서는 이번 페이지의 가장 오래된 메시지 (없으면 null)
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("content", messages.getContent());
+        data.put("size", messages.getSize());
+        data.put("hasNext", messages.hasNext());
+        ChatMessageDto oldest = messages.hasNext() ? messages.getContent().get(messages.getNumberOfElements() - 1) : null;
+        data.put("nextBefore", oldest != null ? oldest.getTimestamp() : null);
+        data.put("nextBeforeId", oldest != null ? Long.valueOf(oldest.getId()) : null);
+        return ResponseEntity.ok(Map.of("data", data));
     }
 }
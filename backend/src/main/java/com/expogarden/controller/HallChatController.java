@@ -1,12 +1,15 @@
 package com.expogarden.controller;
 
 import com.expogarden.dto.HallChatMessageDto;
+import com.expogarden.service.ChatRateLimiter;
+import com.expogarden.service.ContentFilterService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.handler.annotation.SendTo;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.stereotype.Controller;
 
 import java.time.Instant;
@@ -16,22 +19,29 @@ import java.time.Instant;
 @Slf4j
 public class HallChatController {
 
+    private final ContentFilterService contentFilterService;
+    private final ChatRateLimiter chatRateLimiter;
+
     @MessageMapping("/chat.hall.{hallId}")
     @SendTo("/topic/hall.chat.{hallId}")
     public HallChatMessageDto sendHallMessage(
         @DestinationVariable Long hallId,
-        @Payload HallChatMessageDto message
+        @Payload HallChatMessageDto message,
+        SimpMessageHeaderAccessor headerAccessor
     ) {
         String text = message.getMessage() != null ? message.getMessage().trim() : "";
         if (text.isEmpty()) {
             throw new RuntimeException("Hall chat message is empty");
         }
 
+        chatRateLimiter.checkSend(ChatRateLimiter.Destination.HALL, headerAccessor.getSessionId(), headerAccessor.getUser());
+
         if (message.getNickname() == null || message.getNickname().isBlank()) {
             message.setNickname("게스트");
         }
 
         message.setHallId(hallId);
+        text = contentFilterService.filter(text);
         message.setMessage(text);
         message.setTimestamp(Instant.now());
         message.setType(HallChatMessageDto.MessageType.CHAT);
@@ -1,13 +1,35 @@
 package com.expogarden.controller;
 
+import com.expogarden.domain.RollupGranularity;
 import com.expogarden.dto.BoothStatsDto;
+import com.expogarden.dto.DwellDto;
 import com.expogarden.dto.ExhibitionStatsDto;
+import com.expogarden.dto.FunnelDto;
+import com.expogarden.dto.LiveStatsDto;
+import com.expogarden.dto.TimeSeriesDto;
+import com.expogarden.dto.TopBoothsDto;
+import com.expogarden.security.UserPrincipal;
+import com.expogarden.service.FunnelService;
+import com.expogarden.service.LiveStatsService;
 import com.expogarden.service.StatisticsService;
+import com.expogarden.service.TimeSeriesService;
+import com.expogarden.service.TopBoothsService;
+import com.expogarden.service.VisitEventExportService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -16,6 +38,11 @@ import java.util.Map;
 public class StatisticsController {
     
     private final StatisticsService statisticsService;
+    private final LiveStatsService liveStatsService;
+    private final TopBoothsService topBoothsService;
+    private final TimeSeriesService timeSeriesService;
+    private final FunnelService funnelService;
+    private final VisitEventExportService visitEventExportService;
     
     // 전시 통계 (ADMIN만)
     @GetMapping("/exhibitions/{exhibitionId}")
@@ -40,5 +67,158 @@ public class StatisticsController {
             return ResponseEntity.badRequest().body(Map.of("error", Map.of("message", e.getMessage())));
         }
     }
+    
+    // 내 부스 전체 통계 (직접 소유하거나 OWNER 멤버인 부스, 한 번에 집계)
+    @GetMapping("/my-booths")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> getMyBoothStats(@AuthenticationPrincipal UserPrincipal principal) {
+        List<BoothStatsDto> stats = statisticsService.getMyBoothStats(principal.getId());
+        return ResponseEntity.ok(Map.of("data", stats));
+    }
+    
+    // 실시간 전시 통계 (ADMIN만, 메모리 카운터 기반)
+    @GetMapping("/exhibitions/{exhibitionId}/live")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getLiveExhibitionStats(@PathVariable Long exhibitionId) {
+        LiveStatsDto stats = liveStatsService.getExhibitionStats(exhibitionId);
+        return ResponseEntity.ok(Map.of("data", stats));
+    }
+    
+    // 실시간 부스 통계 (ADMIN 또는 부스 소유자, 메모리 카운터 기반)
+    @GetMapping("/booths/{boothId}/live")
+    @PreAuthorize("hasRole('ADMIN') or @boothSecurityService.isOwner(#boothId, principal)")
+    public ResponseEntity<?> getLiveBoothStats(@PathVariable Long boothId) {
+        LiveStatsDto stats = liveStatsService.getBoothStats(boothId);
+        return ResponseEntity.ok(Map.of("data", stats));
+    }
+    
+    // 실시간 인기 부스 (ADMIN만, window=NOW: 최근 N분 / TODAY: 오늘)
+    @GetMapping("/exhibitions/{exhibitionId}/top-booths")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getTopBooths(
+            @PathVariable Long exhibitionId,
+            @RequestParam(defaultValue = "NOW") String window,
+            @RequestParam(defaultValue = "10") int limit) {
+        TopBoothsService.Window parsed;
+        try {
+            parsed = TopBoothsService.Window.valueOf(window.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", Map.of("message", "window must be NOW or TODAY")));
+        }
+        TopBoothsDto top = topBoothsService.getTopBooths(exhibitionId, parsed, Math.max(1, Math.min(limit, 50)));
+        return ResponseEntity.ok(Map.of("data", top));
+    }
+    
+    // 전시 시계열 통계 (ADMIN만, 기본 최근 7일)
+    @GetMapping("/exhibitions/{exhibitionId}/timeseries")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getExhibitionTimeSeries(
+            @PathVariable Long exhibitionId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "AUTO") String bucket) {
+        try {
+            Instant end = to != null ? to : Instant.now();
+            Instant start = from != null ? from : end.minus(Duration.ofDays(7));
+            TimeSeriesDto series = timeSeriesService.getExhibitionSeries(exhibitionId, start, end, parseBucket(bucket));
+            return ResponseEntity.ok(Map.of("data", series));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", Map.of("message", e.getMessage())));
+        }
+    }
+    
+    // 부스 시계열 통계 (ADMIN 또는 부스 소유자, 기본 최근 7일)
+    @GetMapping("/booths/{boothId}/timeseries")
+    @PreAuthorize("hasRole('ADMIN') or @boothSecurityService.isOwner(#boothId, principal)")
+    public ResponseEntity<?> getBoothTimeSeries(
+            @PathVariable Long boothId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "AUTO") String bucket) {
+        try {
+            Instant end = to != null ? to : Instant.now();
+            Instant start = from != null ? from : end.minus(Duration.ofDays(7));
+            TimeSeriesDto series = timeSeriesService.getBoothSeries(boothId, start, end, parseBucket(bucket));
+            return ResponseEntity.ok(Map.of("data", series));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", Map.of("message", e.getMessage())));
+        }
+    }
+    
+    // 부스 참여 퍼널 (ADMIN 또는 부스 소유자, 조회 → 클릭 → 재생 세션 수와 소요 시간)
+    @GetMapping("/booths/{boothId}/funnel")
+    @PreAuthorize("hasRole('ADMIN') or @boothSecurityService.isOwner(#boothId, principal)")
+    public ResponseEntity<?> getBoothFunnel(@PathVariable Long boothId) {
+        try {
+            FunnelDto funnel = funnelService.getBoothFunnel(boothId);
+            return ResponseEntity.ok(Map.of("data", funnel));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", Map.of("message", e.getMessage())));
+        }
+    }
+    
+    // 부스 체류 시간 (ADMIN 또는 부스 소유자, 시간별 중앙값/p90, 기본 최근 24시간)
+    @GetMapping("/booths/{boothId}/dwell")
+    @PreAuthorize("hasRole('ADMIN') or @boothSecurityService.isOwner(#boothId, principal)")
+    public ResponseEntity<?> getBoothDwell(
+            @PathVariable Long boothId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        try {
+            Instant end = to != null ? to : Instant.now();
+            Instant start = from != null ? from : end.minus(Duration.ofDays(1));
+            DwellDto dwell = statisticsService.getBoothDwell(boothId, start, end);
+            return ResponseEntity.ok(Map.of("data", dwell));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", Map.of("message", e.getMessage())));
+        }
+    }
+    
+    // 원본 이벤트 내보내기 (ADMIN만, gzip CSV/NDJSON 스트리밍, 기본 최근 1일)
+    @GetMapping("/events/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> exportEvents(
+            @RequestParam(required = false) Long exhibitionId,
+            @RequestParam(required = false) Long boothId,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "CSV") String format) {
+        try {
+            VisitEventExportService.Format parsed;
+            try {
+                parsed = VisitEventExportService.Format.valueOf(format.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("format must be CSV or NDJSON");
+            }
+            Instant end = to != null ? to : Instant.now();
+            Instant start = from != null ? from : end.minus(Duration.ofDays(1));
+            StreamingResponseBody body = visitEventExportService.export(
+                new VisitEventExportService.ExportFilter(exhibitionId, boothId, action, start, end), parsed);
+            
+            String filename = "visit-events-" + start.getEpochSecond() + "-" + end.getEpochSecond()
+                + "." + parsed.getExtension() + ".gz";
+            return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+        } catch (VisitEventExportService.TooManyExportsException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .body(Map.of("error", Map.of("message", e.getMessage())));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", Map.of("message", e.getMessage())));
+        }
+    }
+    
+    // AUTO면 null (서비스가 범위에 맞춰 선택), 아니면 최소 단위
+    private RollupGranularity parseBucket(String bucket) {
+        if ("AUTO".equalsIgnoreCase(bucket)) {
+            return null;
+        }
+        try {
+            return RollupGranularity.valueOf(bucket.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("bucket must be AUTO, MINUTE, HOUR or DAY");
+        }
+    }
 }
-
@@ -1,14 +1,23 @@
 package com.expogarden.controller;
 
+import com.expogarden.dto.SamplingPolicyDto;
 import com.expogarden.dto.TrackEventRequest;
 import com.expogarden.security.UserPrincipal;
+import com.expogarden.service.TrackingIngestPipeline;
+import com.expogarden.service.TrackingSampler;
 import com.expogarden.service.TrackingService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -22,26 +31,84 @@ import java.util.Map;
 public class TrackingController {
     
     private final TrackingService trackingService;
+    private final TrackingSampler trackingSampler;
     
     @PostMapping
     public ResponseEntity<?> track(
         @Valid @RequestBody TrackingRequest request,
-        @AuthenticationPrincipal UserPrincipal principal
+        @AuthenticationPrincipal UserPrincipal principal,
+        HttpServletRequest httpRequest
     ) {
-        if (request.getEvents() != null && !request.getEvents().isEmpty()) {
-            trackingService.trackEvents(request.getEvents(), principal);
-            return ResponseEntity.ok(Map.of("data", Map.of("recorded", request.getEvents().size())));
-        } else if (request.getEvent() != null) {
-            trackingService.trackEvent(request.getEvent(), principal);
-            return ResponseEntity.ok(Map.of("data", Map.of("recorded", 1)));
-        } else {
-            throw new RuntimeException("No events provided");
+        try {
+            // 프록시 뒤에서는 Tomcat RemoteIpValve(server.forward-headers-strategy=native)가
+            // 신뢰하는 프록시(server.tomcat.remoteip.internal-proxies)가 붙인 X-Forwarded-For 값으로 바꿔 둔다
+            String clientIp = httpRequest.getRemoteAddr();
+            TrackingService.TrackResult result;
+            if (request.getEvents() != null && !request.getEvents().isEmpty()) {
+                result = trackingService.trackEvents(request.getEvents(), principal, clientIp);
+            } else if (request.getEvent() != null) {
+                result = trackingService.trackEvent(request.getEvent(), principal, clientIp);
+            } else {
+                throw new RuntimeException("No events provided");
+            }
+            // 큐에 들어간 시점에 응답 (DB 기록은 비동기), 이미 받은 clientEventId는 duplicates,
+            // 표본 추출로 저장하지 않은 이벤트는 sampledOut, 없는 전시/부스를 가리킨 이벤트는 rejected로 집계
+            // (모두 재전송할 필요 없음)
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("data", Map.of(
+                "recorded", result.recorded(),
+                "duplicates", result.duplicates(),
+                "sampledOut", result.sampledOut(),
+                "rejected", result.rejected()
+            )));
+        } catch (TrackingIngestPipeline.QueueFullException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", Map.of(
+                    "code", "TRACKING_QUEUE_FULL",
+                    "message", e.getMessage(),
+                    "retryAfter", 1
+                )));
         }
     }
     
+    // 액션별 표본 추출 정책 조회 (ADMIN만)
+    @GetMapping("/sampling")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getSamplingPolicy() {
+        return ResponseEntity.ok(Map.of("data", toSamplingPolicyDto()));
+    }
+    
+    // 액션별 표본 추출 정책 교체 (ADMIN만, 재시작하면 설정값으로 돌아감)
+    @PutMapping("/sampling")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> updateSamplingPolicy(@RequestBody SamplingPolicyDto request) {
+        try {
+            if (request.getRates() == null) {
+                throw new IllegalArgumentException("rates is required");
+            }
+            trackingSampler.setRates(request.getRates());
+            return ResponseEntity.ok(Map.of("data", toSamplingPolicyDto()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", Map.of("message", e.getMessage())));
+        }
+    }
+    
+    private SamplingPolicyDto toSamplingPolicyDto() {
+        return SamplingPolicyDto.builder()
+            .rates(trackingSampler.getRates())
+            .fillRatio(trackingSampler.getFillRatio())
+            .pressureMultiplier(trackingSampler.pressureMultiplier())
+            .effectiveRates(trackingSampler.getEffectiveRates())
+            .build();
+    }
+    
     @Data
     public static class TrackingRequest {
+        // 잘못된 이벤트가 다른 요청의 이벤트와 같은 배치에 섞여 실패하지 않도록 큐에 넣기 전에 형식/길이를 검증
+        // (없는 전시/부스 ID는 TrackingService에서 거름)
+        @Valid
         private TrackEventRequest event;
+        @Valid
         private List<TrackEventRequest> events;
     }
 }
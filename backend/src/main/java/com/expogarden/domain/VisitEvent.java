@@ -39,6 +39,11 @@ public class VisitEvent {
     @Column(nullable = false, length = 50)
     private String action;
     
+    // 표본 추출 가중치 (1-in-N으로 저장한 이벤트는 N)
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer weight = 1;
+    
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(columnDefinition = "jsonb")
     private Map<String, Object> metadata;
@@ -0,0 +1,31 @@
+package com.expogarden.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BoothPresenceDto {
+    private Long boothId;
+    private Integer count;
+    private Integer delta;
+    private List<Member> members;  // 로스터 요청 시에만 채워짐
+    private Instant timestamp;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Member {
+        private Long userId;
+        private String username;
+        private Instant joinedAt;
+    }
+}
@@ -16,5 +16,8 @@ public class BoothStatsDto {
     private Long uniqueVisitors;
     private Long clickEvents;
     private Long videoPlays;
+    private Long dwellVisits;     // 체류 시간을 기록한 방문 수
+    private Long dwellMedianMs;   // 방문이 없으면 null
+    private Long dwellP90Ms;
 }
 
@@ -0,0 +1,28 @@
+package com.expogarden.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * 부스 체류 시간 (전체 구간 값 + 방문이 있었던 시간별 열 단위 배열)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DwellDto {
+    private Long boothId;
+    private Instant from;
+    private Instant to;
+    private Long visits;
+    private Long medianMs;          // 방문이 없으면 null
+    private Long p90Ms;
+    private long[] timestamps;      // 방문 시작 시간 (epoch millis, 방문이 있었던 시간만)
+    private long[] hourlyVisits;
+    private Long[] hourlyMedianMs;
+    private Long[] hourlyP90Ms;
+}
@@ -0,0 +1,24 @@
+package com.expogarden.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FunnelDto {
+    private Long boothId;
+    private String boothTitle;
+    private Long viewed;                // 부스를 조회한 세션 수
+    private Long clicked;               // 조회 후 링크를 클릭한 세션 수
+    private Long played;                // 클릭 후 영상을 재생한 세션 수
+    private Double clickRate;           // clicked / viewed
+    private Double playRate;            // played / clicked
+    private Long viewToClickMedianMs;   // 조회 → 클릭 소요 시간 (표본이 없으면 null)
+    private Long viewToClickP90Ms;
+    private Long clickToPlayMedianMs;   // 클릭 → 재생 소요 시간 (표본이 없으면 null)
+    private Long clickToPlayP90Ms;
+}
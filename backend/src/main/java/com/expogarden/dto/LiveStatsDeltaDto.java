@@ -0,0 +1,22 @@
+package com.expogarden.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LiveStatsDeltaDto {
+    private Long boothId;
+    private Long views;                 // 직전 발행 이후 증가분 (기록 실패로 빠지면 음수)
+    private Long clickEvents;
+    private Long videoPlays;
+    private Map<String, Long> actions;  // 액션별 증가분
+    private Instant timestamp;
+}
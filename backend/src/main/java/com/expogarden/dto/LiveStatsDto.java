@@ -0,0 +1,24 @@
+package com.expogarden.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LiveStatsDto {
+    private Long boothId;        // 전시 단위 조회면 null
+    private Long exhibitionId;   // 부스 단위 조회면 null
+    private Long totalViews;
+    private Long clickEvents;
+    private Long videoPlays;
+    private Map<String, Long> actions;  // 액션별 누적 수
+    private Long pending;               // 수락됐지만 아직 DB에 기록되지 않은 이벤트 수
+    private Instant timestamp;
+}
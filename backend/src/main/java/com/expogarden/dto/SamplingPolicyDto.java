@@ -0,0 +1,19 @@
+package com.expogarden.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SamplingPolicyDto {
+    private Map<String, Integer> rates;           // 액션별 기본 1-in-N (1이면 평소 전수 저장)
+    private Double fillRatio;                     // 수집 큐 사용률 (응답 전용)
+    private Integer pressureMultiplier;           // 큐 압력에 따른 배수 (응답 전용)
+    private Map<String, Integer> effectiveRates;  // 지금 적용 중인 1-in-N (응답 전용)
+}
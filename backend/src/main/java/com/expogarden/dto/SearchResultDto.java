@@ -0,0 +1,27 @@
+package com.expogarden.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchResultDto {
+    private SourceType type;
+    private Long id;
+    private Long boothId;
+    private String author;
+    private String content;
+    private Instant createdAt;
+    private Double score;
+    
+    public enum SourceType {
+        CHAT,      // 부스 채팅
+        QUESTION   // Q&A 질문
+    }
+}
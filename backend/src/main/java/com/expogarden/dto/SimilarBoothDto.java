@@ -0,0 +1,20 @@
+package com.expogarden.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimilarBoothDto {
+    private Long boothId;
+    private Long hallId;
+    private String title;
+    private String category;
+    private String thumbnailUrl;
+    private Long coVisits;   // 두 부스를 모두 조회한 세션 수
+    private Double score;    // 0~1, 동시 방문 유사도 (blend > 0이면 카테고리/태그 유사도와 섞은 값)
+}
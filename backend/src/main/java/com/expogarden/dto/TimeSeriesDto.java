@@ -0,0 +1,29 @@
+package com.expogarden.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * 시계열 통계 (열 단위 배열, 같은 인덱스가 같은 구간)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimeSeriesDto {
+    private Long boothId;          // 전시 단위 조회면 null
+    private Long exhibitionId;     // 부스 단위 조회면 null
+    private String granularity;    // MINUTE, HOUR, DAY
+    private Integer step;          // 한 구간에 묶인 granularity 단위 수
+    private Instant from;
+    private Instant to;
+    private long[] timestamps;     // 구간 시작 시각 (epoch millis)
+    private long[] views;
+    private long[] clicks;
+    private long[] videoPlays;
+    private long[] uniqueVisitors; // MINUTE 단위는 스케치가 없어 null
+}
@@ -0,0 +1,31 @@
+package com.expogarden.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TopBoothsDto {
+    private Long exhibitionId;
+    private String window;        // NOW(최근 N분) 또는 TODAY
+    private List<Entry> booths;
+    private Instant timestamp;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+        private Long boothId;
+        private String boothTitle;
+        private Long views;       // 추정 조회수 (상한)
+        private Long error;       // 최대 과대 추정치, 실제 조회수는 views - error 이상
+    }
+}
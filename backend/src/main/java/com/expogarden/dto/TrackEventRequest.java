@@ -2,6 +2,7 @@ package com.expogarden.dto;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 import java.util.Map;
@@ -13,12 +14,19 @@ public class TrackEventRequest {
     
     private Long boothId;
     
+    // visit_events 컬럼 길이를 넘으면 같은 배치의 다른 이벤트까지 기록에 실패하므로 큐에 넣기 전에 거른다
     @NotBlank
+    @Size(max = 255)
     private String sessionId;
     
     @NotBlank
+    @Size(max = 50)
     private String action;
     
     private Map<String, Object> metadata;
+    
+    // 재전송 중복 제거용 (선택, 세션 안에서 고유해야 함)
+    @Size(max = 64)
+    private String clientEventId;
 }
 
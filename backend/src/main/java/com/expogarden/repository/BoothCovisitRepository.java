@@ -0,0 +1,81 @@
+package com.expogarden.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * booth_covisits 저장소
+ *
+ * 증가분을 더하는 UPSERT라 잠금 없이 여러 인스턴스가 동시에 반영할 수 있다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BoothCovisitRepository {
+
+    /**
+     * booth_a <= booth_b 로 정규화된 키 (같으면 부스 단독 세션 수)
+     */
+    public record Pair(long boothA, long boothB) {
+        public static Pair of(long first, long second) {
+            return first <= second ? new Pair(first, second) : new Pair(second, first);
+        }
+    }
+
+    public record Neighbor(long boothId, long neighborId, long visits, double score) {
+    }
+
+    private static final String UPSERT_SQL = """
+        INSERT INTO booth_covisits (booth_a, booth_b, visits)
+        VALUES (?, ?, ?)
+        ON CONFLICT (booth_a, booth_b) DO UPDATE SET visits = booth_covisits.visits + EXCLUDED.visits
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param deltas 키 순으로 정렬된 증분
+     */
+    public void add(List<Map.Entry<Pair, Long>> deltas) {
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        for (Map.Entry<Pair, Long> entry : deltas) {
+            args.add(new Object[]{entry.getKey().boothA(), entry.getKey().boothB(), entry.getValue()});
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, args);
+    }
+
+    /**
+     * 부스별 코사인 유사도(동시 방문 세션 수 / sqrt(각 부스 조회 세션 수의 곱)) 상위 limit개 이웃.
+     * 동시 방문이 minVisits 미만인 쌍은 우연일 가능성이 커서 제외한다.
+     */
+    public List<Neighbor> findTopNeighbors(long minVisits, int limit) {
+        return jdbcTemplate.query("""
+            WITH pairs AS (
+                SELECT booth_a AS booth_id, booth_b AS neighbor_id, visits FROM booth_covisits
+                WHERE booth_a < booth_b AND visits >= ?
+                UNION ALL
+                SELECT booth_b, booth_a, visits FROM booth_covisits
+                WHERE booth_a < booth_b AND visits >= ?
+            ), scored AS (
+                SELECT p.booth_id, p.neighbor_id, p.visits,
+                       p.visits / sqrt(ta.visits::float8 * tb.visits) AS score
+                FROM pairs p
+                JOIN booth_covisits ta ON ta.booth_a = p.booth_id AND ta.booth_b = p.booth_id
+                JOIN booth_covisits tb ON tb.booth_a = p.neighbor_id AND tb.booth_b = p.neighbor_id
+            ), ranked AS (
+                SELECT booth_id, neighbor_id, visits, score,
+                       row_number() OVER (PARTITION BY booth_id ORDER BY score DESC, visits DESC, neighbor_id) AS rank
+                FROM scored
+            )
+            SELECT booth_id, neighbor_id, visits, score FROM ranked
+            WHERE rank <= ?
+            ORDER BY booth_id, rank
+            """,
+            (rs, rowNum) -> new Neighbor(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getDouble(4)),
+            minVisits, minVisits, limit);
+    }
+}
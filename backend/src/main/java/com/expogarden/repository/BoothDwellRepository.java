@@ -0,0 +1,92 @@
+package com.expogarden.repository;
+
+import com.expogarden.util.LogHistogram;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * booth_dwell_histograms 저장소
+ *
+ * 히스토그램 버킷 증가분을 더하는 UPSERT라 잠금 없이 여러 인스턴스가 동시에 반영할 수 있다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BoothDwellRepository {
+
+    private static final String UPSERT_SQL = """
+        INSERT INTO booth_dwell_histograms (booth_id, bucket_start, bucket, sample_count)
+        VALUES (?, ?, ?, ?)
+        ON CONFLICT (booth_id, bucket_start, bucket)
+        DO UPDATE SET sample_count = booth_dwell_histograms.sample_count + EXCLUDED.sample_count
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public void add(long boothId, LocalDateTime bucketStart, LogHistogram histogram) {
+        if (histogram.isEmpty()) return;
+        Timestamp start = Timestamp.valueOf(bucketStart);
+        List<Object[]> args = new ArrayList<>();
+        for (int bucket = 0; bucket < LogHistogram.BUCKET_COUNT; bucket++) {
+            long count = histogram.getCount(bucket);
+            if (count > 0) {
+                args.add(new Object[]{boothId, start, bucket, count});
+            }
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, args);
+    }
+
+    /**
+     * [from, to) 시간별 히스토그램 (시간 순)
+     */
+    public Map<LocalDateTime, LogHistogram> findHourly(long boothId, LocalDateTime from, LocalDateTime to) {
+        Map<LocalDateTime, LogHistogram> hourly = new TreeMap<>();
+        jdbcTemplate.query("""
+            SELECT bucket_start, bucket, sample_count FROM booth_dwell_histograms
+            WHERE booth_id = ? AND bucket_start >= ? AND bucket_start < ?
+            """,
+            rs -> {
+                int bucket = rs.getInt(2);
+                // 버킷 구성이 바뀌어 범위를 벗어난 행은 무시
+                if (bucket >= 0 && bucket < LogHistogram.BUCKET_COUNT) {
+                    hourly.computeIfAbsent(rs.getTimestamp(1).toLocalDateTime(), hour -> new LogHistogram())
+                        .add(bucket, rs.getLong(3));
+                }
+            },
+            boothId, Timestamp.valueOf(from), Timestamp.valueOf(to));
+        return hourly;
+    }
+
+    /**
+     * 부스별 전체 기간 히스토그램 (부스 수와 무관하게 쿼리 1회)
+     */
+    public Map<Long, LogHistogram> sumByBooths(Collection<Long> boothIds) {
+        Map<Long, LogHistogram> histograms = new HashMap<>();
+        if (boothIds.isEmpty()) return histograms;
+        namedParameterJdbcTemplate.query("""
+            SELECT booth_id, bucket, SUM(sample_count) FROM booth_dwell_histograms
+            WHERE booth_id IN (:boothIds)
+            GROUP BY booth_id, bucket
+            """,
+            new MapSqlParameterSource("boothIds", boothIds),
+            rs -> {
+                int bucket = rs.getInt(2);
+                if (bucket >= 0 && bucket < LogHistogram.BUCKET_COUNT) {
+                    histograms.computeIfAbsent(rs.getLong(1), id -> new LogHistogram()).add(bucket, rs.getLong(3));
+                }
+            });
+        return histograms;
+    }
+}
@@ -0,0 +1,90 @@
+package com.expogarden.repository;
+
+import com.expogarden.util.LogHistogram;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * booth_funnels / booth_funnel_latency 저장소
+ *
+ * 카운터와 히스토그램 버킷 모두 증가분을 더하는 UPSERT라 잠금 없이 여러 인스턴스가 동시에 반영할 수 있다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BoothFunnelRepository {
+
+    public enum Transition {
+        VIEW_TO_CLICK,
+        CLICK_TO_PLAY
+    }
+
+    public record FunnelCounts(long viewed, long clicked, long played) {
+    }
+
+    private static final String UPSERT_COUNTS_SQL = """
+        INSERT INTO booth_funnels (booth_id, viewed, clicked, played)
+        VALUES (?, ?, ?, ?)
+        ON CONFLICT (booth_id) DO UPDATE SET
+            viewed = booth_funnels.viewed + EXCLUDED.viewed,
+            clicked = booth_funnels.clicked + EXCLUDED.clicked,
+            played = booth_funnels.played + EXCLUDED.played,
+            updated_at = CURRENT_TIMESTAMP
+        """;
+
+    private static final String UPSERT_LATENCY_SQL = """
+        INSERT INTO booth_funnel_latency (booth_id, transition, bucket, sample_count)
+        VALUES (?, ?, ?, ?)
+        ON CONFLICT (booth_id, transition, bucket)
+        DO UPDATE SET sample_count = booth_funnel_latency.sample_count + EXCLUDED.sample_count
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void addCounts(long boothId, long viewed, long clicked, long played) {
+        jdbcTemplate.update(UPSERT_COUNTS_SQL, boothId, viewed, clicked, played);
+    }
+
+    public void addLatency(long boothId, Transition transition, LogHistogram histogram) {
+        if (histogram.isEmpty()) return;
+        List<Object[]> args = new ArrayList<>();
+        for (int bucket = 0; bucket < LogHistogram.BUCKET_COUNT; bucket++) {
+            long count = histogram.getCount(bucket);
+            if (count > 0) {
+                args.add(new Object[]{boothId, transition.name(), bucket, count});
+            }
+        }
+        jdbcTemplate.batchUpdate(UPSERT_LATENCY_SQL, args);
+    }
+
+    public FunnelCounts findCounts(long boothId) {
+        List<FunnelCounts> rows = jdbcTemplate.query(
+            "SELECT viewed, clicked, played FROM booth_funnels WHERE booth_id = ?",
+            (rs, rowNum) -> new FunnelCounts(rs.getLong(1), rs.getLong(2), rs.getLong(3)),
+            boothId);
+        return rows.isEmpty() ? new FunnelCounts(0, 0, 0) : rows.get(0);
+    }
+
+    public Map<Transition, LogHistogram> findLatency(long boothId) {
+        Map<Transition, LogHistogram> histograms = new EnumMap<>(Transition.class);
+        for (Transition transition : Transition.values()) {
+            histograms.put(transition, new LogHistogram());
+        }
+        jdbcTemplate.query(
+            "SELECT transition, bucket, sample_count FROM booth_funnel_latency WHERE booth_id = ?",
+            rs -> {
+                int bucket = rs.getInt(2);
+                // 버킷 구성이 바뀌어 범위를 벗어난 행은 무시
+                if (bucket >= 0 && bucket < LogHistogram.BUCKET_COUNT) {
+                    histograms.get(Transition.valueOf(rs.getString(1))).add(bucket, rs.getLong(3));
+                }
+            },
+            boothId);
+        return histograms;
+    }
+}
@@ -2,6 +2,7 @@ package com.expogarden.repository;
 
 import com.expogarden.domain.Booth;
 import com.expogarden.domain.BoothStatus;
+import com.expogarden.domain.MemberRole;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -10,6 +11,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -31,6 +33,11 @@ public interface BoothRepository extends JpaRepository<Booth, Long>, JpaSpecific
     @Query("SELECT b FROM Booth b WHERE b.ownerUserId = :ownerId AND b.deletedAt IS NULL")
     Page<Booth> findByOwnerUserId(@Param("ownerId") Long ownerId, Pageable pageable);
     
+    // 직접 소유하거나 booth_members에서 role 역할인 부스 (한 번의 쿼리)
+    @Query("SELECT b FROM Booth b WHERE b.deletedAt IS NULL AND (b.ownerUserId = :userId OR b.id IN " +
+           "(SELECT m.boothId FROM BoothMember m WHERE m.userId = :userId AND m.role = :role)) ORDER BY b.id")
+    List<Booth> findByOwnerOrMemberRole(@Param("userId") Long userId, @Param("role") MemberRole role);
+    
     @Query("SELECT COUNT(b) FROM Booth b WHERE b.exhibitionId = :exhibitionId AND b.status = 'APPROVED' AND b.deletedAt IS NULL")
     long countByExhibitionIdAndApproved(@Param("exhibitionId") Long exhibitionId);
     
@@ -39,5 +46,9 @@ public interface BoothRepository extends JpaRepository<Booth, Long>, JpaSpecific
     
     @Query("SELECT COUNT(b) FROM Booth b WHERE b.exhibitionId = :exhibitionId AND b.deletedAt IS NULL")
     Long countByExhibitionIdAndNotDeleted(@Param("exhibitionId") Long exhibitionId);
+    
+    // 삭제되지 않은 부스의 [id, exhibitionId] (트래킹 대상 검증용)
+    @Query("SELECT b.id, b.exhibitionId FROM Booth b WHERE b.deletedAt IS NULL")
+    List<Object[]> findNotDeletedExhibitionIds();
 }
 
@@ -3,10 +3,53 @@ package com.expogarden.repository;
 import com.expogarden.domain.ChatMessage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
+
 @Repository
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
     Page<ChatMessage> findByBoothId(Long boothId, Pageable pageable);
+    
+    // 이력 첫 페이지 (최신순). Slice라 COUNT 없이 size+1건만 읽는다
+    Slice<ChatMessage> findByBoothIdAndCreatedAtGreaterThanEqual(Long boothId, Instant since, Pageable pageable);
+    
+    // 이력 다음 페이지: 커서(before, beforeId)보다 이전 메시지. created_at 상한이 있어 그 뒤 파티션은 스캔하지 않는다
+    @Query("SELECT m FROM ChatMessage m WHERE m.boothId = :boothId AND m.createdAt >= :since AND m.createdAt <= :before " +
+           "AND (m.createdAt < :before OR m.id < :beforeId)")
+    Slice<ChatMessage> findHistoryBefore(
+        @Param("boothId") Long boothId,
+        @Param("since") Instant since,
+        @Param("before") Instant before,
+        @Param("beforeId") Long beforeId,
+        Pageable pageable
+    );
+    
+    // 전문 검색: tsvector 매칭 또는 부분 일치(pg_trgm), 관련도 x 최신성으로 정렬
+    // 3자 미만 검색어는 트라이그램 인덱스를 쓸 수 없으므로 pattern 대신 prefix(토큰 접두어 tsquery)로 찾는다 ('배송' → '배송은')
+    @Query(value = """
+        SELECT m.id, m.username, m.message, m.created_at,
+               (ts_rank(m.search_vector, plainto_tsquery('simple', :query)) + similarity(m.message, :query))
+                 / (1 + EXTRACT(EPOCH FROM (LOCALTIMESTAMP - m.created_at)) / 604800.0) AS score
+        FROM chat_messages m
+        WHERE m.booth_id = :boothId
+          AND m.type = 'CHAT'
+          AND (m.search_vector @@ plainto_tsquery('simple', :query)
+               OR (CAST(:pattern AS text) IS NOT NULL AND m.message ILIKE CAST(:pattern AS text))
+               OR (CAST(:prefix AS text) IS NOT NULL AND m.search_vector @@ to_tsquery('simple', CAST(:prefix AS text))))
+        ORDER BY score DESC, m.created_at DESC
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Object[]> search(
+        @Param("boothId") Long boothId,
+        @Param("query") String query,
+        @Param("pattern") String pattern,
+        @Param("prefix") String prefix,
+        @Param("limit") int limit
+    );
 }
@@ -5,11 +5,38 @@ import com.expogarden.domain.Question;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface QuestionRepository extends JpaRepository<Question, Long> {
     Page<Question> findByBoothIdAndStatus(Long boothId, ContentStatus status, Pageable pageable);
     Page<Question> findByBoothId(Long boothId, Pageable pageable);
+    
+    // 전문 검색: tsvector 매칭 또는 부분 일치(pg_trgm), 관련도 x 최신성으로 정렬 (숨김 처리된 질문 제외)
+    // 3자 미만 검색어는 트라이그램 인덱스를 쓸 수 없으므로 pattern 대신 prefix(토큰 접두어 tsquery)로 찾는다 ('배송' → '배송은')
+    @Query(value = """
+        SELECT q.id, COALESCE(u.nickname, '게스트'), q.content, q.created_at,
+               (ts_rank(q.search_vector, plainto_tsquery('simple', :query)) + similarity(q.content, :query))
+                 / (1 + EXTRACT(EPOCH FROM (LOCALTIMESTAMP - q.created_at)) / 604800.0) AS score
+        FROM questions q
+        LEFT JOIN users u ON u.id = q.user_id
+        WHERE q.booth_id = :boothId
+          AND q.status = 'VISIBLE'
+          AND (q.search_vector @@ plainto_tsquery('simple', :query)
+               OR (CAST(:pattern AS text) IS NOT NULL AND q.content ILIKE CAST(:pattern AS text))
+               OR (CAST(:prefix AS text) IS NOT NULL AND q.search_vector @@ to_tsquery('simple', CAST(:prefix AS text))))
+        ORDER BY score DESC, q.created_at DESC
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Object[]> search(
+        @Param("boothId") Long boothId,
+        @Param("query") String query,
+        @Param("pattern") String pattern,
+        @Param("prefix") String prefix,
+        @Param("limit") int limit
+    );
 }
-
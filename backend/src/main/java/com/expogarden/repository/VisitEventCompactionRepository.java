@@ -0,0 +1,227 @@
+package com.expogarden.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * visit_event_compactions 진행 상태와 원본 정리 쿼리
+ *
+ * 검증 쿼리는 원본이 이미 일부 정리된 뒤에도(재시작 후 이어서 진행) 통과하도록 "집계 >= 남은 원본"으로 비교한다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class VisitEventCompactionRepository {
+
+    public enum Mode {
+        DELETE,   // 원본 삭제
+        ARCHIVE   // visit_events_archive로 옮긴 뒤 삭제
+    }
+
+    public enum Status {
+        PENDING,
+        FAILED,      // 검증 실패 (다음 실행 때 다시 검증)
+        COMPACTING,  // 검증 통과, 배치 정리 중
+        DONE
+    }
+
+    public record EndedExhibition(long exhibitionId, Instant endAt) {
+    }
+
+    public record Compaction(long exhibitionId, LocalDateTime cutoff, Mode mode, Status status,
+                             LocalDateTime cursor, long rowsCompacted) {
+    }
+
+    public record BatchResult(long rows, LocalDateTime maxCreatedAt) {
+    }
+
+    private static final String COLUMNS = "id, exhibition_id, booth_id, user_id, session_id, action, metadata, created_at, weight";
+
+    // created_at 순으로 batch-size 행을 골라 PK로 지운다 (ORDER BY + LIMIT → 인덱스 범위 스캔, 잠금 범위 제한)
+    private static final String BATCH_SQL = """
+        WITH batch AS (
+            SELECT id, created_at FROM visit_events
+            WHERE exhibition_id = ? AND created_at >= ? AND created_at < ?
+            ORDER BY created_at
+            LIMIT ?
+        ), moved AS (
+            DELETE FROM visit_events v USING batch b
+            WHERE v.id = b.id AND v.created_at = b.created_at
+            RETURNING v.*
+        )
+        """;
+
+    private static final RowMapper<Compaction> COMPACTION_MAPPER = (rs, rowNum) -> {
+        Timestamp cursor = rs.getTimestamp(5);
+        return new Compaction(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime(),
+            Mode.valueOf(rs.getString(3)), Status.valueOf(rs.getString(4)),
+            cursor != null ? cursor.toLocalDateTime() : null, rs.getLong(6));
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<EndedExhibition> findNotCompacted(Instant endedBefore) {
+        return jdbcTemplate.query("""
+            SELECT e.id, e.end_at
+            FROM exhibitions e
+            LEFT JOIN visit_event_compactions c ON c.exhibition_id = e.id
+            WHERE e.end_at IS NOT NULL AND e.end_at < ? AND (c.status IS NULL OR c.status <> 'DONE')
+            ORDER BY e.end_at
+            """,
+            (rs, rowNum) -> new EndedExhibition(rs.getLong(1), rs.getTimestamp(2).toInstant()),
+            Timestamp.from(endedBefore));
+    }
+
+    public void insertIfAbsent(long exhibitionId, LocalDateTime cutoff, Mode mode) {
+        jdbcTemplate.update("""
+            INSERT INTO visit_event_compactions (exhibition_id, cutoff, mode, status)
+            VALUES (?, ?, ?, 'PENDING')
+            ON CONFLICT (exhibition_id) DO NOTHING
+            """, exhibitionId, Timestamp.valueOf(cutoff), mode.name());
+    }
+
+    public Optional<Compaction> find(long exhibitionId) {
+        return jdbcTemplate.query("""
+            SELECT exhibition_id, cutoff, mode, status, cursor_created_at, rows_compacted
+            FROM visit_event_compactions WHERE exhibition_id = ?
+            """,
+            COMPACTION_MAPPER,
+            exhibitionId).stream().findFirst();
+    }
+
+    public void markFailed(long exhibitionId, String message) {
+        jdbcTemplate.update("""
+            UPDATE visit_event_compactions SET status = 'FAILED', message = ?, updated_at = CURRENT_TIMESTAMP
+            WHERE exhibition_id = ? AND status IN ('PENDING', 'FAILED')
+            """, message, exhibitionId);
+    }
+
+    public void markVerified(long exhibitionId) {
+        jdbcTemplate.update("""
+            UPDATE visit_event_compactions
+            SET status = 'COMPACTING', message = NULL, verified_at = CURRENT_TIMESTAMP, updated_at = CURRENT_TIMESTAMP
+            WHERE exhibition_id = ? AND status IN ('PENDING', 'FAILED')
+            """, exhibitionId);
+    }
+
+    /**
+     * 배치 트랜잭션 안에서 진행 행을 잠근다. 다른 인스턴스가 잡고 있거나 정리 중이 아니면 empty
+     */
+    public Optional<Compaction> lockForBatch(long exhibitionId) {
+        return jdbcTemplate.query("""
+            SELECT exhibition_id, cutoff, mode, status, cursor_created_at, rows_compacted
+            FROM visit_event_compactions
+            WHERE exhibition_id = ? AND status = 'COMPACTING'
+            FOR UPDATE SKIP LOCKED
+            """,
+            COMPACTION_MAPPER,
+            exhibitionId).stream().findFirst();
+    }
+
+    public BatchResult compactBatch(Compaction compaction, LocalDateTime from, int batchSize) {
+        // 데이터 변경 CTE는 참조하지 않아도 실행된다
+        String archive = compaction.mode() == Mode.ARCHIVE
+            ? """
+                , archived AS (
+                    INSERT INTO visit_events_archive (%s)
+                    SELECT %s FROM moved
+                    ON CONFLICT (id, created_at) DO NOTHING
+                )
+                """.formatted(COLUMNS, COLUMNS)
+            : "";
+        String sql = BATCH_SQL + archive + "SELECT COUNT(*), MAX(created_at) FROM moved";
+        return jdbcTemplate.queryForObject(sql,
+            (rs, rowNum) -> {
+                Timestamp max = rs.getTimestamp(2);
+                return new BatchResult(rs.getLong(1), max != null ? max.toLocalDateTime() : null);
+            },
+            compaction.exhibitionId(), Timestamp.valueOf(from), Timestamp.valueOf(compaction.cutoff()), batchSize);
+    }
+
+    public void advance(long exhibitionId, LocalDateTime cursor, long rows) {
+        jdbcTemplate.update("""
+            UPDATE visit_event_compactions
+            SET cursor_created_at = ?, rows_compacted = rows_compacted + ?, updated_at = CURRENT_TIMESTAMP
+            WHERE exhibition_id = ?
+            """, Timestamp.valueOf(cursor), rows, exhibitionId);
+    }
+
+    public void markDone(long exhibitionId) {
+        jdbcTemplate.update("""
+            UPDATE visit_event_compactions
+            SET status = 'DONE', completed_at = CURRENT_TIMESTAMP, updated_at = CURRENT_TIMESTAMP
+            WHERE exhibition_id = ?
+            """, exhibitionId);
+    }
+
+    /**
+     * (일, 부스, 액션)별 남은 원본 weight 합이 일 단위 집계보다 큰 조합 수
+     */
+    public long countRollupMismatches(long exhibitionId, LocalDateTime cutoff) {
+        return jdbcTemplate.queryForObject("""
+            WITH raw AS (
+                SELECT date_trunc('day', created_at) AS bucket_start, COALESCE(booth_id, 0) AS booth_id,
+                       action, SUM(weight) AS event_count
+                FROM visit_events
+                WHERE exhibition_id = ? AND created_at < ?
+                GROUP BY 1, 2, 3
+            )
+            SELECT COUNT(*) FROM raw
+            LEFT JOIN visit_event_rollups r
+                ON r.granularity = 'DAY' AND r.exhibition_id = ? AND r.action = raw.action
+                AND r.booth_id = raw.booth_id AND r.bucket_start = raw.bucket_start
+            WHERE r.event_count IS NULL OR r.event_count < raw.event_count
+            """, Long.class, exhibitionId, Timestamp.valueOf(cutoff), exhibitionId);
+    }
+
+    /**
+     * 원본이 남아 있는데 전시 일 단위 고유 방문자 스케치가 없는 날 수
+     */
+    public long countMissingSketchDays(long exhibitionId, LocalDateTime cutoff) {
+        return jdbcTemplate.queryForObject("""
+            SELECT COUNT(*) FROM (
+                SELECT DISTINCT date_trunc('day', created_at) AS bucket_start
+                FROM visit_events
+                WHERE exhibition_id = ? AND created_at < ?
+            ) raw
+            WHERE NOT EXISTS (
+                SELECT 1 FROM visit_sketches s
+                WHERE s.scope = 'EXHIBITION' AND s.scope_id = ? AND s.granularity = 'DAY'
+                  AND s.bucket_start = raw.bucket_start
+            )
+            """, Long.class, exhibitionId, Timestamp.valueOf(cutoff), exhibitionId);
+    }
+
+    /**
+     * [since, cutoff) 부스 이벤트 원본이 남아 있는데 그 기간 체류 시간 히스토그램이 하나도 없는 부스 수
+     */
+    public long countMissingDwellBooths(long exhibitionId, LocalDateTime since, LocalDateTime cutoff) {
+        return jdbcTemplate.queryForObject("""
+            SELECT COUNT(*) FROM (
+                SELECT DISTINCT booth_id FROM visit_events
+                WHERE exhibition_id = ? AND booth_id IS NOT NULL AND created_at >= ? AND created_at < ?
+            ) raw
+            WHERE NOT EXISTS (
+                SELECT 1 FROM booth_dwell_histograms h
+                WHERE h.booth_id = raw.booth_id AND h.bucket_start >= ? AND h.bucket_start < ?
+            )
+            """, Long.class, exhibitionId, Timestamp.valueOf(since), Timestamp.valueOf(cutoff),
+            Timestamp.valueOf(since), Timestamp.valueOf(cutoff));
+    }
+
+    /**
+     * 체류 시간 집계를 시작한 시각 (V22 마이그레이션 적용 시각, 그 전 원본은 히스토그램이 없음)
+     */
+    public Optional<LocalDateTime> findDwellTrackingSince() {
+        return jdbcTemplate.query(
+            "SELECT installed_on FROM flyway_schema_history WHERE version = '22' AND success",
+            (rs, rowNum) -> rs.getTimestamp(1).toLocalDateTime()).stream().findFirst();
+    }
+}
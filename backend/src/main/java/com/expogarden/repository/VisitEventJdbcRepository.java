@@ -0,0 +1,286 @@
+package com.expogarden.repository;
+
+import com.expogarden.domain.VisitEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * visit_events 대량 INSERT / 대량 조회 전용 JDBC 저장소
+ *
+ * VisitEvent는 IDENTITY 전략이라 Hibernate가 INSERT를 배치로 묶지 못하므로,
+ * 수집 파이프라인에서는 JPA 대신 다음 두 방식 중 하나로 한 번에 기록한다.
+ * - 작은 배치: 다중 VALUES INSERT
+ * - copy-threshold 이상: COPY ... FROM STDIN (FORMAT binary)
+ * 내보내기는 엔티티를 만들지 않고 서버 측 커서로 fetchSize 행씩 읽는다.
+ */
+@Repository
+public class VisitEventJdbcRepository {
+
+    // 한 문장에 넣을 최대 행 수 (바인드 파라미터 한도 32767 / 컬럼 8개 이내)
+    private static final int ROWS_PER_STATEMENT = 1000;
+    private static final String COLUMNS = "exhibition_id, booth_id, user_id, session_id, action, metadata, created_at, weight";
+    private static final String INSERT_PREFIX = "INSERT INTO visit_events (" + COLUMNS + ") VALUES ";
+    private static final String ROW_PLACEHOLDER = "(?, ?, ?, ?, ?, CAST(? AS jsonb), ?, ?)";
+    private static final String COPY_SQL = "COPY visit_events (" + COLUMNS + ") FROM STDIN (FORMAT binary)";
+
+    // PostgreSQL binary COPY 포맷 상수
+    private static final byte[] COPY_SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+    private static final short COPY_FIELD_COUNT = 8;
+    private static final int COPY_FLUSH_BYTES = 64 * 1024;
+    private static final LocalDateTime POSTGRES_EPOCH = LocalDateTime.of(2000, 1, 1, 0, 0);
+    private static final byte JSONB_VERSION = 1;
+
+    public record ExportRow(long id, Instant createdAt, long exhibitionId, Long boothId, Long userId,
+                            String sessionId, String action, String metadata, int weight) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final ObjectMapper objectMapper;
+    private final int copyThreshold;
+
+    public VisitEventJdbcRepository(
+        JdbcTemplate jdbcTemplate,
+        ObjectMapper objectMapper,
+        @Value("${tracking.ingest.copy-threshold:200}") int copyThreshold
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = jdbcTemplate.getDataSource();
+        this.objectMapper = objectMapper;
+        this.copyThreshold = copyThreshold;
+    }
+
+    /**
+     * 배치 크기에 따라 COPY 또는 다중 VALUES INSERT로 기록한다.
+     */
+    public int writeBatch(List<VisitEvent> events) {
+        if (copyThreshold > 0 && events.size() >= copyThreshold) {
+            return copyBatch(events);
+        }
+        return insertBatch(events);
+    }
+
+    public int insertBatch(List<VisitEvent> events) {
+        int inserted = 0;
+        for (int from = 0; from < events.size(); from += ROWS_PER_STATEMENT) {
+            List<VisitEvent> chunk = events.subList(from, Math.min(events.size(), from + ROWS_PER_STATEMENT));
+            inserted += jdbcTemplate.update(buildInsert(chunk.size()), ps -> bind(ps, chunk));
+        }
+        return inserted;
+    }
+
+    /**
+     * pgjdbc CopyManager로 binary COPY 스트림을 보낸다.
+     * 트랜잭션이 진행 중이면 같은 커넥션을 사용한다 (DataSourceUtils).
+     */
+    public int copyBatch(List<VisitEvent> events) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        CopyIn copyIn = null;
+        try {
+            copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(COPY_FLUSH_BYTES * 2);
+            DataOutputStream out = new DataOutputStream(buffer);
+            out.write(COPY_SIGNATURE);
+            out.writeInt(0); // flags
+            out.writeInt(0); // header extension length
+
+            for (VisitEvent event : events) {
+                writeCopyRow(out, event);
+                if (buffer.size() >= COPY_FLUSH_BYTES) {
+                    copyIn.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+                    buffer.reset();
+                }
+            }
+            out.writeShort(-1); // trailer
+            copyIn.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+
+            long rows = copyIn.endCopy();
+            copyIn = null;
+            return (int) rows;
+        } catch (SQLException | IOException e) {
+            throw new IllegalStateException("COPY into visit_events failed", e);
+        } finally {
+            if (copyIn != null && copyIn.isActive()) {
+                try {
+                    copyIn.cancelCopy();
+                } catch (SQLException ignored) {
+                    // 커넥션 반납 시 정리됨
+                }
+            }
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * [from, to) 구간 이벤트를 한 행씩 넘긴다. 정렬하지 않으며 (파티션 순서대로 읽힘), metadata는 JSON 문자열이다.
+     * PostgreSQL은 트랜잭션 안(autocommit off)에서만 fetchSize 단위 커서로 읽으므로 호출 측 트랜잭션이 필요하다.
+     */
+    public void streamEvents(Long exhibitionId, Long boothId, String action, Instant from, Instant to,
+                             int fetchSize, Consumer<ExportRow> consumer) {
+        // created_at 범위를 항상 걸어 범위 밖 월 파티션은 스캔하지 않도록 한다
+        StringBuilder sql = new StringBuilder("""
+            SELECT id, created_at, exhibition_id, booth_id, user_id, session_id, action, metadata::text, weight
+            FROM visit_events
+            WHERE created_at >= ? AND created_at < ?
+            """);
+        List<Object> params = new ArrayList<>();
+        params.add(Timestamp.from(from));
+        params.add(Timestamp.from(to));
+        if (exhibitionId != null) {
+            sql.append(" AND exhibition_id = ?");
+            params.add(exhibitionId);
+        }
+        if (boothId != null) {
+            sql.append(" AND booth_id = ?");
+            params.add(boothId);
+        }
+        if (action != null) {
+            sql.append(" AND action = ?");
+            params.add(action);
+        }
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql.toString(),
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            return ps;
+        }, rs -> {
+            long boothIdValue = rs.getLong(4);
+            Long rowBoothId = rs.wasNull() ? null : boothIdValue;
+            long userIdValue = rs.getLong(5);
+            Long rowUserId = rs.wasNull() ? null : userIdValue;
+            consumer.accept(new ExportRow(
+                rs.getLong(1),
+                rs.getTimestamp(2).toInstant(),
+                rs.getLong(3),
+                rowBoothId,
+                rowUserId,
+                rs.getString(6),
+                rs.getString(7),
+                rs.getString(8),
+                rs.getInt(9)));
+        });
+    }
+
+    private void writeCopyRow(DataOutputStream out, VisitEvent event) throws IOException {
+        out.writeShort(COPY_FIELD_COUNT);
+        writeInt8(out, event.getExhibitionId());
+        writeInt8(out, event.getBoothId());
+        writeInt8(out, event.getUserId());
+        writeText(out, event.getSessionId());
+        writeText(out, event.getAction());
+
+        String metadata = toJson(event);
+        if (metadata == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = metadata.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length + 1);
+            out.writeByte(JSONB_VERSION);
+            out.write(bytes);
+        }
+
+        // created_at은 TIMESTAMP(타임존 없음) 컬럼이므로 JDBC(Timestamp.from)와 같게 JVM 기본 타임존 기준으로 기록
+        LocalDateTime createdAt = LocalDateTime.ofInstant(event.getCreatedAt(), ZoneId.systemDefault());
+        out.writeInt(8);
+        out.writeLong(ChronoUnit.MICROS.between(POSTGRES_EPOCH, createdAt));
+
+        out.writeInt(4);
+        out.writeInt(weightOf(event));
+    }
+
+    private static void writeInt8(DataOutputStream out, Long value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(8);
+            out.writeLong(value);
+        }
+    }
+
+    private static void writeText(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String buildInsert(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows * (ROW_PLACEHOLDER.length() + 2));
+        sql.append(INSERT_PREFIX);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) sql.append(", ");
+            sql.append(ROW_PLACEHOLDER);
+        }
+        return sql.toString();
+    }
+
+    private void bind(PreparedStatement ps, List<VisitEvent> events) throws SQLException {
+        int index = 1;
+        for (VisitEvent event : events) {
+            ps.setLong(index++, event.getExhibitionId());
+            setNullableLong(ps, index++, event.getBoothId());
+            setNullableLong(ps, index++, event.getUserId());
+            ps.setString(index++, event.getSessionId());
+            ps.setString(index++, event.getAction());
+            ps.setString(index++, toJson(event));
+            ps.setTimestamp(index++, Timestamp.from(event.getCreatedAt()));
+            ps.setInt(index++, weightOf(event));
+        }
+    }
+
+    public static int weightOf(VisitEvent event) {
+        return event.getWeight() != null ? event.getWeight() : 1;
+    }
+
+    private static void setNullableLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value != null) {
+            ps.setLong(index, value);
+        } else {
+            ps.setNull(index, Types.BIGINT);
+        }
+    }
+
+    public String toJson(VisitEvent event) {
+        if (event.getMetadata() == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(event.getMetadata());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid event metadata", e);
+        }
+    }
+}
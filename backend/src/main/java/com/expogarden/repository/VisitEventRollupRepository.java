@@ -0,0 +1,240 @@
+package com.expogarden.repository;
+
+import com.expogarden.domain.RollupGranularity;
+import com.expogarden.domain.VisitEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * visit_event_rollups 집계 테이블 저장소
+ *
+ * 원본 배치를 (단위, 버킷, 전시, 부스, 액션)별 증가분으로 묶어 UPSERT 한다.
+ * 버킷 시각은 visit_events.created_at과 같이 JVM 기본 타임존의 로컬 시각 기준이다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class VisitEventRollupRepository {
+
+    // 부스 밖 이벤트의 booth_id (PK에 NULL을 쓸 수 없음)
+    public static final long NO_BOOTH = 0L;
+
+    private static final String UPSERT_SQL = """
+        INSERT INTO visit_event_rollups (granularity, bucket_start, exhibition_id, booth_id, action, event_count)
+        VALUES (?, ?, ?, ?, ?, ?)
+        ON CONFLICT (granularity, exhibition_id, action, booth_id, bucket_start)
+        DO UPDATE SET event_count = visit_event_rollups.event_count + EXCLUDED.event_count
+        """;
+
+    // writer 스레드끼리 같은 행을 다른 순서로 잠가 교착되지 않도록 항상 같은 순서로 UPSERT
+    private static final Comparator<RollupKey> KEY_ORDER = Comparator
+        .comparing(RollupKey::granularity)
+        .thenComparingLong(RollupKey::exhibitionId)
+        .thenComparing(RollupKey::action)
+        .thenComparingLong(RollupKey::boothId)
+        .thenComparing(RollupKey::bucketStart);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public record RollupKey(RollupGranularity granularity, LocalDateTime bucketStart,
+                            long exhibitionId, long boothId, String action) {
+    }
+
+    public record BoothTotal(long boothId, String boothTitle, long count) {
+    }
+
+    public record BoothActionTotals(long boothId, long views, long clicks, long videoPlays) {
+    }
+
+    public record SeriesPoint(LocalDateTime bucketStart, String action, long count) {
+    }
+
+    public record BoothBucketCount(LocalDateTime bucketStart, long boothId, String boothTitle, long count) {
+    }
+
+    /**
+     * 배치를 모든 단위(MINUTE/HOUR/DAY)의 증가분으로 합산해 반영한다.
+     * 호출 측 트랜잭션 안에서 원본 INSERT와 함께 커밋되어야 집계가 어긋나지 않는다.
+     */
+    public int applyBatch(List<VisitEvent> events) {
+        Map<RollupKey, Long> deltas = aggregate(events);
+        if (deltas.isEmpty()) return 0;
+
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((key, count) -> args.add(new Object[]{
+            key.granularity().name(),
+            Timestamp.valueOf(key.bucketStart()),
+            key.exhibitionId(),
+            key.boothId(),
+            key.action(),
+            count
+        }));
+        jdbcTemplate.batchUpdate(UPSERT_SQL, args);
+        return deltas.size();
+    }
+
+    /**
+     * bucket_start가 cutoff 이전인 granularity 행을 최대 limit개 삭제한다 (보존 기간 정리용, V26 인덱스 사용).
+     *
+     * @return 삭제한 행 수 (limit보다 작으면 더 지울 행이 없음)
+     */
+    public int deleteBefore(RollupGranularity granularity, LocalDateTime cutoff, int limit) {
+        return jdbcTemplate.update("""
+            DELETE FROM visit_event_rollups
+            WHERE ctid IN (
+                SELECT ctid FROM visit_event_rollups
+                WHERE granularity = ? AND bucket_start < ?
+                LIMIT ?
+            )
+            """, granularity.name(), Timestamp.valueOf(cutoff), limit);
+    }
+
+    public static Map<RollupKey, Long> aggregate(List<VisitEvent> events) {
+        Map<RollupKey, Long> deltas = new TreeMap<>(KEY_ORDER);
+        ZoneId zone = ZoneId.systemDefault();
+        for (VisitEvent event : events) {
+            LocalDateTime createdAt = LocalDateTime.ofInstant(event.getCreatedAt(), zone);
+            long boothId = event.getBoothId() != null ? event.getBoothId() : NO_BOOTH;
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                RollupKey key = new RollupKey(granularity, granularity.truncate(createdAt),
+                    event.getExhibitionId(), boothId, event.getAction());
+                deltas.merge(key, (long) VisitEventJdbcRepository.weightOf(event), Long::sum);
+            }
+        }
+        return deltas;
+    }
+
+    /**
+     * 여러 부스의 VIEW/CLICK_LINK/PLAY_VIDEO 합계를 한 번에 (DAY 행, 부스 인덱스 사용)
+     */
+    public Map<Long, BoothActionTotals> sumByBoothsGroupByAction(Collection<Long> boothIds) {
+        Map<Long, BoothActionTotals> totals = new HashMap<>();
+        if (boothIds.isEmpty()) return totals;
+        namedParameterJdbcTemplate.query("""
+            SELECT booth_id,
+                   COALESCE(SUM(event_count) FILTER (WHERE action = 'VIEW'), 0),
+                   COALESCE(SUM(event_count) FILTER (WHERE action = 'CLICK_LINK'), 0),
+                   COALESCE(SUM(event_count) FILTER (WHERE action = 'PLAY_VIDEO'), 0)
+            FROM visit_event_rollups
+            WHERE granularity = 'DAY' AND booth_id IN (:boothIds)
+              AND action IN ('VIEW', 'CLICK_LINK', 'PLAY_VIDEO')
+            GROUP BY booth_id
+            """, new MapSqlParameterSource("boothIds", boothIds), rs -> {
+            long boothId = rs.getLong(1);
+            totals.put(boothId, new BoothActionTotals(boothId, rs.getLong(2), rs.getLong(3), rs.getLong(4)));
+        });
+        return totals;
+    }
+
+    // 전시 전체의 특정 액션 합계
+    public long sumByExhibitionAndAction(Long exhibitionId, String action) {
+        Long sum = jdbcTemplate.queryForObject("""
+            SELECT COALESCE(SUM(event_count), 0)
+            FROM visit_event_rollups
+            WHERE granularity = 'DAY' AND exhibition_id = ? AND action = ?
+            """, Long.class, exhibitionId, action);
+        return sum != null ? sum : 0L;
+    }
+
+    // 전시의 액션별 합계
+    public Map<String, Long> sumByExhibitionGroupByAction(Long exhibitionId) {
+        Map<String, Long> totals = new HashMap<>();
+        jdbcTemplate.query("""
+            SELECT action, SUM(event_count)
+            FROM visit_event_rollups
+            WHERE granularity = 'DAY' AND exhibition_id = ?
+            GROUP BY action
+            """, rs -> {
+            totals.put(rs.getString(1), rs.getLong(2));
+        }, exhibitionId);
+        return totals;
+    }
+
+    // 부스의 액션별 합계 (한 번의 조회로 VIEW/CLICK_LINK/PLAY_VIDEO 등을 모두 가져옴)
+    public Map<String, Long> sumByBoothGroupByAction(Long boothId) {
+        Map<String, Long> totals = new HashMap<>();
+        jdbcTemplate.query("""
+            SELECT action, SUM(event_count)
+            FROM visit_event_rollups
+            WHERE granularity = 'DAY' AND booth_id = ?
+            GROUP BY action
+            """, rs -> {
+            totals.put(rs.getString(1), rs.getLong(2));
+        }, boothId);
+        return totals;
+    }
+
+    // 전시 내 특정 액션 합계 상위 부스 (삭제된 부스 제외)
+    public List<BoothTotal> findTopBooths(Long exhibitionId, String action, int limit) {
+        return jdbcTemplate.query("""
+            SELECT r.booth_id, b.title, SUM(r.event_count) AS total
+            FROM visit_event_rollups r
+            JOIN booths b ON b.id = r.booth_id
+            WHERE r.granularity = 'DAY'
+              AND r.exhibition_id = ?
+              AND r.action = ?
+              AND r.booth_id <> 0
+              AND b.deleted_at IS NULL
+            GROUP BY r.booth_id, b.title
+            ORDER BY total DESC
+            LIMIT ?
+            """, (rs, rowNum) -> new BoothTotal(rs.getLong(1), rs.getString(2), rs.getLong(3)),
+            exhibitionId, action, limit);
+    }
+
+    // 전시 내 부스별·버킷별 특정 액션 수 (from 이후, 삭제된 부스 제외)
+    public List<BoothBucketCount> findBoothCounts(Long exhibitionId, String action, RollupGranularity granularity,
+                                                  LocalDateTime from) {
+        return jdbcTemplate.query("""
+            SELECT r.bucket_start, r.booth_id, b.title, r.event_count
+            FROM visit_event_rollups r
+            JOIN booths b ON b.id = r.booth_id
+            WHERE r.granularity = ?
+              AND r.exhibition_id = ?
+              AND r.action = ?
+              AND r.booth_id <> 0
+              AND r.bucket_start >= ?
+              AND b.deleted_at IS NULL
+            """, (rs, rowNum) -> new BoothBucketCount(rs.getTimestamp(1).toLocalDateTime(), rs.getLong(2),
+                rs.getString(3), rs.getLong(4)),
+            granularity.name(), exhibitionId, action, Timestamp.valueOf(from));
+    }
+
+    // 부스의 버킷별·액션별 합계 [from, to)
+    public List<SeriesPoint> findBoothSeries(Long boothId, RollupGranularity granularity,
+                                             LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.query("""
+            SELECT bucket_start, action, SUM(event_count)
+            FROM visit_event_rollups
+            WHERE granularity = ? AND booth_id = ? AND bucket_start >= ? AND bucket_start < ?
+            GROUP BY bucket_start, action
+            """, (rs, rowNum) -> new SeriesPoint(rs.getTimestamp(1).toLocalDateTime(), rs.getString(2), rs.getLong(3)),
+            granularity.name(), boothId, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    // 전시의 버킷별·액션별 합계 [from, to) (모든 부스 + 공용 공간)
+    public List<SeriesPoint> findExhibitionSeries(Long exhibitionId, RollupGranularity granularity,
+                                                  LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.query("""
+            SELECT bucket_start, action, SUM(event_count)
+            FROM visit_event_rollups
+            WHERE granularity = ? AND exhibition_id = ? AND bucket_start >= ? AND bucket_start < ?
+            GROUP BY bucket_start, action
+            """, (rs, rowNum) -> new SeriesPoint(rs.getTimestamp(1).toLocalDateTime(), rs.getString(2), rs.getLong(3)),
+            granularity.name(), exhibitionId, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+}
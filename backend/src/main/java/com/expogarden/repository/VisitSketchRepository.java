@@ -0,0 +1,114 @@
+package com.expogarden.repository;
+
+import com.expogarden.domain.RollupGranularity;
+import com.expogarden.util.HyperLogLog;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * visit_sketches (고유 방문자 HyperLogLog) 저장소
+ *
+ * SQL로는 스케치를 합칠 수 없으므로 행을 잠그고(FOR UPDATE) 애플리케이션에서 병합한 뒤 다시 쓴다.
+ * 병합은 멱등(레지스터별 최댓값)이라 같은 세션이 여러 번 반영되어도 결과는 같다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class VisitSketchRepository {
+
+    public enum Scope {
+        BOOTH,
+        EXHIBITION
+    }
+
+    public record SketchRow(long scopeId, LocalDateTime bucketStart, byte[] sketch) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * 저장된 스케치와 delta를 합친다. 호출 측 트랜잭션 안에서 실행해야 한다.
+     */
+    public void merge(Scope scope, long scopeId, RollupGranularity granularity, LocalDateTime bucketStart,
+                      HyperLogLog delta) {
+        Timestamp bucket = Timestamp.valueOf(bucketStart);
+        for (int attempt = 0; attempt < 2; attempt++) {
+            List<byte[]> existing = jdbcTemplate.queryForList("""
+                SELECT sketch FROM visit_sketches
+                WHERE scope = ? AND scope_id = ? AND granularity = ? AND bucket_start = ?
+                FOR UPDATE
+                """, byte[].class, scope.name(), scopeId, granularity.name(), bucket);
+
+            if (!existing.isEmpty()) {
+                HyperLogLog merged = union(HyperLogLog.fromBytes(existing.get(0)), delta);
+                jdbcTemplate.update("""
+                    UPDATE visit_sketches SET sketch = ?, updated_at = CURRENT_TIMESTAMP
+                    WHERE scope = ? AND scope_id = ? AND granularity = ? AND bucket_start = ?
+                    """, merged.toBytes(), scope.name(), scopeId, granularity.name(), bucket);
+                return;
+            }
+
+            int inserted = jdbcTemplate.update("""
+                INSERT INTO visit_sketches (scope, scope_id, granularity, bucket_start, sketch)
+                VALUES (?, ?, ?, ?, ?)
+                ON CONFLICT DO NOTHING
+                """, scope.name(), scopeId, granularity.name(), bucket, delta.toBytes());
+            if (inserted > 0) {
+                return;
+            }
+            // 다른 인스턴스가 먼저 만들었으면 잠그고 다시 병합
+        }
+        throw new IllegalStateException("Could not merge sketch " + scope + ":" + scopeId + " " + bucketStart);
+    }
+
+    /**
+     * @param from 포함 (null이면 하한 없음)
+     * @param to   미포함 (null이면 상한 없음)
+     */
+    public List<SketchRow> findSketches(Scope scope, Collection<Long> scopeIds, RollupGranularity granularity,
+                                        LocalDateTime from, LocalDateTime to) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("scope", scope.name())
+            .addValue("scopeIds", scopeIds)
+            .addValue("granularity", granularity.name());
+        StringBuilder sql = new StringBuilder("""
+            SELECT scope_id, bucket_start, sketch FROM visit_sketches
+            WHERE scope = :scope AND scope_id IN (:scopeIds) AND granularity = :granularity
+            """);
+        if (from != null) {
+            sql.append(" AND bucket_start >= :from");
+            params.addValue("from", Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND bucket_start < :to");
+            params.addValue("to", Timestamp.valueOf(to));
+        }
+        return namedParameterJdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> new SketchRow(
+            rs.getLong(1), rs.getTimestamp(2).toLocalDateTime(), rs.getBytes(3)));
+    }
+
+    public boolean isEmpty() {
+        Boolean exists = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM visit_sketches)", Boolean.class);
+        return !Boolean.TRUE.equals(exists);
+    }
+
+    /**
+     * 두 스케치의 합집합 (정밀도가 다르면 낮은 쪽에 맞춤). 인자를 변경할 수 있다.
+     */
+    public static HyperLogLog union(HyperLogLog a, HyperLogLog b) {
+        if (a.getPrecision() <= b.getPrecision()) {
+            a.merge(b);
+            return a;
+        }
+        b.merge(a);
+        return b;
+    }
+}
@@ -0,0 +1,118 @@
+package com.expogarden.security;
+
+import com.expogarden.service.LiveStatsPushService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.security.Principal;
+
+/**
+ * STOMP 인바운드 인증/인가
+ *
+ * CONNECT 프레임의 Authorization: Bearer {access token} 헤더로 세션 사용자를 정한다 (헤더가 없으면 익명).
+ * /topic/stats.booth.{boothId} 구독은 ADMIN 또는 부스 소유자만 허용하며, 구독 시점에 한 번 확인한다.
+ * 클라이언트가 /topic/stats.* 로 직접 SEND 하는 것은 막는다.
+ * simple broker는 구독 대상에 Ant 패턴(*, ?, {})을 허용하므로(/topic/** 로 모든 부스 통계 수신 가능) 패턴 구독은 모두 거부한다.
+ * 그 밖의 구독(채팅, 위치 등)은 기존처럼 익명도 허용한다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+    
+    private final JwtTokenProvider tokenProvider;
+    private final CustomUserDetailsService customUserDetailsService;
+    private final BoothSecurityService boothSecurityService;
+    private final LiveStatsPushService liveStatsPushService;
+    
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+        
+        switch (accessor.getCommand()) {
+            case CONNECT -> authenticate(accessor);
+            case SUBSCRIBE -> authorizeSubscribe(accessor);
+            case UNSUBSCRIBE -> liveStatsPushService.unsubscribe(accessor.getSessionId(), accessor.getSubscriptionId());
+            case SEND -> {
+                String destination = accessor.getDestination();
+                if (destination != null && destination.startsWith("/topic/stats.")) {
+                    throw new AccessDeniedException("Cannot send to " + destination);
+                }
+            }
+            default -> {
+            }
+        }
+        return message;
+    }
+    
+    private void authenticate(StompHeaderAccessor accessor) {
+        String bearerToken = accessor.getFirstNativeHeader("Authorization");
+        if (!StringUtils.hasText(bearerToken) || !bearerToken.startsWith("Bearer ")) {
+            return;
+        }
+        
+        String jwt = bearerToken.substring(7);
+        // 토큰을 보냈는데 유효하지 않으면 익명으로 두지 않고 연결을 거부해 클라이언트가 갱신하도록 한다
+        if (!tokenProvider.validateToken(jwt) || !"access".equals(tokenProvider.getTokenType(jwt))) {
+            throw new BadCredentialsException("Invalid access token");
+        }
+        
+        UserDetails userDetails = customUserDetailsService.loadUserById(tokenProvider.getUserIdFromToken(jwt));
+        accessor.setUser(new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+    }
+    
+    private void authorizeSubscribe(StompHeaderAccessor accessor) {
+        String destination = accessor.getDestination();
+        if (destination == null || isPattern(destination)) {
+            throw new AccessDeniedException("Invalid destination");
+        }
+        Long boothId = LiveStatsPushService.parseBoothId(destination);
+        if (boothId == null) {
+            if (destination.startsWith("/topic/stats.")) {
+                throw new AccessDeniedException("Invalid destination");
+            }
+            return;
+        }
+        
+        UserPrincipal principal = principalOf(accessor.getUser());
+        boolean allowed = principal != null
+            && (principal.hasRole("ADMIN") || boothSecurityService.isOwner(boothId, principal));
+        if (!allowed) {
+            log.warn("Denied live stats subscription for booth {} (session {})", boothId, accessor.getSessionId());
+            throw new AccessDeniedException("Access denied");
+        }
+        
+        try {
+            liveStatsPushService.subscribe(accessor.getSessionId(), accessor.getSubscriptionId(), boothId);
+        } catch (IllegalArgumentException e) {
+            throw new AccessDeniedException(e.getMessage());
+        }
+    }
+    
+    // AntPathMatcher.isPattern과 같은 기준
+    private static boolean isPattern(String destination) {
+        return destination.indexOf('*') >= 0 || destination.indexOf('?') >= 0 || destination.indexOf('{') >= 0;
+    }
+    
+    private static UserPrincipal principalOf(Principal user) {
+        if (user instanceof UsernamePasswordAuthenticationToken authentication
+            && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,152 @@
+package com.expogarden.service;
+
+import com.expogarden.dto.BoothPresenceDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 부스 채팅 접속자 로스터
+ *
+ * 세션 단위로 어느 부스 채팅에 있는지 관리하고, 입장/퇴장마다 메시지를 뿌리는 대신
+ * 변경된 부스만 모아 주기적으로 인원수 변화(delta)만 /topic/booth.{boothId}.presence 로 발행한다.
+ * 전체 명단은 요청한 세션에게만 보낸다.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BoothChatRosterService {
+    
+    private final SimpMessagingTemplate messagingTemplate;
+    
+    // sessionId -> 입장 정보
+    private final Map<String, Entry> sessions = new ConcurrentHashMap<>();
+    // boothId -> sessionId 집합
+    private final Map<Long, Set<String>> boothSessions = new ConcurrentHashMap<>();
+    // 마지막으로 발행한 인원수
+    private final Map<Long, Integer> publishedCounts = new ConcurrentHashMap<>();
+    // 인원 변동이 있었던 부스
+    private final Set<Long> dirtyBooths = ConcurrentHashMap.newKeySet();
+    
+    private record Entry(Long boothId, Long userId, String username, Instant joinedAt) {
+    }
+    
+    /**
+     * 세션을 부스 채팅에 등록 (다른 부스에 있었다면 그 부스에서는 빠짐)
+     */
+    public void join(Long boothId, String sessionId, Long userId, String username) {
+        Entry previous = sessions.put(sessionId, new Entry(boothId, userId, username, Instant.now()));
+        if (previous != null && !previous.boothId().equals(boothId)) {
+            removeFromBooth(previous.boothId(), sessionId);
+        }
+        boothSessions.compute(boothId, (k, members) -> {
+            Set<String> updated = members != null ? members : ConcurrentHashMap.newKeySet();
+            updated.add(sessionId);
+            return updated;
+        });
+        dirtyBooths.add(boothId);
+    }
+    
+    public void leave(String sessionId) {
+        Entry entry = sessions.remove(sessionId);
+        if (entry != null) {
+            removeFromBooth(entry.boothId(), sessionId);
+        }
+    }
+    
+    /**
+     * 세션 종료 시 로스터에서 제거
+     */
+    @EventListener
+    public void handleSessionDisconnect(SessionDisconnectEvent event) {
+        leave(event.getSessionId());
+    }
+    
+    public int getCount(Long boothId) {
+        Set<String> members = boothSessions.get(boothId);
+        return members != null ? members.size() : 0;
+    }
+    
+    public BoothPresenceDto getPresence(Long boothId) {
+        return BoothPresenceDto.builder()
+            .boothId(boothId)
+            .count(getCount(boothId))
+            .delta(0)
+            .timestamp(Instant.now())
+            .build();
+    }
+    
+    public BoothPresenceDto getRoster(Long boothId) {
+        List<BoothPresenceDto.Member> members = new ArrayList<>();
+        Set<String> sessionIds = boothSessions.get(boothId);
+        if (sessionIds != null) {
+            for (String sessionId : sessionIds) {
+                Entry entry = sessions.get(sessionId);
+                if (entry != null && entry.boothId().equals(boothId)) {
+                    members.add(BoothPresenceDto.Member.builder()
+                        .userId(entry.userId())
+                        .username(entry.username())
+                        .joinedAt(entry.joinedAt())
+                        .build());
+                }
+            }
+        }
+        members.sort(Comparator.comparing(BoothPresenceDto.Member::getJoinedAt));
+        
+        return BoothPresenceDto.builder()
+            .boothId(boothId)
+            .count(members.size())
+            .delta(0)
+            .members(members)
+            .timestamp(Instant.now())
+            .build();
+    }
+    
+    /**
+     * 변동이 있었던 부스의 인원수 변화만 발행 (발행 주기 동안의 입장/퇴장은 하나로 합쳐짐)
+     */
+    @Scheduled(fixedDelayString = "${chat.presence.publish-interval-ms:2000}")
+    public void publishPresence() {
+        if (dirtyBooths.isEmpty()) return;
+        
+        for (Long boothId : List.copyOf(dirtyBooths)) {
+            dirtyBooths.remove(boothId);
+            
+            int count = getCount(boothId);
+            int previous = publishedCounts.getOrDefault(boothId, 0);
+            if (count == 0) {
+                publishedCounts.remove(boothId);
+            } else {
+                publishedCounts.put(boothId, count);
+            }
+            if (count == previous) continue;
+            
+            messagingTemplate.convertAndSend("/topic/booth." + boothId + ".presence", BoothPresenceDto.builder()
+                .boothId(boothId)
+                .count(count)
+                .delta(count - previous)
+                .timestamp(Instant.now())
+                .build());
+        }
+    }
+    
+    private void removeFromBooth(Long boothId, String sessionId) {
+        boothSessions.computeIfPresent(boothId, (k, members) -> {
+            members.remove(sessionId);
+            return members.isEmpty() ? null : members;
+        });
+        dirtyBooths.add(boothId);
+    }
+}
@@ -0,0 +1,97 @@
+package com.expogarden.service;
+
+import com.expogarden.dto.SearchResultDto;
+import com.expogarden.repository.ChatMessageRepository;
+import com.expogarden.repository.QuestionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class BoothSearchService {
+    
+    private static final int MAX_QUERY_LENGTH = 100;
+    private static final int MAX_LIMIT = 100;
+    // pg_trgm은 3자 단위로 색인하므로 더 짧은 검색어의 ILIKE는 인덱스 없이 부스 전체를 훑는다 (이때는 접두어 검색)
+    private static final int MIN_PATTERN_LENGTH = 3;
+    
+    private final ChatMessageRepository chatMessageRepository;
+    private final QuestionRepository questionRepository;
+    
+    /**
+     * 부스 채팅/질문 이력 검색
+     * type이 null이면 둘 다 검색해 점수순으로 합친다.
+     */
+    @Transactional(readOnly = true)
+    public List<SearchResultDto> search(Long boothId, String query, SearchResultDto.SourceType type, int limit) {
+        String text = query != null ? query.trim() : "";
+        if (text.isEmpty()) {
+            throw new RuntimeException("Search query is empty");
+        }
+        if (text.length() > MAX_QUERY_LENGTH) {
+            text = text.substring(0, MAX_QUERY_LENGTH);
+        }
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        String pattern = text.length() >= MIN_PATTERN_LENGTH ? "%" + escapeLike(text) + "%" : null;
+        String prefix = pattern == null ? prefixQuery(text) : null;
+        
+        List<SearchResultDto> results = new ArrayList<>();
+        if (type == null || type == SearchResultDto.SourceType.CHAT) {
+            for (Object[] row : chatMessageRepository.search(boothId, text, pattern, prefix, size)) {
+                results.add(mapRow(SearchResultDto.SourceType.CHAT, boothId, row));
+            }
+        }
+        if (type == null || type == SearchResultDto.SourceType.QUESTION) {
+            for (Object[] row : questionRepository.search(boothId, text, pattern, prefix, size)) {
+                results.add(mapRow(SearchResultDto.SourceType.QUESTION, boothId, row));
+            }
+        }
+        
+        results.sort(Comparator.comparing(SearchResultDto::getScore).reversed()
+            .thenComparing(SearchResultDto::getCreatedAt, Comparator.reverseOrder()));
+        return results.size() > size ? results.subList(0, size) : results;
+    }
+    
+    private SearchResultDto mapRow(SearchResultDto.SourceType type, Long boothId, Object[] row) {
+        return SearchResultDto.builder()
+            .type(type)
+            .id(((Number) row[0]).longValue())
+            .boothId(boothId)
+            .author((String) row[1])
+            .content((String) row[2])
+            .createdAt(toInstant(row[3]))
+            .score(((Number) row[4]).doubleValue())
+            .build();
+    }
+    
+    // to_tsquery 문법 문자가 섞이지 않도록 글자/숫자만 남긴다 (남는 게 없으면 접두어 검색 안 함)
+    private static String prefixQuery(String text) {
+        String word = text.codePoints()
+            .filter(Character::isLetterOrDigit)
+            .collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append)
+            .toString();
+        return word.isEmpty() ? null : word + ":*";
+    }
+    
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+    
+    static Instant toInstant(Object value) {
+        if (value instanceof Timestamp timestamp) return timestamp.toInstant();
+        if (value instanceof Instant instant) return instant;
+        if (value instanceof LocalDateTime localDateTime) return localDateTime.atZone(ZoneId.systemDefault()).toInstant();
+        if (value instanceof OffsetDateTime offsetDateTime) return offsetDateTime.toInstant();
+        return null;
+    }
+}
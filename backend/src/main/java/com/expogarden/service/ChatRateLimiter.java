@@ -0,0 +1,89 @@
+package com.expogarden.service;
+
+import com.expogarden.security.UserPrincipal;
+import com.expogarden.util.SlidingWindowRateLimiter;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Service;
+
+import java.security.Principal;
+
+/**
+ * 채팅 도배 방지 (세션/사용자별 슬라이딩 윈도우)
+ *
+ * /app/chat.booth.{boothId}, /app/chat.hall.{hallId} 전송마다 세션 키와
+ * (CONNECT 때 인증된 경우) 사용자 키를 모두 검사한다. 사용자 키는 페이로드의 userId가 아니라
+ * STOMP 세션의 Principal에서 얻는다 (클라이언트가 userId를 바꿔 가며 한도를 피하지 못하도록). 한도 초과 시 RateLimitExceededException을 던지고,
+ * ChatMessageExceptionAdvice의 @MessageExceptionHandler가 /user/queue/errors 로 돌려보낸다.
+ */
+@Service
+@Slf4j
+public class ChatRateLimiter {
+
+    private static final long SESSION_SEED = 0x5E55L;
+    private static final long USER_SEED = 0x05E5L;
+
+    public enum Destination {
+        BOOTH,
+        HALL
+    }
+
+    private final SlidingWindowRateLimiter boothLimiter;
+    private final SlidingWindowRateLimiter hallLimiter;
+    private final boolean enabled;
+
+    public ChatRateLimiter(
+        @Value("${chat.rate-limit.enabled:true}") boolean enabled,
+        @Value("${chat.rate-limit.slots:65536}") int slots,
+        @Value("${chat.rate-limit.booth.max-messages:5}") int boothMaxMessages,
+        @Value("${chat.rate-limit.booth.window-ms:5000}") long boothWindowMillis,
+        @Value("${chat.rate-limit.hall.max-messages:8}") int hallMaxMessages,
+        @Value("${chat.rate-limit.hall.window-ms:5000}") long hallWindowMillis
+    ) {
+        this.enabled = enabled;
+        this.boothLimiter = new SlidingWindowRateLimiter(slots, boothMaxMessages, boothWindowMillis);
+        this.hallLimiter = new SlidingWindowRateLimiter(slots, hallMaxMessages, hallWindowMillis);
+    }
+
+    /**
+     * 전송을 허용할 수 없으면 RateLimitExceededException을 던진다.
+     */
+    public void checkSend(Destination destination, String sessionId, Principal user) {
+        if (!enabled) return;
+
+        Long userId = userIdOf(user);
+        SlidingWindowRateLimiter limiter = destination == Destination.BOOTH ? boothLimiter : hallLimiter;
+        long now = System.currentTimeMillis();
+
+        boolean allowed = sessionId == null
+            || limiter.tryAcquire(SlidingWindowRateLimiter.hash(SESSION_SEED, sessionId), now);
+        if (allowed && userId != null) {
+            allowed = limiter.tryAcquire(SlidingWindowRateLimiter.hash(USER_SEED, userId), now);
+        }
+
+        if (!allowed) {
+            log.debug("Chat rate limit exceeded: destination={}, sessionId={}, userId={}", destination, sessionId, userId);
+            throw new RateLimitExceededException(limiter.getWindowMillis());
+        }
+    }
+
+    private static Long userIdOf(Principal user) {
+        if (user instanceof UsernamePasswordAuthenticationToken authentication
+            && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.getId();
+        }
+        return null;
+    }
+
+    @Getter
+    public static class RateLimitExceededException extends RuntimeException {
+        private final long retryAfterSeconds;
+
+        public RateLimitExceededException(long windowMillis) {
+            super("Too many chat messages. Please slow down.");
+            this.retryAfterSeconds = Math.max(1, (windowMillis + 999) / 1000);
+        }
+    }
+}
@@ -7,22 +7,44 @@ import com.expogarden.dto.ChatMessageDto;
 import com.expogarden.repository.BoothRepository;
 import com.expogarden.repository.ChatMessageRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.Instant;
+
 @Service
 @RequiredArgsConstructor
 public class ChatService {
 
     private final ChatMessageRepository chatMessageRepository;
     private final BoothRepository boothRepository;
+    private final ContentFilterService contentFilterService;
+
+    private static final Sort HISTORY_ORDER = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    // 채팅 이력 조회 범위 (일). 0 이하면 전체 이력, 양수면 created_at 하한으로도 파티션을 프루닝한다
+    @Value("${chat.history.window-days:0}")
+    private int historyWindowDays;
 
+    /**
+     * 부스 채팅 이력 (최신순, 커서 기반)
+     * before/beforeId를 주면 그 메시지보다 이전 것만 읽는다. 전체 개수를 세지 않으므로
+     * 이력이 쌓여도 한 번의 조회는 부스 인덱스에서 size+1건을 읽는 비용으로 일정하다.
+     */
     @Transactional(readOnly = true)
-    public Page<ChatMessageDto> getMessages(Long boothId, Pageable pageable) {
-        return chatMessageRepository.findByBoothId(boothId, pageable)
-            .map(this::mapToDto);
+    public Slice<ChatMessageDto> getMessages(Long boothId, Instant before, Long beforeId, int size) {
+        Instant since = historyWindowDays > 0 ? Instant.now().minus(Duration.ofDays(historyWindowDays)) : Instant.EPOCH;
+        Pageable pageable = PageRequest.of(0, size, HISTORY_ORDER);
+        Slice<ChatMessage> messages = before == null
+            ? chatMessageRepository.findByBoothIdAndCreatedAtGreaterThanEqual(boothId, since, pageable)
+            : chatMessageRepository.findHistoryBefore(boothId, since, before, beforeId != null ? beforeId : Long.MAX_VALUE, pageable);
+        return messages.map(this::mapToDto);
     }
 
     @Transactional
@@ -40,7 +62,7 @@ public class ChatService {
             .boothId(boothId)
             .userId(message.getUserId())
             .username(username)
-            .message(message.getMessage().trim())
+            .message(contentFilterService.filter(message.getMessage().trim()))
             .type(ChatMessageType.CHAT)
             .build();
 
@@ -0,0 +1,248 @@
+package com.expogarden.service;
+
+import com.expogarden.domain.Booth;
+import com.expogarden.domain.BoothStatus;
+import com.expogarden.domain.VisitEvent;
+import com.expogarden.dto.SimilarBoothDto;
+import com.expogarden.repository.BoothCovisitRepository;
+import com.expogarden.repository.BoothCovisitRepository.Neighbor;
+import com.expogarden.repository.BoothCovisitRepository.Pair;
+import com.expogarden.repository.BoothRepository;
+import com.expogarden.util.BoundedSessionStore;
+import com.expogarden.util.PendingDeltas;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * "이 부스를 본 방문자가 함께 본 부스" (동시 방문 기반 유사 부스)
+ *
+ * 커밋된 VIEW 이벤트를 세션별 최근 조회 부스 집합(max-booths-per-session개)에 이어 붙이고,
+ * 세션이 새 부스를 처음 볼 때마다 집합의 다른 부스들과의 쌍을 1씩 센다 (세션당 쌍마다 한 번).
+ * 증분은 persist-interval-ms 마다 booth_covisits에 더하고, refresh-interval-ms 마다 부스별 상위 이웃 목록을
+ * 다시 계산해 메모리에 둔다. 조회는 메모리 맵 조회와 정렬뿐이다.
+ *
+ * 세션 상태는 마지막 조회 후 session-timeout-ms가 지나거나 max-sessions를 넘으면 오래된 것부터 버린다.
+ */
+@Service
+@Slf4j
+public class CoVisitationService implements VisitEventListener {
+
+    private static final String VIEW = "VIEW";
+
+    // 새로 고친 이웃 후보 (부스 정보 포함, 노출 조건은 조회 시 확인)
+    private record Candidate(long boothId, long exhibitionId, long hallId, String title, String category,
+                             String thumbnailUrl, Set<String> tags, long coVisits, double score, boolean visible) {
+    }
+
+    private record Source(String category, Set<String> tags) {
+    }
+
+    private record Neighbors(Source source, List<Candidate> candidates) {
+    }
+
+    private final BoothCovisitRepository boothCovisitRepository;
+    private final BoothRepository boothRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxBoothsPerSession;
+    private final long sessionTimeoutMillis;
+    private final long minCoVisits;
+    private final int candidatesPerBooth;
+    private final double defaultBlend;
+
+    // 세션별 최근 조회 부스 (처음 본 순서)
+    private final BoundedSessionStore<String, LinkedHashSet<Long>> sessions;
+    // 아직 DB에 더하지 않은 쌍별 증분
+    private final PendingDeltas<Pair, Long> pending = new PendingDeltas<>(Long::sum,
+        Comparator.comparingLong(Pair::boothA).thenComparingLong(Pair::boothB));
+    // 부스 ID → 이웃 후보 (refresh 때 통째로 교체)
+    private volatile Map<Long, Neighbors> neighbors = Map.of();
+
+    private final Counter evictedCounter;
+
+    public CoVisitationService(
+        BoothCovisitRepository boothCovisitRepository,
+        BoothRepository boothRepository,
+        TransactionTemplate transactionTemplate,
+        MeterRegistry meterRegistry,
+        @Value("${recommendation.covisit.max-booths-per-session:20}") int maxBoothsPerSession,
+        @Value("${recommendation.covisit.session-timeout-ms:1800000}") long sessionTimeoutMillis,
+        @Value("${recommendation.covisit.max-sessions:200000}") int maxSessions,
+        @Value("${recommendation.covisit.min-covisits:3}") long minCoVisits,
+        @Value("${recommendation.covisit.candidates-per-booth:30}") int candidatesPerBooth,
+        @Value("${recommendation.covisit.blend:0.0}") double defaultBlend
+    ) {
+        this.boothCovisitRepository = boothCovisitRepository;
+        this.boothRepository = boothRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.maxBoothsPerSession = maxBoothsPerSession;
+        this.sessionTimeoutMillis = sessionTimeoutMillis;
+        this.minCoVisits = minCoVisits;
+        this.candidatesPerBooth = candidatesPerBooth;
+        this.defaultBlend = defaultBlend;
+
+        this.evictedCounter = Counter.builder("recommendation.covisit.evicted").register(meterRegistry);
+        this.sessions = new BoundedSessionStore<>(maxSessions, (sessionId, booths) -> evictedCounter.increment());
+        Gauge.builder("recommendation.covisit.sessions", sessions, BoundedSessionStore::size).register(meterRegistry);
+    }
+
+    @Override
+    public void onFlushed(List<VisitEvent> events) {
+        Map<Pair, Long> deltas = new HashMap<>();
+        long now = System.currentTimeMillis();
+        synchronized (sessions) {
+            for (VisitEvent event : events) {
+                if (event.getBoothId() == null || !VIEW.equals(event.getAction())) continue;
+                LinkedHashSet<Long> booths = sessions.computeIfAbsent(event.getSessionId(), id -> new LinkedHashSet<>(), now);
+                long boothId = event.getBoothId();
+                if (booths.contains(boothId)) continue;
+
+                deltas.merge(Pair.of(boothId, boothId), 1L, Long::sum);
+                for (Long other : booths) {
+                    deltas.merge(Pair.of(boothId, other), 1L, Long::sum);
+                }
+                // 오래 머문 세션이 쌍을 무한히 만들지 않도록 가장 먼저 본 부스부터 잊는다
+                if (booths.size() >= maxBoothsPerSession) {
+                    Iterator<Long> oldest = booths.iterator();
+                    oldest.next();
+                    oldest.remove();
+                }
+                booths.add(boothId);
+            }
+        }
+        deltas.forEach(pending::add);
+    }
+
+    @Scheduled(fixedDelayString = "${recommendation.covisit.sweep-interval-ms:60000}")
+    public void evictIdleSessions() {
+        sessions.evictIdle(System.currentTimeMillis() - sessionTimeoutMillis);
+    }
+
+    @Scheduled(fixedDelayString = "${recommendation.covisit.persist-interval-ms:10000}")
+    public void persistPending() {
+        try {
+            pending.persist(pairs -> transactionTemplate.executeWithoutResult(status -> boothCovisitRepository.add(pairs)));
+        } catch (Exception e) {
+            log.error("Failed to persist co-visit pairs, will retry", e);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        persistPending();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+
+    /**
+     * 부스별 이웃 후보를 다시 계산한다. 노출 조건(승인, 미삭제, 같은 전시)은 조회 시 적용하므로
+     * 블렌딩/필터링 여유를 두고 candidates-per-booth개씩 가져온다.
+     */
+    @Scheduled(fixedDelayString = "${recommendation.covisit.refresh-interval-ms:600000}",
+        initialDelayString = "${recommendation.covisit.refresh-interval-ms:600000}")
+    public void refresh() {
+        try {
+            long started = System.currentTimeMillis();
+            List<Neighbor> rows = boothCovisitRepository.findTopNeighbors(minCoVisits, candidatesPerBooth);
+
+            Set<Long> boothIds = new HashSet<>();
+            for (Neighbor row : rows) {
+                boothIds.add(row.boothId());
+                boothIds.add(row.neighborId());
+            }
+            Map<Long, Booth> booths = new HashMap<>();
+            boothRepository.findAllById(boothIds).forEach(booth -> booths.put(booth.getId(), booth));
+
+            Map<Long, Neighbors> refreshed = new HashMap<>();
+            for (Neighbor row : rows) {
+                Booth source = booths.get(row.boothId());
+                Booth neighbor = booths.get(row.neighborId());
+                if (source == null || neighbor == null) continue;
+                refreshed.computeIfAbsent(row.boothId(),
+                        id -> new Neighbors(new Source(source.getCategory(), tagsOf(source)), new ArrayList<>()))
+                    .candidates().add(new Candidate(neighbor.getId(), neighbor.getExhibitionId(), neighbor.getHallId(),
+                        neighbor.getTitle(), neighbor.getCategory(), neighbor.getThumbnailUrl(), tagsOf(neighbor),
+                        row.visits(), row.score(),
+                        neighbor.getStatus() == BoothStatus.APPROVED && neighbor.getDeletedAt() == null
+                            && neighbor.getExhibitionId().equals(source.getExhibitionId())));
+            }
+            neighbors = refreshed;
+            log.info("Refreshed similar booths for {} booths ({} pairs) in {} ms", refreshed.size(), rows.size(),
+                System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            log.error("Failed to refresh similar booths, keeping previous lists", e);
+        }
+    }
+
+    private static Set<String> tagsOf(Booth booth) {
+        return booth.getTags() != null ? Set.copyOf(booth.getTags()) : Set.of();
+    }
+
+    /**
+     * @param blend 카테고리/태그 유사도 비중 (0이면 동시 방문만, null이면 설정 기본값)
+     */
+    public List<SimilarBoothDto> getSimilarBooths(Long boothId, int limit, Double blend) {
+        double weight = blend != null ? blend : defaultBlend;
+        if (weight < 0 || weight > 1) {
+            throw new IllegalArgumentException("blend must be between 0 and 1");
+        }
+        Neighbors entry = neighbors.get(boothId);
+        if (entry == null) return List.of();
+
+        List<SimilarBoothDto> result = new ArrayList<>();
+        for (Candidate candidate : entry.candidates()) {
+            if (!candidate.visible()) continue;
+            double score = weight == 0
+                ? candidate.score()
+                : (1 - weight) * candidate.score() + weight * contentSimilarity(entry.source(), candidate);
+            result.add(SimilarBoothDto.builder()
+                .boothId(candidate.boothId())
+                .hallId(candidate.hallId())
+                .title(candidate.title())
+                .category(candidate.category())
+                .thumbnailUrl(candidate.thumbnailUrl())
+                .coVisits(candidate.coVisits())
+                .score(score)
+                .build());
+        }
+        if (weight > 0) {
+            result.sort(Comparator.comparing(SimilarBoothDto::getScore).reversed());
+        }
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    // 같은 카테고리 0.5 + 태그 Jaccard 0.5
+    private static double contentSimilarity(Source source, Candidate candidate) {
+        double similarity = source.category() != null && source.category().equals(candidate.category()) ? 0.5 : 0.0;
+        if (!source.tags().isEmpty() && !candidate.tags().isEmpty()) {
+            int common = 0;
+            for (String tag : candidate.tags()) {
+                if (source.tags().contains(tag)) common++;
+            }
+            int union = source.tags().size() + candidate.tags().size() - common;
+            similarity += 0.5 * common / union;
+        }
+        return similarity;
+    }
+}
@@ -0,0 +1,169 @@
+package com.expogarden.service;
+
+import com.expogarden.util.AhoCorasickMatcher;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 채팅/질문/방명록 금칙어 필터
+ *
+ * 사전은 Aho-Corasick 오토마톤으로 컴파일해 두고, 사전 파일이 바뀌면
+ * 새 오토마톤을 만들어 참조만 교체한다 (스캔 중인 요청은 이전 오토마톤을 그대로 사용).
+ */
+@Service
+@Slf4j
+public class ContentFilterService {
+
+    private static final String DEFAULT_DICTIONARY = "filter/banned-words.txt";
+    private static final String CHOSEONG = "ㄱㄲㄴㄷㄸㄹㅁㅂㅃㅅㅆㅇㅈㅉㅊㅋㅌㅍㅎ";
+
+    public enum Mode {
+        MASK,    // 금칙어를 * 로 가림
+        REJECT   // 메시지 전체를 거부
+    }
+
+    @Value("${content-filter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${content-filter.mode:MASK}")
+    private Mode mode;
+
+    @Value("${content-filter.dictionary-path:}")
+    private String dictionaryPath;
+
+    @Value("${content-filter.ignore-separators:true}")
+    private boolean ignoreSeparators;
+
+    @Value("${content-filter.jamo-variants:true}")
+    private boolean jamoVariants;
+
+    private volatile AhoCorasickMatcher matcher = AhoCorasickMatcher.compile(Set.of(), false);
+    private volatile long dictionaryLastModified = -1L;
+
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    /**
+     * 텍스트를 검사해 MASK 모드면 가린 문자열을, REJECT 모드면 예외를 던진다.
+     */
+    public String filter(String text) {
+        if (!enabled || text == null || text.isEmpty()) {
+            return text;
+        }
+
+        AhoCorasickMatcher current = matcher;
+        if (mode == Mode.REJECT) {
+            if (current.containsMatch(text)) {
+                throw new RuntimeException("Message contains prohibited words");
+            }
+            return text;
+        }
+        return current.mask(text, '*');
+    }
+
+    public boolean containsProhibited(String text) {
+        return enabled && text != null && matcher.containsMatch(text);
+    }
+
+    /**
+     * 외부 사전 파일이 변경되었으면 다시 컴파일한다.
+     */
+    @Scheduled(fixedDelayString = "${content-filter.reload-interval-ms:30000}")
+    public void reloadIfChanged() {
+        if (dictionaryPath == null || dictionaryPath.isBlank()) {
+            return;
+        }
+        try {
+            long lastModified = Files.getLastModifiedTime(Paths.get(dictionaryPath)).toMillis();
+            if (lastModified != dictionaryLastModified) {
+                reload();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to check content filter dictionary: {}", dictionaryPath, e);
+        }
+    }
+
+    public synchronized void reload() {
+        try {
+            Set<String> terms = new LinkedHashSet<>();
+            long lastModified;
+            if (dictionaryPath != null && !dictionaryPath.isBlank()) {
+                Path path = Paths.get(dictionaryPath);
+                lastModified = Files.getLastModifiedTime(path).toMillis();
+                try (InputStream in = Files.newInputStream(path)) {
+                    readTerms(in, terms);
+                }
+            } else {
+                lastModified = 0L;
+                try (InputStream in = new ClassPathResource(DEFAULT_DICTIONARY).getInputStream()) {
+                    readTerms(in, terms);
+                }
+            }
+
+            AhoCorasickMatcher compiled = AhoCorasickMatcher.compile(terms, ignoreSeparators);
+            matcher = compiled;
+            dictionaryLastModified = lastModified;
+            log.info("Content filter dictionary loaded: {} patterns, {} states", compiled.getPatternCount(), compiled.getStateCount());
+        } catch (IOException e) {
+            // 기존 오토마톤을 유지한다
+            log.error("Failed to load content filter dictionary", e);
+        }
+    }
+
+    private void readTerms(InputStream in, Set<String> terms) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String term = line.trim();
+                if (term.isEmpty() || term.startsWith("#")) continue;
+
+                // "+단어"는 초성 변형도 함께 등록
+                boolean withJamo = term.startsWith("+");
+                if (withJamo) {
+                    term = term.substring(1).trim();
+                    if (term.isEmpty()) continue;
+                }
+                terms.add(term);
+                if (withJamo && jamoVariants) {
+                    String variant = toChoseong(term);
+                    if (variant != null) {
+                        terms.add(variant);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 한글 음절을 초성으로 바꾼 변형을 만든다 (예: "시발" → "ㅅㅂ").
+     * 두 음절 미만이거나 한글이 아닌 문자가 섞여 있으면 만들지 않는다.
+     */
+    static String toChoseong(String term) {
+        StringBuilder sb = new StringBuilder(term.length());
+        for (int i = 0; i < term.length(); i++) {
+            char c = term.charAt(i);
+            if (c < '가' || c > '힣') {
+                return null;
+            }
+            sb.append(CHOSEONG.charAt((c - '가') / 588));
+        }
+        return sb.length() >= 2 ? sb.toString() : null;
+    }
+}
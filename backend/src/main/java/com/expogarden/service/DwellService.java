@@ -0,0 +1,201 @@
+package com.expogarden.service;
+
+import com.expogarden.domain.RollupGranularity;
+import com.expogarden.domain.VisitEvent;
+import com.expogarden.repository.BoothDwellRepository;
+import com.expogarden.util.BoundedSessionStore;
+import com.expogarden.util.LogHistogram;
+import com.expogarden.util.PendingDeltas;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 부스 체류 시간 (세션 단위 방문)
+ *
+ * 커밋된 이벤트를 세션별로 이어 붙여 "지금 머무는 부스"를 하나만 기억한다. 같은 부스의 이벤트가
+ * visit-gap-ms 안에 이어지면 같은 방문이고, 다음 경우에 방문이 끝나 체류 시간을 히스토그램에 기록한다.
+ * - 다른 부스 이벤트나 부스 없는 이벤트(ENTER_HALL 등), exit-actions 이벤트: 그 이벤트 시각까지
+ * - 마지막 이벤트 후 visit-gap-ms가 지남 (다음 이벤트 또는 주기적 정리): 마지막 이벤트 시각까지
+ * 따라서 이벤트가 하나뿐인 방문은 0으로 기록된다 (체류 시간의 하한).
+ *
+ * 세션 상태는 max-sessions를 넘으면 오래된 것부터 방문을 마감하고 버린다.
+ * 증분은 (부스, 방문 시작 시간)별로 메모리에 모아 persist-interval-ms 마다 booth_dwell_histograms에 더하며,
+ * 조회 시 원본 이벤트를 다시 읽지 않는다. 표본 weight는 반영하지 않는다.
+ */
+@Service
+@Slf4j
+public class DwellService implements VisitEventListener {
+
+    record HourKey(long boothId, LocalDateTime hour) {
+    }
+
+    private static final class Visit {
+        final long boothId;
+        final long enteredAt;
+        long lastSeenAt;
+
+        Visit(long boothId, long enteredAt) {
+            this.boothId = boothId;
+            this.enteredAt = enteredAt;
+            this.lastSeenAt = enteredAt;
+        }
+    }
+
+    private final BoothDwellRepository boothDwellRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long visitGapMillis;
+    private final Set<String> exitActions;
+
+    private final BoundedSessionStore<String, Visit> sessions;
+    // 아직 DB에 더하지 않은 (부스, 시간)별 증분
+    private final PendingDeltas<HourKey, LogHistogram> pending = new PendingDeltas<>(
+        (a, b) -> {
+            a.merge(b);
+            return a;
+        },
+        Comparator.comparingLong(HourKey::boothId).thenComparing(HourKey::hour));
+
+    private final Counter idleClosedCounter;
+    private final Counter capacityClosedCounter;
+
+    public DwellService(
+        BoothDwellRepository boothDwellRepository,
+        TransactionTemplate transactionTemplate,
+        MeterRegistry meterRegistry,
+        @Value("${stats.dwell.visit-gap-ms:300000}") long visitGapMillis,
+        @Value("${stats.dwell.max-sessions:200000}") int maxSessions,
+        @Value("${stats.dwell.exit-actions:LEAVE_BOOTH}") String exitActions
+    ) {
+        this.boothDwellRepository = boothDwellRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.visitGapMillis = visitGapMillis;
+        this.exitActions = new HashSet<>();
+        Arrays.stream(exitActions.split(",")).map(String::trim).filter(a -> !a.isEmpty()).forEach(this.exitActions::add);
+
+        this.capacityClosedCounter = Counter.builder("stats.dwell.closed").tag("reason", "capacity").register(meterRegistry);
+        this.idleClosedCounter = Counter.builder("stats.dwell.closed").tag("reason", "idle").register(meterRegistry);
+        this.sessions = new BoundedSessionStore<>(maxSessions, (sessionId, visit) -> {
+            capacityClosedCounter.increment();
+            record(visit, visit.lastSeenAt);
+        });
+        Gauge.builder("stats.dwell.sessions", sessions, BoundedSessionStore::size).register(meterRegistry);
+    }
+
+    @Override
+    public void onFlushed(List<VisitEvent> events) {
+        // 배치 안에서는 발생 시각 순서로 이어 붙인다
+        List<VisitEvent> ordered = new ArrayList<>(events);
+        ordered.sort(Comparator.comparing(VisitEvent::getCreatedAt));
+
+        long now = System.currentTimeMillis();
+        synchronized (sessions) {
+            for (VisitEvent event : ordered) {
+                advance(event, now);
+            }
+        }
+    }
+
+    private void advance(VisitEvent event, long now) {
+        String sessionId = event.getSessionId();
+        Long boothId = event.getBoothId();
+        boolean exit = exitActions.contains(event.getAction());
+        Visit visit = sessions.get(sessionId, now);
+        // 다른 writer의 배치가 조금 늦게 커밋되어 순서가 뒤집힌 이벤트는 직전 이벤트 시각으로 본다
+        long at = event.getCreatedAt().toEpochMilli();
+        if (visit != null) {
+            at = Math.max(at, visit.lastSeenAt);
+        }
+
+        if (visit != null) {
+            boolean withinGap = at - visit.lastSeenAt <= visitGapMillis;
+            if (withinGap && !exit && boothId != null && boothId == visit.boothId) {
+                visit.lastSeenAt = at;
+                return;
+            }
+            sessions.remove(sessionId);
+            record(visit, withinGap ? at : visit.lastSeenAt);
+        }
+
+        if (boothId != null && !exit) {
+            sessions.put(sessionId, new Visit(boothId, at), now);
+        }
+    }
+
+    private void record(Visit visit, long endedAt) {
+        LocalDateTime hour = RollupGranularity.HOUR.truncate(
+            LocalDateTime.ofInstant(Instant.ofEpochMilli(visit.enteredAt), ZoneId.systemDefault()));
+        long dwellMillis = endedAt - visit.enteredAt;
+        pending.update(new HourKey(visit.boothId, hour), LogHistogram::new, histogram -> histogram.record(dwellMillis));
+    }
+
+    /**
+     * 마지막 이벤트 후 visit-gap-ms가 지난 방문을 마감한다.
+     * 정리 주기만큼 늦게 기록될 수 있지만 체류 시간은 마지막 이벤트 시각 기준이라 값은 같다.
+     */
+    @Scheduled(fixedDelayString = "${stats.dwell.sweep-interval-ms:60000}")
+    public void closeIdleVisits() {
+        long cutoff = System.currentTimeMillis() - visitGapMillis;
+        idleClosedCounter.increment(sessions.evictIdle(cutoff, (sessionId, visit) -> record(visit, visit.lastSeenAt)));
+    }
+
+    @Scheduled(fixedDelayString = "${stats.dwell.persist-interval-ms:5000}")
+    public void persistPending() {
+        try {
+            pending.persist(histograms -> transactionTemplate.executeWithoutResult(status -> {
+                for (Map.Entry<HourKey, LogHistogram> entry : histograms) {
+                    boothDwellRepository.add(entry.getKey().boothId(), entry.getKey().hour(), entry.getValue());
+                }
+            }));
+        } catch (Exception e) {
+            log.error("Failed to persist dwell histograms, will retry", e);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        // 진행 중인 방문은 마지막 이벤트 시각까지로 마감해 잃지 않는다
+        sessions.drain((sessionId, visit) -> record(visit, visit.lastSeenAt));
+        persistPending();
+    }
+
+    /**
+     * [from, to) 시간별 체류 시간 히스토그램 (아직 저장되지 않은 증분 포함, 시간 순)
+     */
+    public Map<LocalDateTime, LogHistogram> getHourly(long boothId, LocalDateTime from, LocalDateTime to) {
+        Map<LocalDateTime, LogHistogram> hourly = new TreeMap<>(boothDwellRepository.findHourly(boothId, from, to));
+        pending.forEachUnsaved(key -> key.boothId() == boothId && !key.hour().isBefore(from) && key.hour().isBefore(to),
+            (key, histogram) -> hourly.computeIfAbsent(key.hour(), hour -> new LogHistogram()).merge(histogram));
+        return hourly;
+    }
+
+    /**
+     * 부스별 전체 기간 체류 시간 히스토그램 (아직 저장되지 않은 증분 포함)
+     */
+    public Map<Long, LogHistogram> getTotals(Collection<Long> boothIds) {
+        Map<Long, LogHistogram> totals = boothDwellRepository.sumByBooths(boothIds);
+        Set<Long> wanted = new HashSet<>(boothIds);
+        pending.forEachUnsaved(key -> wanted.contains(key.boothId()),
+            (key, histogram) -> totals.computeIfAbsent(key.boothId(), id -> new LogHistogram()).merge(histogram));
+        return totals;
+    }
+}
@@ -0,0 +1,222 @@
+package com.expogarden.service;
+
+import com.expogarden.domain.Booth;
+import com.expogarden.domain.VisitEvent;
+import com.expogarden.dto.FunnelDto;
+import com.expogarden.repository.BoothFunnelRepository;
+import com.expogarden.repository.BoothFunnelRepository.FunnelCounts;
+import com.expogarden.repository.BoothFunnelRepository.Transition;
+import com.expogarden.repository.BoothRepository;
+import com.expogarden.util.BoundedSessionStore;
+import com.expogarden.util.LogHistogram;
+import com.expogarden.util.PendingDeltas;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 부스별 참여 퍼널 (조회 → 링크 클릭 → 영상 재생)
+ *
+ * 커밋된 이벤트를 (세션, 부스)별 진행 상태에 이어 붙여 단계별 세션 수와 단계 간 소요 시간을 증분 계산한다.
+ * 단계는 순서대로만 진행하며 세션당 한 번씩만 센다 (조회 없는 클릭, 클릭 없는 재생은 퍼널에 넣지 않음).
+ * 진행 상태는 마지막 이벤트 후 idle-timeout-ms가 지나거나 max-sessions를 넘으면 오래된 것부터 버리고,
+ * 그 뒤 같은 세션이 다시 조회하면 새 방문으로 센다.
+ *
+ * 증분은 메모리에 모아 persist-interval-ms 마다 booth_funnels / booth_funnel_latency에 더한다.
+ * 진행 상태는 인스턴스별이라 한 세션의 이벤트가 여러 인스턴스로 나뉘면 그 세션은 덜 집계될 수 있다.
+ */
+@Service
+@Slf4j
+public class FunnelService implements VisitEventListener {
+
+    private static final String VIEW = "VIEW";
+    private static final String CLICK_LINK = "CLICK_LINK";
+    private static final String PLAY_VIDEO = "PLAY_VIDEO";
+
+    record SessionKey(String sessionId, long boothId) {
+    }
+
+    private static final class Progress {
+        final long viewedAt;
+        long clickedAt = -1;
+        boolean played;
+
+        Progress(long viewedAt) {
+            this.viewedAt = viewedAt;
+        }
+    }
+
+    private static final class Delta {
+        long viewed;
+        long clicked;
+        long played;
+        final LogHistogram viewToClick = new LogHistogram();
+        final LogHistogram clickToPlay = new LogHistogram();
+
+        Delta merge(Delta other) {
+            viewed += other.viewed;
+            clicked += other.clicked;
+            played += other.played;
+            viewToClick.merge(other.viewToClick);
+            clickToPlay.merge(other.clickToPlay);
+            return this;
+        }
+    }
+
+    private final BoothFunnelRepository boothFunnelRepository;
+    private final BoothRepository boothRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long idleTimeoutMillis;
+
+    private final BoundedSessionStore<SessionKey, Progress> sessions;
+    // 아직 DB에 더하지 않은 부스별 증분
+    private final PendingDeltas<Long, Delta> pending = new PendingDeltas<>(Delta::merge, Comparator.naturalOrder());
+
+    private final Counter idleEvictedCounter;
+    private final Counter capacityEvictedCounter;
+
+    public FunnelService(
+        BoothFunnelRepository boothFunnelRepository,
+        BoothRepository boothRepository,
+        TransactionTemplate transactionTemplate,
+        MeterRegistry meterRegistry,
+        @Value("${stats.funnel.idle-timeout-ms:1800000}") long idleTimeoutMillis,
+        @Value("${stats.funnel.max-sessions:200000}") int maxSessions
+    ) {
+        this.boothFunnelRepository = boothFunnelRepository;
+        this.boothRepository = boothRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+
+        this.capacityEvictedCounter = Counter.builder("stats.funnel.evicted").tag("reason", "capacity").register(meterRegistry);
+        this.idleEvictedCounter = Counter.builder("stats.funnel.evicted").tag("reason", "idle").register(meterRegistry);
+        this.sessions = new BoundedSessionStore<>(maxSessions, (key, progress) -> capacityEvictedCounter.increment());
+        Gauge.builder("stats.funnel.sessions", sessions, BoundedSessionStore::size).register(meterRegistry);
+    }
+
+    @Override
+    public void onFlushed(List<VisitEvent> events) {
+        // 배치 안에서는 발생 시각 순서로 이어 붙인다
+        List<VisitEvent> ordered = new ArrayList<>(events.size());
+        for (VisitEvent event : events) {
+            if (event.getBoothId() != null && isFunnelAction(event.getAction())) {
+                ordered.add(event);
+            }
+        }
+        if (ordered.isEmpty()) return;
+        ordered.sort(Comparator.comparing(VisitEvent::getCreatedAt));
+
+        Map<Long, Delta> deltas = new HashMap<>();
+        long now = System.currentTimeMillis();
+        synchronized (sessions) {
+            for (VisitEvent event : ordered) {
+                advance(event, now, deltas);
+            }
+        }
+        deltas.forEach(pending::add);
+    }
+
+    private static boolean isFunnelAction(String action) {
+        return VIEW.equals(action) || CLICK_LINK.equals(action) || PLAY_VIDEO.equals(action);
+    }
+
+    private void advance(VisitEvent event, long now, Map<Long, Delta> deltas) {
+        SessionKey key = new SessionKey(event.getSessionId(), event.getBoothId());
+        long at = event.getCreatedAt().toEpochMilli();
+        Progress progress = sessions.get(key, now);
+
+        if (progress == null) {
+            if (!VIEW.equals(event.getAction())) return;
+            sessions.put(key, new Progress(at), now);
+            deltas.computeIfAbsent(key.boothId(), id -> new Delta()).viewed++;
+            return;
+        }
+
+        if (CLICK_LINK.equals(event.getAction()) && progress.clickedAt < 0) {
+            progress.clickedAt = at;
+            Delta delta = deltas.computeIfAbsent(key.boothId(), id -> new Delta());
+            delta.clicked++;
+            delta.viewToClick.record(at - progress.viewedAt);
+        } else if (PLAY_VIDEO.equals(event.getAction()) && progress.clickedAt >= 0 && !progress.played) {
+            progress.played = true;
+            Delta delta = deltas.computeIfAbsent(key.boothId(), id -> new Delta());
+            delta.played++;
+            delta.clickToPlay.record(at - progress.clickedAt);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stats.funnel.sweep-interval-ms:60000}")
+    public void evictIdleSessions() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        idleEvictedCounter.increment(sessions.evictIdle(cutoff));
+    }
+
+    @Scheduled(fixedDelayString = "${stats.funnel.persist-interval-ms:5000}")
+    public void persistPending() {
+        try {
+            pending.persist(deltas -> transactionTemplate.executeWithoutResult(status -> {
+                for (Map.Entry<Long, Delta> entry : deltas) {
+                    Long boothId = entry.getKey();
+                    Delta delta = entry.getValue();
+                    boothFunnelRepository.addCounts(boothId, delta.viewed, delta.clicked, delta.played);
+                    boothFunnelRepository.addLatency(boothId, Transition.VIEW_TO_CLICK, delta.viewToClick);
+                    boothFunnelRepository.addLatency(boothId, Transition.CLICK_TO_PLAY, delta.clickToPlay);
+                }
+            }));
+        } catch (Exception e) {
+            log.error("Failed to persist funnel deltas, will retry", e);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        persistPending();
+    }
+
+    public FunnelDto getBoothFunnel(Long boothId) {
+        Booth booth = boothRepository.findByIdAndNotDeleted(boothId)
+            .orElseThrow(() -> new RuntimeException("Booth not found"));
+
+        FunnelCounts counts = boothFunnelRepository.findCounts(boothId);
+        Map<Transition, LogHistogram> latency = boothFunnelRepository.findLatency(boothId);
+
+        // 아직 저장되지 않은 증분도 포함
+        Delta total = new Delta();
+        pending.readUnsaved(boothId, total::merge);
+        total.viewed += counts.viewed();
+        total.clicked += counts.clicked();
+        total.played += counts.played();
+        total.viewToClick.merge(latency.get(Transition.VIEW_TO_CLICK));
+        total.clickToPlay.merge(latency.get(Transition.CLICK_TO_PLAY));
+
+        return FunnelDto.builder()
+            .boothId(boothId)
+            .boothTitle(booth.getTitle())
+            .viewed(total.viewed)
+            .clicked(total.clicked)
+            .played(total.played)
+            .clickRate(rate(total.clicked, total.viewed))
+            .playRate(rate(total.played, total.clicked))
+            .viewToClickMedianMs(total.viewToClick.quantile(0.5))
+            .viewToClickP90Ms(total.viewToClick.quantile(0.9))
+            .clickToPlayMedianMs(total.clickToPlay.quantile(0.5))
+            .clickToPlayP90Ms(total.clickToPlay.quantile(0.9))
+            .build();
+    }
+
+    private static double rate(long numerator, long denominator) {
+        return denominator > 0 ? (double) numerator / denominator : 0.0;
+    }
+}
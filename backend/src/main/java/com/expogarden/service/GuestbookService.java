@@ -23,6 +23,7 @@ public class GuestbookService {
     private final GuestbookRepository guestbookRepository;
     private final BoothRepository boothRepository;
     private final UserRepository userRepository;
+    private final ContentFilterService contentFilterService;
     
     @Transactional(readOnly = true)
     public Page<GuestbookDto> getGuestbook(Long boothId, Pageable pageable) {
@@ -51,7 +52,7 @@ public class GuestbookService {
             .boothId(boothId)
             .userId(principal != null ? principal.getId() : null)
             .guestSessionId(principal == null ? request.getGuestSessionId() : null)
-            .message(request.getMessage())
+            .message(contentFilterService.filter(request.getMessage()))
             .status(ContentStatus.VISIBLE)
             .build();
         
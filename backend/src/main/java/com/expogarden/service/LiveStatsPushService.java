@@ -0,0 +1,186 @@
+package com.expogarden.service;
+
+import com.expogarden.domain.VisitEvent;
+import com.expogarden.dto.LiveStatsDeltaDto;
+import com.expogarden.repository.VisitEventJdbcRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 부스 실시간 통계 WebSocket 발행 (/topic/stats.booth.{boothId})
+ *
+ * 구독자가 있는 부스만 이벤트 수를 액션별로 모아 두고, stats.push.interval-ms 마다
+ * 직전 발행 이후의 증가분(delta)만 발행한다. 증가분이 없으면 발행하지 않는다.
+ * LiveStatsService와 같은 기준으로 센다: 수락 시 더하고, 기록 실패로 버려지면 빼고(음수 delta), 보관분 재생 시 더한다.
+ * 구독 권한(ADMIN 또는 부스 소유자)은 StompAuthChannelInterceptor가 SUBSCRIBE 시점에 확인하고 여기에 등록한다.
+ * 클라이언트는 구독 후 GET /statistics/booths/{boothId}/live 로 한 번 전체 값을 받고 이후 증가분을 더한다.
+ */
+@Service
+@Slf4j
+public class LiveStatsPushService implements VisitEventListener {
+
+    public static final String TOPIC_PREFIX = "/topic/stats.booth.";
+
+    private static final String VIEW = "VIEW";
+    private static final String CLICK_LINK = "CLICK_LINK";
+    private static final String PLAY_VIDEO = "PLAY_VIDEO";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final LiveStatsService liveStatsService;
+    private final int maxSubscriptionsPerSession;
+
+    // "sessionId:subscriptionId" -> boothId
+    private final Map<String, Long> subscriptions = new ConcurrentHashMap<>();
+    // boothId -> 구독 수
+    private final Map<Long, Integer> subscriberCounts = new ConcurrentHashMap<>();
+    // boothId -> 액션별 미발행 증가분
+    private final Map<Long, Map<String, AtomicLong>> pendingDeltas = new ConcurrentHashMap<>();
+
+    public LiveStatsPushService(
+        @Lazy SimpMessagingTemplate messagingTemplate,
+        LiveStatsService liveStatsService,
+        MeterRegistry meterRegistry,
+        @Value("${stats.push.max-subscriptions-per-session:20}") int maxSubscriptionsPerSession
+    ) {
+        this.messagingTemplate = messagingTemplate;
+        this.liveStatsService = liveStatsService;
+        this.maxSubscriptionsPerSession = maxSubscriptionsPerSession;
+        Gauge.builder("stats.push.subscriptions", this, LiveStatsPushService::getSubscriptionCount).register(meterRegistry);
+    }
+
+    /**
+     * 구독 destination에서 부스 ID를 꺼낸다. 실시간 통계 토픽이 아니면 null
+     */
+    public static Long parseBoothId(String destination) {
+        if (destination == null || !destination.startsWith(TOPIC_PREFIX)) return null;
+        // 정규화된 형태(0으로 시작하지 않는 숫자)만 허용: "+5", "05"가 발행 대상 "/topic/stats.booth.5"와 다른 구독이 되지 않도록
+        String id = destination.substring(TOPIC_PREFIX.length());
+        if (id.isEmpty() || id.length() > 18 || id.charAt(0) == '0') return null;
+        for (int i = 0; i < id.length(); i++) {
+            if (id.charAt(i) < '0' || id.charAt(i) > '9') return null;
+        }
+        return Long.parseLong(id);
+    }
+
+    public void subscribe(String sessionId, String subscriptionId, Long boothId) {
+        String prefix = sessionId + ":";
+        long sessionSubscriptions = subscriptions.keySet().stream().filter(key -> key.startsWith(prefix)).count();
+        if (sessionSubscriptions >= maxSubscriptionsPerSession) {
+            throw new IllegalArgumentException("Too many live stats subscriptions");
+        }
+        if (subscriptions.putIfAbsent(prefix + subscriptionId, boothId) == null) {
+            subscriberCounts.merge(boothId, 1, Integer::sum);
+        }
+    }
+
+    public void unsubscribe(String sessionId, String subscriptionId) {
+        Long boothId = subscriptions.remove(sessionId + ":" + subscriptionId);
+        if (boothId != null) {
+            release(boothId);
+        }
+    }
+
+    @EventListener
+    public void handleDisconnect(SessionDisconnectEvent event) {
+        String prefix = event.getSessionId() + ":";
+        subscriptions.entrySet().removeIf(entry -> {
+            if (!entry.getKey().startsWith(prefix)) return false;
+            release(entry.getValue());
+            return true;
+        });
+    }
+
+    private void release(Long boothId) {
+        subscriberCounts.computeIfPresent(boothId, (id, count) -> {
+            if (count > 1) return count - 1;
+            pendingDeltas.remove(id);
+            return null;
+        });
+    }
+
+    @Override
+    public void onAccepted(List<VisitEvent> events) {
+        addDeltas(events, 1);
+    }
+
+    @Override
+    public void onFlushed(List<VisitEvent> events) {
+        // 수락 시점에 이미 반영됨
+    }
+
+    @Override
+    public void onDropped(List<VisitEvent> events) {
+        addDeltas(events, -1);
+    }
+
+    @Override
+    public void onReplayed(List<VisitEvent> events) {
+        addDeltas(events, 1);
+    }
+
+    private void addDeltas(List<VisitEvent> events, int sign) {
+        if (subscriberCounts.isEmpty()) return;
+        for (VisitEvent event : events) {
+            Long boothId = event.getBoothId();
+            if (boothId == null || !subscriberCounts.containsKey(boothId)) continue;
+            pendingDeltas.computeIfAbsent(boothId, id -> new ConcurrentHashMap<>())
+                .computeIfAbsent(liveStatsService.actionKey(event.getAction()), action -> new AtomicLong())
+                .addAndGet(sign * (long) VisitEventJdbcRepository.weightOf(event));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stats.push.interval-ms:3000}")
+    public void publish() {
+        Instant now = Instant.now();
+        for (Long boothId : List.copyOf(pendingDeltas.keySet())) {
+            if (!subscriberCounts.containsKey(boothId)) {
+                // 구독 해제와 동시에 들어온 이벤트가 남긴 항목
+                pendingDeltas.remove(boothId);
+                continue;
+            }
+            Map<String, AtomicLong> deltas = pendingDeltas.get(boothId);
+            if (deltas == null) continue;
+
+            Map<String, Long> actions = new HashMap<>();
+            deltas.forEach((action, counter) -> {
+                long value = counter.getAndSet(0);
+                if (value != 0) {
+                    actions.put(action, value);
+                }
+            });
+            if (actions.isEmpty()) continue;
+
+            try {
+                messagingTemplate.convertAndSend(TOPIC_PREFIX + boothId, LiveStatsDeltaDto.builder()
+                    .boothId(boothId)
+                    .views(actions.getOrDefault(VIEW, 0L))
+                    .clickEvents(actions.getOrDefault(CLICK_LINK, 0L))
+                    .videoPlays(actions.getOrDefault(PLAY_VIDEO, 0L))
+                    .actions(actions)
+                    .timestamp(now)
+                    .build());
+            } catch (Exception e) {
+                log.warn("Failed to push live stats for booth {}", boothId, e);
+            }
+        }
+    }
+
+    public int getSubscriptionCount() {
+        return subscriptions.size();
+    }
+}
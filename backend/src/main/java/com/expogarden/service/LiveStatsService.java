@@ -0,0 +1,224 @@
+package com.expogarden.service;
+
+import com.expogarden.domain.VisitEvent;
+import com.expogarden.dto.LiveStatsDto;
+import com.expogarden.repository.VisitEventJdbcRepository;
+import com.expogarden.repository.VisitEventRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 부스/전시별 실시간 액션 카운터
+ *
+ * 요청 스레드에서 큐에 들어가는 즉시(DB 기록 전) LongAdder를 올리므로 경합 없이 집계된다.
+ * 조회값 = 집계 테이블 기준값(baseline) + 기준값 이후 커밋된 수 + 아직 기록되지 않은 수.
+ * 기준값은 조회된 적 있는 대상만 baseline-refresh-ms 마다 visit_event_rollups에서 다시 읽으며,
+ * 다른 인스턴스가 기록한 이벤트도 이때 반영된다.
+ * 기준값을 읽는 도중 커밋된 배치는 다음 갱신 전까지 중복될 수 있다.
+ *
+ * 카운터는 TrackingService가 존재를 확인한 전시/부스에만 생긴다. 액션은 stats.live.actions에 있는 것만 따로 세고
+ * 나머지는 OTHER로 묶는다 (클라이언트가 임의 문자열로 셀을 늘리지 못하도록).
+ * idle-evict-ms 동안 조회도 이벤트도 없던 카운터는 통째로 지운다. 그 동안의 커밋분은 다음 조회 때 기준값으로 다시 읽는다.
+ */
+@Service
+@Slf4j
+public class LiveStatsService implements VisitEventListener {
+
+    private static final String VIEW = "VIEW";
+    private static final String CLICK_LINK = "CLICK_LINK";
+    private static final String PLAY_VIDEO = "PLAY_VIDEO";
+    public static final String OTHER = "OTHER";
+
+    enum Scope {
+        BOOTH,
+        EXHIBITION
+    }
+
+    private record Key(Scope scope, long id) {
+    }
+
+    private static final class Counters {
+        // 수락됐지만 아직 커밋되지 않은 수
+        final ConcurrentHashMap<String, LongAdder> inFlight = new ConcurrentHashMap<>();
+        // 기준값을 읽은 뒤 커밋된 수
+        final ConcurrentHashMap<String, LongAdder> flushed = new ConcurrentHashMap<>();
+        volatile Map<String, Long> baseline;
+        volatile long lastReadMillis;
+        // 마지막 이벤트 반영 시각 (초 단위로만 갱신해 쓰기 경합을 줄인다)
+        volatile long lastWriteMillis = System.currentTimeMillis();
+
+        void add(ConcurrentHashMap<String, LongAdder> cells, String action, long delta) {
+            cells.computeIfAbsent(action, a -> new LongAdder()).add(delta);
+            long now = System.currentTimeMillis();
+            if (now - lastWriteMillis > 1000) lastWriteMillis = now;
+        }
+    }
+
+    private final VisitEventRollupRepository visitEventRollupRepository;
+    private final long idleEvictMillis;
+    private final Set<String> knownActions;
+
+    private final ConcurrentHashMap<Key, Counters> counters = new ConcurrentHashMap<>();
+
+    public LiveStatsService(
+        VisitEventRollupRepository visitEventRollupRepository,
+        @Value("${stats.live.idle-evict-ms:600000}") long idleEvictMillis,
+        @Value("${stats.live.actions:VIEW,CLICK_LINK,PLAY_VIDEO,ENTER_HALL,LEAVE_BOOTH}") String knownActions
+    ) {
+        this.visitEventRollupRepository = visitEventRollupRepository;
+        this.idleEvictMillis = idleEvictMillis;
+        this.knownActions = new HashSet<>();
+        Arrays.stream(knownActions.split(",")).map(String::trim).filter(a -> !a.isEmpty()).forEach(this.knownActions::add);
+    }
+
+    /**
+     * 실시간 카운터에서 쓰는 액션 이름 (목록에 없으면 OTHER)
+     */
+    public String actionKey(String action) {
+        return knownActions.contains(action) ? action : OTHER;
+    }
+
+    @Override
+    public void onAccepted(List<VisitEvent> events) {
+        for (VisitEvent event : events) {
+            forEachCounters(event, c -> c.add(c.inFlight, actionKey(event.getAction()), weightOf(event)));
+        }
+    }
+
+    @Override
+    public void onFlushed(List<VisitEvent> events) {
+        for (VisitEvent event : events) {
+            forEachCounters(event, c -> {
+                c.add(c.inFlight, actionKey(event.getAction()), -weightOf(event));
+                c.add(c.flushed, actionKey(event.getAction()), weightOf(event));
+            });
+        }
+    }
+
+    @Override
+    public void onDropped(List<VisitEvent> events) {
+        for (VisitEvent event : events) {
+            forEachCounters(event, c -> c.add(c.inFlight, actionKey(event.getAction()), -weightOf(event)));
+        }
+    }
+
+    // 재생분은 onAccepted를 거치지 않았을 수 있으므로 커밋 수만 더한다
+    @Override
+    public void onReplayed(List<VisitEvent> events) {
+        for (VisitEvent event : events) {
+            forEachCounters(event, c -> c.add(c.flushed, actionKey(event.getAction()), weightOf(event)));
+        }
+    }
+
+    private static long weightOf(VisitEvent event) {
+        return VisitEventJdbcRepository.weightOf(event);
+    }
+
+    private void forEachCounters(VisitEvent event, Consumer<Counters> action) {
+        action.accept(counters(new Key(Scope.EXHIBITION, event.getExhibitionId())));
+        if (event.getBoothId() != null) {
+            action.accept(counters(new Key(Scope.BOOTH, event.getBoothId())));
+        }
+    }
+
+    private Counters counters(Key key) {
+        return counters.computeIfAbsent(key, k -> new Counters());
+    }
+
+    public LiveStatsDto getBoothStats(Long boothId) {
+        LiveStatsDto stats = snapshot(new Key(Scope.BOOTH, boothId));
+        stats.setBoothId(boothId);
+        return stats;
+    }
+
+    public LiveStatsDto getExhibitionStats(Long exhibitionId) {
+        LiveStatsDto stats = snapshot(new Key(Scope.EXHIBITION, exhibitionId));
+        stats.setExhibitionId(exhibitionId);
+        return stats;
+    }
+
+    private LiveStatsDto snapshot(Key key) {
+        Counters c = counters(key);
+        c.lastReadMillis = System.currentTimeMillis();
+        if (c.baseline == null) {
+            synchronized (c) {
+                if (c.baseline == null) {
+                    loadBaseline(key, c);
+                }
+            }
+        }
+
+        Map<String, Long> actions = new HashMap<>(c.baseline);
+        c.flushed.forEach((action, adder) -> actions.merge(action, adder.sum(), Long::sum));
+        long pending = 0;
+        for (Map.Entry<String, LongAdder> entry : c.inFlight.entrySet()) {
+            long value = entry.getValue().sum();
+            pending += value;
+            actions.merge(entry.getKey(), value, Long::sum);
+        }
+
+        return LiveStatsDto.builder()
+            .totalViews(actions.getOrDefault(VIEW, 0L))
+            .clickEvents(actions.getOrDefault(CLICK_LINK, 0L))
+            .videoPlays(actions.getOrDefault(PLAY_VIDEO, 0L))
+            .actions(actions)
+            .pending(pending)
+            .timestamp(Instant.now())
+            .build();
+    }
+
+    /**
+     * 기준값을 다시 읽고, 그 전까지 누적된 커밋 수를 뺀다.
+     */
+    private void loadBaseline(Key key, Counters c) {
+        Map<String, Long> before = new HashMap<>();
+        c.flushed.forEach((action, adder) -> before.put(action, adder.sum()));
+
+        Map<String, Long> totals = new HashMap<>();
+        (key.scope() == Scope.BOOTH
+            ? visitEventRollupRepository.sumByBoothGroupByAction(key.id())
+            : visitEventRollupRepository.sumByExhibitionGroupByAction(key.id()))
+            .forEach((action, value) -> totals.merge(actionKey(action), value, Long::sum));
+
+        c.baseline = totals;
+        before.forEach((action, value) -> c.flushed.get(action).add(-value));
+    }
+
+    @Scheduled(fixedDelayString = "${stats.live.baseline-refresh-ms:30000}")
+    public void refreshBaselines() {
+        long now = System.currentTimeMillis();
+        counters.forEach((key, c) -> {
+            if (now - c.lastReadMillis > idleEvictMillis && now - c.lastWriteMillis > idleEvictMillis) {
+                // 조회도 이벤트도 없으면 아직 커밋되지 않은 수도 없으므로 지워도 다음 조회 때 DB에서 다시 맞춰진다
+                counters.remove(key, c);
+                return;
+            }
+            if (c.baseline == null) return;
+            synchronized (c) {
+                if (now - c.lastReadMillis > idleEvictMillis) {
+                    // 한동안 아무도 보지 않으면 기준값 갱신을 멈춘다 (다음 조회 때 다시 읽음)
+                    c.baseline = null;
+                    return;
+                }
+                try {
+                    loadBaseline(key, c);
+                } catch (Exception e) {
+                    log.warn("Failed to refresh live stats baseline for {} {}", key.scope(), key.id(), e);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,206 @@
+package com.expogarden.service;
+
+import com.expogarden.domain.RollupGranularity;
+import com.expogarden.repository.VisitEventRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 월별 RANGE 파티션 유지보수
+ *
+ * - 앞으로 N개월치 파티션을 미리 생성 (INSERT가 파티션 없음으로 실패하지 않도록)
+ * - 보존 기간이 지난 파티션은 DETACH(별도 테이블로 보관) 또는 DROP
+ * 파티션 이름 규칙은 {table}_pYYYYMM 이며 마이그레이션(V15 chat_messages, V19 visit_events)과 동일하다.
+ * {table}_default 파티션(V25 chat_messages)이 있으면 새 달 파티션을 만들 때 그 범위의 행을 옮겨 붙인다.
+ *
+ * 같은 주기에 파티션이 없는 visit_event_rollups의 오래된 MINUTE/HOUR 행도 배치로 지운다 (DAY 행은 유지).
+ * 원본이 만료/압축된 뒤에는 집계가 유일한 기록이라 보존 기간 없이 두면 이 테이블이 끝없이 커진다.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PartitionMaintenanceService {
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    public enum ExpiredAction {
+        DETACH,  // 파티션을 떼어내 독립 테이블로 보관
+        DROP     // 파티션 삭제
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final VisitEventRollupRepository visitEventRollupRepository;
+
+    @Value("${partition.chat-messages.premake-months:3}")
+    private int chatPremakeMonths;
+
+    @Value("${partition.chat-messages.retention-months:0}")
+    private int chatRetentionMonths;
+
+    @Value("${partition.chat-messages.expired-action:DETACH}")
+    private ExpiredAction chatExpiredAction;
+
+    @Value("${partition.visit-events.premake-months:3}")
+    private int visitPremakeMonths;
+
+    @Value("${partition.visit-events.retention-months:13}")
+    private int visitRetentionMonths;
+
+    @Value("${partition.visit-events.expired-action:DETACH}")
+    private ExpiredAction visitExpiredAction;
+
+    @Value("${stats.rollup.minute-retention-days:7}")
+    private int rollupMinuteRetentionDays;
+
+    @Value("${stats.rollup.hour-retention-months:13}")
+    private int rollupHourRetentionMonths;
+
+    @Value("${stats.rollup.purge-batch-size:10000}")
+    private int rollupPurgeBatchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        maintainAll();
+    }
+
+    @Scheduled(cron = "${partition.maintenance-cron:0 30 3 * * *}")
+    public void maintainAll() {
+        maintain("chat_messages", chatPremakeMonths, chatRetentionMonths, chatExpiredAction);
+        maintain("visit_events", visitPremakeMonths, visitRetentionMonths, visitExpiredAction);
+        LocalDateTime now = LocalDateTime.now();
+        if (rollupMinuteRetentionDays > 0) {
+            purgeRollups(RollupGranularity.MINUTE, now.minusDays(rollupMinuteRetentionDays));
+        }
+        if (rollupHourRetentionMonths > 0) {
+            purgeRollups(RollupGranularity.HOUR, now.minusMonths(rollupHourRetentionMonths));
+        }
+    }
+
+    /**
+     * cutoff 이전 granularity 집계 행을 purge-batch-size개씩 지운다 (배치마다 커밋되어 잠금이 짧다)
+     */
+    public void purgeRollups(RollupGranularity granularity, LocalDateTime cutoff) {
+        long total = 0;
+        try {
+            int deleted;
+            do {
+                deleted = visitEventRollupRepository.deleteBefore(granularity, cutoff, rollupPurgeBatchSize);
+                total += deleted;
+            } while (deleted >= rollupPurgeBatchSize);
+        } catch (Exception e) {
+            log.error("Rollup retention failed for {} before {}", granularity, cutoff, e);
+        }
+        if (total > 0) {
+            log.info("Purged {} {} rollup rows before {}", total, granularity, cutoff);
+        }
+    }
+
+    /**
+     * @param retentionMonths 현재 달을 포함해 보존할 개월 수 (0 이하면 만료 처리 안 함)
+     */
+    public void maintain(String table, int premakeMonths, int retentionMonths, ExpiredAction expiredAction) {
+        YearMonth current = YearMonth.now(ZoneId.systemDefault());
+
+        try {
+            for (int i = 0; i <= premakeMonths; i++) {
+                createPartition(table, current.plusMonths(i));
+            }
+
+            if (retentionMonths > 0) {
+                YearMonth oldestKept = current.minusMonths(retentionMonths - 1L);
+                for (String partition : listPartitions(table)) {
+                    YearMonth month = parseMonth(table, partition);
+                    if (month != null && month.isBefore(oldestKept)) {
+                        expirePartition(table, partition, expiredAction);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.error("Partition maintenance failed for {}", table, e);
+        }
+    }
+
+    public void createPartition(String table, YearMonth month) {
+        String partition = partitionName(table, month);
+        String defaultPartition = table + "_default";
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+
+        List<String> partitions = listPartitions(table);
+        if (!partitions.contains(defaultPartition) || partitions.contains(partition)) {
+            jdbcTemplate.execute(String.format(
+                "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                partition, table, from, to
+            ));
+            return;
+        }
+
+        // DEFAULT에 같은 범위의 행이 있으면 PARTITION OF가 실패하므로, 빈 테이블로 만든 뒤 행을 옮기고 ATTACH 한다
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute(String.format(
+                "CREATE TABLE %s (LIKE %s INCLUDING DEFAULTS INCLUDING CONSTRAINTS)", partition, table
+            ));
+            int moved = jdbcTemplate.update(String.format(
+                "WITH moved AS (DELETE FROM %s WHERE created_at >= '%s' AND created_at < '%s' RETURNING *) "
+                    + "INSERT INTO %s SELECT * FROM moved",
+                defaultPartition, from, to, partition
+            ));
+            jdbcTemplate.execute(String.format(
+                "ALTER TABLE %s ATTACH PARTITION %s FOR VALUES FROM ('%s') TO ('%s')",
+                table, partition, from, to
+            ));
+            if (moved > 0) {
+                log.warn("Moved {} rows of {} from {} into {}", moved, table, defaultPartition, partition);
+            }
+        });
+    }
+
+    public List<String> listPartitions(String table) {
+        return jdbcTemplate.queryForList("""
+            SELECT c.relname
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            JOIN pg_class p ON p.oid = i.inhparent
+            WHERE p.relname = ?
+            ORDER BY c.relname
+            """, String.class, table);
+    }
+
+    private void expirePartition(String table, String partition, ExpiredAction action) {
+        if (action == ExpiredAction.DROP) {
+            jdbcTemplate.execute(String.format("DROP TABLE %s", partition));
+        } else {
+            jdbcTemplate.execute(String.format("ALTER TABLE %s DETACH PARTITION %s", table, partition));
+        }
+        log.info("Expired partition {} of {} ({})", partition, table, action);
+    }
+
+    static String partitionName(String table, YearMonth month) {
+        return table + "_p" + month.format(SUFFIX);
+    }
+
+    static YearMonth parseMonth(String table, String partition) {
+        Matcher matcher = Pattern.compile(Pattern.quote(table) + "_p(\\d{4})(\\d{2})").matcher(partition);
+        if (!matcher.matches()) {
+            return null;
+        }
+        return YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+    }
+}
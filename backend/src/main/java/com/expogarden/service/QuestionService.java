@@ -23,6 +23,7 @@ public class QuestionService {
     private final QuestionRepository questionRepository;
     private final BoothRepository boothRepository;
     private final UserRepository userRepository;
+    private final ContentFilterService contentFilterService;
     
     @Transactional(readOnly = true)
     public Page<QuestionDto> getQuestions(Long boothId, Pageable pageable) {
@@ -51,7 +52,7 @@ public class QuestionService {
             .boothId(boothId)
             .userId(principal != null ? principal.getId() : null)
             .guestSessionId(principal == null ? request.getGuestSessionId() : null)
-            .content(request.getContent())
+            .content(contentFilterService.filter(request.getContent()))
             .status(ContentStatus.VISIBLE)
             .build();
         
@@ -2,42 +2,173 @@ package com.expogarden.service;
 
 import com.expogarden.domain.Booth;
 import com.expogarden.domain.Exhibition;
+import com.expogarden.domain.MemberRole;
+import com.expogarden.domain.RollupGranularity;
+import com.expogarden.domain.VisitEvent;
 import com.expogarden.dto.BoothStatsDto;
+import com.expogarden.dto.DwellDto;
 import com.expogarden.dto.ExhibitionStatsDto;
 import com.expogarden.repository.BoothRepository;
 import com.expogarden.repository.ExhibitionRepository;
-import com.expogarden.repository.VisitEventRepository;
-import lombok.RequiredArgsConstructor;
+import com.expogarden.repository.VisitEventRollupRepository;
+import com.expogarden.repository.VisitEventRollupRepository.BoothActionTotals;
+import com.expogarden.repository.VisitEventRollupRepository.BoothTotal;
+import com.expogarden.util.LogHistogram;
+import com.expogarden.util.SingleFlightCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
+/**
+ * 조회수/클릭/재생 수는 원본(visit_events) 대신 일 단위 집계(visit_event_rollups)를 합산한다.
+ * 집계는 수집 파이프라인이 원본과 같은 트랜잭션에서 갱신하므로 원본 COUNT와 같은 값이다.
+ * 고유 방문자 수는 HyperLogLog 스케치 추정값이다 (UniqueVisitorService, 오차 약 ±1.6%).
+ * 체류 시간 중앙값/p90은 DwellService가 저장한 시간별 히스토그램을 합쳐 계산한다 (버킷 오차 약 ±19%).
+ *
+ * 결과는 stats.cache.ttl-ms 동안 캐시하며, 같은 대상을 동시에 조회하면 계산은 한 번만 한다.
+ * 새 이벤트 배치가 커밋되면 해당 전시/부스 캐시를 stale로 표시해, 다음 조회는 기존 값을 바로 받고
+ * 백그라운드에서 다시 계산된다.
+ */
 @Service
-@RequiredArgsConstructor
-public class StatisticsService {
+public class StatisticsService implements VisitEventListener {
     
-    private final VisitEventRepository visitEventRepository;
+    private static final String VIEW = "VIEW";
+    private static final String CLICK_LINK = "CLICK_LINK";
+    private static final String PLAY_VIDEO = "PLAY_VIDEO";
+    
+    private final VisitEventRollupRepository visitEventRollupRepository;
     private final BoothRepository boothRepository;
     private final ExhibitionRepository exhibitionRepository;
+    private final UniqueVisitorService uniqueVisitorService;
+    private final DwellService dwellService;
+    private final Duration maxDwellRange;
+    
+    private final ExecutorService refreshExecutor;
+    private final SingleFlightCache<Long, ExhibitionStatsDto> exhibitionStatsCache;
+    private final SingleFlightCache<Long, BoothStatsDto> boothStatsCache;
+    
+    public StatisticsService(
+        VisitEventRollupRepository visitEventRollupRepository,
+        BoothRepository boothRepository,
+        ExhibitionRepository exhibitionRepository,
+        UniqueVisitorService uniqueVisitorService,
+        DwellService dwellService,
+        MeterRegistry meterRegistry,
+        @Value("${stats.cache.ttl-ms:5000}") long ttlMillis,
+        @Value("${stats.cache.stale-ms:60000}") long staleMillis,
+        @Value("${stats.dwell.max-range-days:31}") int maxDwellRangeDays
+    ) {
+        this.visitEventRollupRepository = visitEventRollupRepository;
+        this.boothRepository = boothRepository;
+        this.exhibitionRepository = exhibitionRepository;
+        this.uniqueVisitorService = uniqueVisitorService;
+        this.dwellService = dwellService;
+        this.maxDwellRange = Duration.ofDays(maxDwellRangeDays);
+        
+        AtomicInteger sequence = new AtomicInteger();
+        this.refreshExecutor = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "stats-refresh-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.exhibitionStatsCache = new SingleFlightCache<>("stats.exhibition", ttlMillis, staleMillis,
+            refreshExecutor, meterRegistry);
+        this.boothStatsCache = new SingleFlightCache<>("stats.booth", ttlMillis, staleMillis,
+            refreshExecutor, meterRegistry);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+    
+    @Override
+    public void onFlushed(List<VisitEvent> events) {
+        Set<Long> exhibitionIds = new HashSet<>();
+        Set<Long> boothIds = new HashSet<>();
+        for (VisitEvent event : events) {
+            exhibitionIds.add(event.getExhibitionId());
+            if (event.getBoothId() != null) boothIds.add(event.getBoothId());
+        }
+        exhibitionIds.forEach(exhibitionStatsCache::invalidate);
+        boothIds.forEach(boothStatsCache::invalidate);
+    }
     
     // 전시 통계
     public ExhibitionStatsDto getExhibitionStats(Long exhibitionId) {
+        return exhibitionStatsCache.get(exhibitionId, this::computeExhibitionStats);
+    }
+    
+    // 부스 통계
+    public BoothStatsDto getBoothStats(Long boothId) {
+        return boothStatsCache.get(boothId, this::computeBoothStats);
+    }
+    
+    /**
+     * 사용자가 소유(직접 소유 또는 OWNER 멤버)한 모든 부스의 통계.
+     * 부스 수와 무관하게 부스 목록 1회 + 집계 합계 1회 + 스케치 조회 1회 + 체류 히스토그램 조회 1회로 계산한다.
+     */
+    public List<BoothStatsDto> getMyBoothStats(Long userId) {
+        List<Booth> booths = boothRepository.findByOwnerOrMemberRole(userId, MemberRole.OWNER);
+        if (booths.isEmpty()) return List.of();
+        
+        List<Long> boothIds = booths.stream().map(Booth::getId).collect(Collectors.toList());
+        Map<Long, BoothActionTotals> totals = visitEventRollupRepository.sumByBoothsGroupByAction(boothIds);
+        Map<Long, Long> uniqueByBooth = uniqueVisitorService.countByBooths(boothIds);
+        Map<Long, LogHistogram> dwellByBooth = dwellService.getTotals(boothIds);
+        
+        List<BoothStatsDto> result = new ArrayList<>(booths.size());
+        for (Booth booth : booths) {
+            BoothActionTotals total = totals.get(booth.getId());
+            LogHistogram dwell = dwellByBooth.getOrDefault(booth.getId(), new LogHistogram());
+            result.add(BoothStatsDto.builder()
+                .boothId(booth.getId())
+                .boothTitle(booth.getTitle())
+                .totalViews(total != null ? total.views() : 0L)
+                .uniqueVisitors(uniqueByBooth.getOrDefault(booth.getId(), 0L))
+                .clickEvents(total != null ? total.clicks() : 0L)
+                .videoPlays(total != null ? total.videoPlays() : 0L)
+                .dwellVisits(dwell.getTotal())
+                .dwellMedianMs(dwell.quantile(0.5))
+                .dwellP90Ms(dwell.quantile(0.9))
+                .build());
+        }
+        return result;
+    }
+    
+    private ExhibitionStatsDto computeExhibitionStats(Long exhibitionId) {
         Exhibition exhibition = exhibitionRepository.findById(exhibitionId)
             .orElseThrow(() -> new RuntimeException("Exhibition not found"));
         
-        Long totalViews = visitEventRepository.countViewsByExhibition(exhibitionId);
-        Long uniqueVisitors = visitEventRepository.countUniqueVisitorsByExhibition(exhibitionId);
+        Long totalViews = visitEventRollupRepository.sumByExhibitionAndAction(exhibitionId, VIEW);
+        Long uniqueVisitors = uniqueVisitorService.countByExhibition(exhibitionId);
         Long totalBooths = boothRepository.countByExhibitionIdAndNotDeleted(exhibitionId);
         
         // TOP 10 부스
-        List<Object[]> topBoothsRaw = visitEventRepository.findTopBoothsByExhibition(exhibitionId, 10);
-        List<BoothStatsDto> topBooths = topBoothsRaw.stream()
-            .map(row -> BoothStatsDto.builder()
-                .boothId(((Number) row[0]).longValue())
-                .boothTitle((String) row[1])
-                .totalViews(((Number) row[2]).longValue())
-                .uniqueVisitors(((Number) row[3]).longValue())
+        List<BoothTotal> topTotals = visitEventRollupRepository.findTopBooths(exhibitionId, VIEW, 10);
+        Map<Long, Long> uniqueByBooth = uniqueVisitorService.countByBooths(
+            topTotals.stream().map(BoothTotal::boothId).collect(Collectors.toList()));
+        List<BoothStatsDto> topBooths = topTotals.stream()
+            .map(total -> BoothStatsDto.builder()
+                .boothId(total.boothId())
+                .boothTitle(total.boothTitle())
+                .totalViews(total.count())
+                .uniqueVisitors(uniqueByBooth.getOrDefault(total.boothId(), 0L))
                 .build())
             .collect(Collectors.toList());
         
@@ -51,24 +182,77 @@ public class StatisticsService {
             .build();
     }
     
-    // 부스 통계
-    public BoothStatsDto getBoothStats(Long boothId) {
+    private BoothStatsDto computeBoothStats(Long boothId) {
         Booth booth = boothRepository.findByIdAndNotDeleted(boothId)
             .orElseThrow(() -> new RuntimeException("Booth not found"));
         
-        Long totalViews = visitEventRepository.countViewsByBooth(boothId);
-        Long uniqueVisitors = visitEventRepository.countUniqueVisitorsByBooth(boothId);
-        Long clickEvents = visitEventRepository.countByBoothAndAction(boothId, "CLICK_LINK");
-        Long videoPlays = visitEventRepository.countByBoothAndAction(boothId, "PLAY_VIDEO");
+        Map<String, Long> totals = visitEventRollupRepository.sumByBoothGroupByAction(boothId);
+        Long uniqueVisitors = uniqueVisitorService.countByBooth(boothId);
+        LogHistogram dwell = dwellService.getTotals(List.of(boothId)).getOrDefault(boothId, new LogHistogram());
         
         return BoothStatsDto.builder()
             .boothId(boothId)
             .boothTitle(booth.getTitle())
-            .totalViews(totalViews)
+            .totalViews(totals.getOrDefault(VIEW, 0L))
             .uniqueVisitors(uniqueVisitors)
-            .clickEvents(clickEvents)
-            .videoPlays(videoPlays)
+            .clickEvents(totals.getOrDefault(CLICK_LINK, 0L))
+            .videoPlays(totals.getOrDefault(PLAY_VIDEO, 0L))
+            .dwellVisits(dwell.getTotal())
+            .dwellMedianMs(dwell.quantile(0.5))
+            .dwellP90Ms(dwell.quantile(0.9))
+            .build();
+    }
+    
+    /**
+     * 부스 체류 시간 (방문 시작 시각 기준 [from, to), 시간 단위로 내림/올림)
+     */
+    public DwellDto getBoothDwell(Long boothId, Instant from, Instant to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (Duration.between(from, to).compareTo(maxDwellRange) > 0) {
+            throw new IllegalArgumentException("Range must not exceed " + maxDwellRange.toDays() + " days");
+        }
+        boothRepository.findByIdAndNotDeleted(boothId)
+            .orElseThrow(() -> new RuntimeException("Booth not found"));
+        
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDateTime start = RollupGranularity.HOUR.truncate(LocalDateTime.ofInstant(from, zone));
+        LocalDateTime localTo = LocalDateTime.ofInstant(to, zone);
+        LocalDateTime end = RollupGranularity.HOUR.truncate(localTo);
+        if (end.isBefore(localTo)) {
+            end = end.plusHours(1);
+        }
+        
+        Map<LocalDateTime, LogHistogram> hourly = dwellService.getHourly(boothId, start, end);
+        int size = hourly.size();
+        long[] timestamps = new long[size];
+        long[] visits = new long[size];
+        Long[] medians = new Long[size];
+        Long[] p90s = new Long[size];
+        LogHistogram total = new LogHistogram();
+        int index = 0;
+        for (Map.Entry<LocalDateTime, LogHistogram> entry : hourly.entrySet()) {
+            LogHistogram histogram = entry.getValue();
+            timestamps[index] = entry.getKey().atZone(zone).toInstant().toEpochMilli();
+            visits[index] = histogram.getTotal();
+            medians[index] = histogram.quantile(0.5);
+            p90s[index] = histogram.quantile(0.9);
+            total.merge(histogram);
+            index++;
+        }
+        
+        return DwellDto.builder()
+            .boothId(boothId)
+            .from(start.atZone(zone).toInstant())
+            .to(end.atZone(zone).toInstant())
+            .visits(total.getTotal())
+            .medianMs(total.quantile(0.5))
+            .p90Ms(total.quantile(0.9))
+            .timestamps(timestamps)
+            .hourlyVisits(visits)
+            .hourlyMedianMs(medians)
+            .hourlyP90Ms(p90s)
             .build();
     }
 }
-
@@ -0,0 +1,145 @@
+package com.expogarden.service;
+
+import com.expogarden.domain.RollupGranularity;
+import com.expogarden.dto.TimeSeriesDto;
+import com.expogarden.repository.VisitEventRollupRepository;
+import com.expogarden.repository.VisitEventRollupRepository.SeriesPoint;
+import com.expogarden.repository.VisitSketchRepository.Scope;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * 부스/전시 시계열 통계 (visit_event_rollups + visit_sketches)
+ *
+ * 구간 크기를 지정하지 않으면 max-points 이하가 되는 가장 작은 단위(MINUTE → HOUR → DAY)를 고르고,
+ * 그래도 넘치면 여러 버킷을 한 구간으로 묶는다(step). 지정한 단위는 최소 단위로 취급한다.
+ * 구간 시작이 MINUTE/HOUR 집계 보존 기간(stats.rollup.*)보다 이전이면 그 단위는 건너뛴다 (행이 이미 지워졌으므로).
+ */
+@Service
+public class TimeSeriesService {
+
+    private static final String VIEW = "VIEW";
+    private static final String CLICK_LINK = "CLICK_LINK";
+    private static final String PLAY_VIDEO = "PLAY_VIDEO";
+
+    private final VisitEventRollupRepository visitEventRollupRepository;
+    private final UniqueVisitorService uniqueVisitorService;
+    private final int maxPoints;
+    private final Duration maxRange;
+    private final int minuteRetentionDays;
+    private final int hourRetentionMonths;
+
+    public TimeSeriesService(
+        VisitEventRollupRepository visitEventRollupRepository,
+        UniqueVisitorService uniqueVisitorService,
+        @Value("${stats.timeseries.max-points:500}") int maxPoints,
+        @Value("${stats.timeseries.max-range-days:400}") int maxRangeDays,
+        @Value("${stats.rollup.minute-retention-days:7}") int minuteRetentionDays,
+        @Value("${stats.rollup.hour-retention-months:13}") int hourRetentionMonths
+    ) {
+        this.visitEventRollupRepository = visitEventRollupRepository;
+        this.uniqueVisitorService = uniqueVisitorService;
+        this.maxPoints = maxPoints;
+        this.maxRange = Duration.ofDays(maxRangeDays);
+        this.minuteRetentionDays = minuteRetentionDays;
+        this.hourRetentionMonths = hourRetentionMonths;
+    }
+
+    public TimeSeriesDto getBoothSeries(Long boothId, Instant from, Instant to, RollupGranularity minimum) {
+        TimeSeriesDto series = build(Scope.BOOTH, boothId, from, to, minimum);
+        series.setBoothId(boothId);
+        return series;
+    }
+
+    public TimeSeriesDto getExhibitionSeries(Long exhibitionId, Instant from, Instant to, RollupGranularity minimum) {
+        TimeSeriesDto series = build(Scope.EXHIBITION, exhibitionId, from, to, minimum);
+        series.setExhibitionId(exhibitionId);
+        return series;
+    }
+
+    private TimeSeriesDto build(Scope scope, Long id, Instant from, Instant to, RollupGranularity minimum) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (Duration.between(from, to).compareTo(maxRange) > 0) {
+            throw new IllegalArgumentException("Range must not exceed " + maxRange.toDays() + " days");
+        }
+
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDateTime localFrom = LocalDateTime.ofInstant(from, zone);
+        LocalDateTime localTo = LocalDateTime.ofInstant(to, zone);
+
+        RollupGranularity granularity = chooseGranularity(localFrom, localTo, minimum);
+        LocalDateTime start = granularity.truncate(localFrom);
+        long buckets = Math.max(1, granularity.getUnit().between(start, localTo)
+            + (granularity.truncate(localTo).equals(localTo) ? 0 : 1));
+        int step = (int) Math.max(1, (buckets + maxPoints - 1) / maxPoints);
+        int points = (int) ((buckets + step - 1) / step);
+        LocalDateTime end = start.plus((long) step * points, granularity.getUnit());
+
+        long[] timestamps = new long[points];
+        for (int i = 0; i < points; i++) {
+            timestamps[i] = start.plus((long) step * i, granularity.getUnit()).atZone(zone).toInstant().toEpochMilli();
+        }
+
+        long[] views = new long[points];
+        long[] clicks = new long[points];
+        long[] videoPlays = new long[points];
+        List<SeriesPoint> rows = scope == Scope.BOOTH
+            ? visitEventRollupRepository.findBoothSeries(id, granularity, start, end)
+            : visitEventRollupRepository.findExhibitionSeries(id, granularity, start, end);
+        for (SeriesPoint row : rows) {
+            int index = (int) (granularity.getUnit().between(start, row.bucketStart()) / step);
+            switch (row.action()) {
+                case VIEW -> views[index] += row.count();
+                case CLICK_LINK -> clicks[index] += row.count();
+                case PLAY_VIDEO -> videoPlays[index] += row.count();
+                default -> { }
+            }
+        }
+
+        long[] uniqueVisitors = granularity == RollupGranularity.MINUTE ? null
+            : uniqueVisitorService.countSeries(scope, id, granularity, start, step, points);
+
+        return TimeSeriesDto.builder()
+            .granularity(granularity.name())
+            .step(step)
+            .from(start.atZone(zone).toInstant())
+            .to(end.atZone(zone).toInstant())
+            .timestamps(timestamps)
+            .views(views)
+            .clicks(clicks)
+            .videoPlays(videoPlays)
+            .uniqueVisitors(uniqueVisitors)
+            .build();
+    }
+
+    /**
+     * minimum 이상이고 from이 보존 기간 안인 단위 중 구간 수가 max-points 이하가 되는 가장 작은 단위 (없으면 DAY)
+     */
+    private RollupGranularity chooseGranularity(LocalDateTime from, LocalDateTime to, RollupGranularity minimum) {
+        for (RollupGranularity candidate : RollupGranularity.values()) {
+            if (minimum != null && candidate.compareTo(minimum) < 0) continue;
+            if (!isRetained(candidate, from)) continue;
+            if (candidate.getUnit().between(candidate.truncate(from), to) < maxPoints) {
+                return candidate;
+            }
+        }
+        return RollupGranularity.DAY;
+    }
+
+    private boolean isRetained(RollupGranularity granularity, LocalDateTime from) {
+        LocalDateTime now = LocalDateTime.now();
+        return switch (granularity) {
+            case MINUTE -> minuteRetentionDays <= 0 || !from.isBefore(now.minusDays(minuteRetentionDays));
+            case HOUR -> hourRetentionMonths <= 0 || !from.isBefore(now.minusMonths(hourRetentionMonths));
+            case DAY -> true;
+        };
+    }
+}
@@ -0,0 +1,352 @@
+package com.expogarden.service;
+
+import com.expogarden.domain.Booth;
+import com.expogarden.domain.RollupGranularity;
+import com.expogarden.domain.VisitEvent;
+import com.expogarden.dto.TopBoothsDto;
+import com.expogarden.repository.BoothRepository;
+import com.expogarden.repository.VisitEventJdbcRepository;
+import com.expogarden.repository.VisitEventRollupRepository;
+import com.expogarden.repository.VisitEventRollupRepository.BoothBucketCount;
+import com.expogarden.util.SpaceSaving;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 전시별 실시간 인기 부스 (VIEW 기준)
+ *
+ * 수집 파이프라인에서 VIEW 이벤트를 받아 전시별 Space-Saving 요약에 반영한다.
+ * - NOW: 최근 window-minutes 분. 분 단위 요약을 링 버퍼로 돌리고 조회 시 합친다.
+ * - TODAY: 오늘(서버 타임존) 0시부터. 날짜가 바뀌면 비운다.
+ * 부스 수가 capacity 이하이면 결과는 정확하다. reconcile-interval-ms 마다 집계 테이블로
+ * 정확한 순위를 계산해 비교하고, 상위 목록이 다르면 요약을 정확한 값으로 다시 채운다.
+ *
+ * 요약은 전시당 수십 KB이므로 공개(PUBLISHED) 전시의 이벤트만 반영하고(조회는 존재하는 전시면 생성),
+ * idle-evict-ms 동안 이벤트도 조회도 없었거나 더 이상 없는 전시의 요약은 재조정 때 버린다.
+ */
+@Service
+@Slf4j
+public class TopBoothsService implements VisitEventListener {
+
+    private static final String VIEW = "VIEW";
+
+    public enum Window {
+        NOW,
+        TODAY
+    }
+
+    private final VisitEventRollupRepository visitEventRollupRepository;
+    private final BoothRepository boothRepository;
+    private final int capacity;
+    private final int windowMinutes;
+    private final int reconcileTopN;
+    private final long idleEvictMillis;
+    private final TrackingTargetRegistry trackingTargetRegistry;
+
+    private final ConcurrentHashMap<Long, Tracker> trackers = new ConcurrentHashMap<>();
+    // 삭제되지 않은 부스 제목 (재조정 때 갱신)
+    private final ConcurrentHashMap<Long, String> boothTitles = new ConcurrentHashMap<>();
+
+    private final Counter reconcileMatchCounter;
+    private final Counter reconcileReseedCounter;
+
+    public TopBoothsService(
+        VisitEventRollupRepository visitEventRollupRepository,
+        BoothRepository boothRepository,
+        TrackingTargetRegistry trackingTargetRegistry,
+        MeterRegistry meterRegistry,
+        @Value("${stats.top-booths.capacity:200}") int capacity,
+        @Value("${stats.top-booths.window-minutes:15}") int windowMinutes,
+        @Value("${stats.top-booths.reconcile-top-n:10}") int reconcileTopN,
+        @Value("${stats.top-booths.idle-evict-ms:3600000}") long idleEvictMillis
+    ) {
+        this.visitEventRollupRepository = visitEventRollupRepository;
+        this.boothRepository = boothRepository;
+        this.capacity = capacity;
+        this.windowMinutes = windowMinutes;
+        this.reconcileTopN = reconcileTopN;
+        this.idleEvictMillis = idleEvictMillis;
+        this.trackingTargetRegistry = trackingTargetRegistry;
+        this.reconcileMatchCounter = Counter.builder("stats.top_booths.reconcile").tag("result", "match").register(meterRegistry);
+        this.reconcileReseedCounter = Counter.builder("stats.top_booths.reconcile").tag("result", "reseeded").register(meterRegistry);
+    }
+
+    @Override
+    public void onAccepted(List<VisitEvent> events) {
+        ZoneId zone = ZoneId.systemDefault();
+        for (VisitEvent event : events) {
+            if (event.getBoothId() == null || !VIEW.equals(event.getAction())) continue;
+            Tracker tracker = trackers.get(event.getExhibitionId());
+            if (tracker == null) {
+                if (!trackingTargetRegistry.isPublishedExhibition(event.getExhibitionId())) continue;
+                tracker = trackers.computeIfAbsent(event.getExhibitionId(), id -> new Tracker(capacity, windowMinutes));
+            }
+            Instant createdAt = event.getCreatedAt();
+            tracker.offer(event.getBoothId(), VisitEventJdbcRepository.weightOf(event), epochMinute(createdAt),
+                    LocalDate.ofInstant(createdAt, zone));
+        }
+    }
+
+    public TopBoothsDto getTopBooths(Long exhibitionId, Window window, int limit) {
+        Instant now = Instant.now();
+        Tracker tracker = trackers.get(exhibitionId);
+        if (tracker == null) {
+            if (!trackingTargetRegistry.isValidTarget(exhibitionId, null)) {
+                return TopBoothsDto.builder()
+                    .exhibitionId(exhibitionId)
+                    .window(window.name())
+                    .booths(List.of())
+                    .timestamp(now)
+                    .build();
+            }
+            tracker = trackers.computeIfAbsent(exhibitionId, id -> new Tracker(capacity, windowMinutes));
+        }
+        tracker.touchedAt = System.currentTimeMillis();
+        if (!tracker.seeded) {
+            // 기동 직후처럼 요약이 비어 있으면 집계 테이블로 먼저 채운다
+            reconcile(exhibitionId, tracker);
+        }
+
+        List<SpaceSaving.Entry> candidates = window == Window.NOW
+            ? tracker.topNow(epochMinute(now))
+            : tracker.topToday(LocalDate.ofInstant(now, ZoneId.systemDefault()));
+
+        resolveTitles(candidates);
+        List<TopBoothsDto.Entry> booths = new ArrayList<>(limit);
+        for (SpaceSaving.Entry entry : candidates) {
+            String title = boothTitles.get(entry.key());
+            if (title == null) continue; // 삭제된 부스
+            booths.add(TopBoothsDto.Entry.builder()
+                .boothId(entry.key())
+                .boothTitle(title)
+                .views(entry.count())
+                .error(entry.error())
+                .build());
+            if (booths.size() >= limit) break;
+        }
+
+        return TopBoothsDto.builder()
+            .exhibitionId(exhibitionId)
+            .window(window.name())
+            .booths(booths)
+            .timestamp(now)
+            .build();
+    }
+
+    private void resolveTitles(List<SpaceSaving.Entry> entries) {
+        Set<Long> missing = new HashSet<>();
+        for (SpaceSaving.Entry entry : entries) {
+            if (!boothTitles.containsKey(entry.key())) missing.add(entry.key());
+        }
+        if (missing.isEmpty()) return;
+        for (Booth booth : boothRepository.findAllById(missing)) {
+            if (booth.getDeletedAt() == null) {
+                boothTitles.put(booth.getId(), booth.getTitle());
+            }
+        }
+    }
+
+    // 오래 쓰이지 않았거나 없어진 전시의 요약을 버리고, 남은 전시를 재조정
+    @Scheduled(fixedDelayString = "${stats.top-booths.reconcile-interval-ms:300000}")
+    public void reconcileAll() {
+        long idleBefore = System.currentTimeMillis() - idleEvictMillis;
+        trackers.entrySet().removeIf(entry -> entry.getValue().touchedAt < idleBefore
+            || !trackingTargetRegistry.isValidTarget(entry.getKey(), null));
+        trackers.forEach(this::reconcile);
+    }
+
+    /**
+     * 집계 테이블의 정확한 값과 비교해 상위 목록이 다르면 요약을 다시 채운다.
+     * 아직 기록되지 않은(큐에 있는) 이벤트는 다시 채운 값에서 빠진다.
+     */
+    private void reconcile(Long exhibitionId, Tracker tracker) {
+        ZoneId zone = ZoneId.systemDefault();
+        Instant now = Instant.now();
+        LocalDate today = LocalDate.ofInstant(now, zone);
+        long currentMinute = epochMinute(now);
+        LocalDateTime windowStart = LocalDateTime.ofInstant(
+            Instant.ofEpochSecond(TimeUnit.MINUTES.toSeconds(currentMinute - windowMinutes + 1)), zone);
+
+        try {
+            Map<Long, Long> todayExact = new HashMap<>();
+            for (BoothBucketCount row : visitEventRollupRepository.findBoothCounts(
+                exhibitionId, VIEW, RollupGranularity.DAY, today.atStartOfDay())) {
+                boothTitles.put(row.boothId(), row.boothTitle());
+                todayExact.merge(row.boothId(), row.count(), Long::sum);
+            }
+            if (!sameTop(todayExact, tracker.topToday(today))) {
+                tracker.reseedToday(today, todayExact);
+                reconcileReseedCounter.increment();
+            } else {
+                reconcileMatchCounter.increment();
+            }
+
+            Map<Long, Map<Long, Long>> byMinute = new HashMap<>();
+            Map<Long, Long> nowExact = new HashMap<>();
+            for (BoothBucketCount row : visitEventRollupRepository.findBoothCounts(
+                exhibitionId, VIEW, RollupGranularity.MINUTE, windowStart)) {
+                long minute = epochMinute(row.bucketStart().atZone(zone).toInstant());
+                byMinute.computeIfAbsent(minute, m -> new HashMap<>()).merge(row.boothId(), row.count(), Long::sum);
+                nowExact.merge(row.boothId(), row.count(), Long::sum);
+            }
+            if (!sameTop(nowExact, tracker.topNow(currentMinute))) {
+                tracker.reseedNow(byMinute, currentMinute);
+                reconcileReseedCounter.increment();
+            } else {
+                reconcileMatchCounter.increment();
+            }
+            tracker.seeded = true;
+        } catch (Exception e) {
+            log.warn("Top booth reconciliation failed for exhibition {}", exhibitionId, e);
+        }
+    }
+
+    private boolean sameTop(Map<Long, Long> exact, List<SpaceSaving.Entry> estimated) {
+        List<Long> exactTop = exact.entrySet().stream()
+            .sorted(Map.Entry.<Long, Long>comparingByValue().reversed())
+            .limit(reconcileTopN)
+            .map(Map.Entry::getKey)
+            .toList();
+        Set<Long> estimatedTop = new HashSet<>();
+        for (SpaceSaving.Entry entry : estimated) {
+            if (!boothTitles.containsKey(entry.key())) continue;
+            estimatedTop.add(entry.key());
+            if (estimatedTop.size() >= reconcileTopN) break;
+        }
+        return estimatedTop.equals(new HashSet<>(exactTop));
+    }
+
+    private static long epochMinute(Instant instant) {
+        return TimeUnit.SECONDS.toMinutes(instant.getEpochSecond());
+    }
+
+    /**
+     * 전시 하나의 요약. 요청 스레드들이 동시에 갱신하므로 메서드 단위로 동기화한다.
+     */
+    private static final class Tracker {
+        private final int capacity;
+        private final SpaceSaving[] minuteSlots;
+        private final long[] slotMinutes;
+        private final SpaceSaving today;
+        private LocalDate day;
+        // 집계 테이블로 한 번이라도 재조정했는지
+        volatile boolean seeded;
+        // 마지막 이벤트/조회 시각 (유휴 요약 정리용)
+        volatile long touchedAt = System.currentTimeMillis();
+
+        Tracker(int capacity, int windowMinutes) {
+            this.capacity = capacity;
+            this.minuteSlots = new SpaceSaving[windowMinutes];
+            this.slotMinutes = new long[windowMinutes];
+            for (int i = 0; i < windowMinutes; i++) {
+                minuteSlots[i] = new SpaceSaving(capacity);
+                slotMinutes[i] = -1;
+            }
+            this.today = new SpaceSaving(capacity);
+        }
+
+        synchronized void offer(long boothId, long weight, long minute, LocalDate date) {
+            touchedAt = System.currentTimeMillis();
+            slot(minute).offer(boothId, weight);
+            if (!date.equals(day)) {
+                today.clear();
+                day = date;
+            }
+            today.offer(boothId, weight);
+        }
+
+        private SpaceSaving slot(long minute) {
+            int index = (int) Math.floorMod(minute, (long) minuteSlots.length);
+            if (slotMinutes[index] != minute) {
+                minuteSlots[index].clear();
+                slotMinutes[index] = minute;
+            }
+            return minuteSlots[index];
+        }
+
+        /**
+         * 최근 분 단위 요약들을 합친다. 어떤 분에 키가 없으면 그 분의 최소 카운터만큼을 오차로 더한다.
+         */
+        synchronized List<SpaceSaving.Entry> topNow(long currentMinute) {
+            List<SpaceSaving> live = new ArrayList<>();
+            for (int i = 0; i < minuteSlots.length; i++) {
+                if (slotMinutes[i] > currentMinute - minuteSlots.length && slotMinutes[i] <= currentMinute) {
+                    live.add(minuteSlots[i]);
+                }
+            }
+
+            Set<Long> keys = new HashSet<>();
+            for (SpaceSaving summary : live) {
+                for (SpaceSaving.Entry entry : summary.entries()) keys.add(entry.key());
+            }
+
+            List<SpaceSaving.Entry> merged = new ArrayList<>(keys.size());
+            for (long key : keys) {
+                long count = 0;
+                long error = 0;
+                for (SpaceSaving summary : live) {
+                    SpaceSaving.Entry entry = summary.get(key);
+                    if (entry != null) {
+                        count += entry.count();
+                        error += entry.error();
+                    } else {
+                        count += summary.minCount();
+                        error += summary.minCount();
+                    }
+                }
+                merged.add(new SpaceSaving.Entry(key, count, error));
+            }
+            merged.sort(Comparator.comparingLong(SpaceSaving.Entry::count).reversed());
+            return merged;
+        }
+
+        synchronized List<SpaceSaving.Entry> topToday(LocalDate date) {
+            if (!date.equals(day)) return List.of();
+            return today.top(capacity);
+        }
+
+        synchronized void reseedToday(LocalDate date, Map<Long, Long> exact) {
+            today.clear();
+            day = date;
+            seed(today, exact);
+        }
+
+        synchronized void reseedNow(Map<Long, Map<Long, Long>> exactByMinute, long currentMinute) {
+            for (int i = 0; i < minuteSlots.length; i++) {
+                minuteSlots[i].clear();
+                slotMinutes[i] = -1;
+            }
+            exactByMinute.forEach((minute, counts) -> {
+                if (minute > currentMinute - minuteSlots.length && minute <= currentMinute) {
+                    seed(slot(minute), counts);
+                }
+            });
+        }
+
+        // 큰 값부터 capacity개만 넣어 넣은 값은 모두 정확하게 유지
+        private void seed(SpaceSaving summary, Map<Long, Long> counts) {
+            counts.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed())
+                .limit(capacity)
+                .forEach(entry -> summary.offer(entry.getKey(), entry.getValue()));
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.expogarden.service;
+
+import com.expogarden.dto.TrackEventRequest;
+import com.expogarden.util.RollingBloomFilter;
+import com.expogarden.util.SlidingCountMinSketch;
+import com.expogarden.util.SlidingWindowRateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 수집 이벤트의 스크립트/남용 트래픽 판별
+ *
+ * IP/세션별 최근 이벤트 수를 Count-Min 스케치로 추정하고 다음 중 하나에 걸리면 의심 이벤트로 본다 (검사 순서대로).
+ * - IP_RATE: IP의 rate-window-ms 동안 이벤트 수가 ip-max-events 초과
+ * - SESSION_RATE: 세션의 rate-window-ms 동안 이벤트 수가 session-max-events 초과
+ * - VIEW_VELOCITY: 세션의 view-window-ms 동안 VIEW 수가 session-max-views 초과 (사람이 부스를 넘겨 볼 수 없는 속도)
+ * - NO_PRESENCE: 홀 입장(presence-actions) 없이 들어온 VIEW가 같은 IP에서 rate-window-ms 동안 ip-max-presenceless-views 초과
+ *   (세션 ID를 매번 바꾸는 클라이언트). 입장 기록은 메모리에만 있으므로 시작 후 presence-warmup-ms 동안은 검사하지 않는다.
+ *
+ * 스케치는 키 수와 무관하게 메모리가 고정이고, 추정은 과대 추정만 있어 임계치 근처에서는 보수적으로(의심 쪽으로) 판단할 수 있다.
+ * mode=DROP이면 의심 이벤트를 큐에 넣지 않고, FLAG면 metadata.botSuspect에 사유를 적어 저장한다 (임계치 조정용).
+ */
+@Service
+@Slf4j
+public class TrackingBotDetector {
+
+    public enum Mode {
+        DROP,
+        FLAG
+    }
+
+    public enum Reason {
+        IP_RATE,
+        SESSION_RATE,
+        VIEW_VELOCITY,
+        NO_PRESENCE
+    }
+
+    private static final String VIEW = "VIEW";
+    private static final long IP_SEED = 0x1B07L;
+    private static final long SESSION_SEED = 0x5B07L;
+
+    private final boolean enabled;
+    private final Mode mode;
+    private final Set<String> presenceActions;
+    private final long ipMaxEvents;
+    private final long sessionMaxEvents;
+    private final long sessionMaxViews;
+    private final long ipMaxPresencelessViews;
+    private final long presenceCheckFrom;
+
+    private final SlidingCountMinSketch ipEvents;
+    private final SlidingCountMinSketch sessionEvents;
+    private final SlidingCountMinSketch sessionViews;
+    private final SlidingCountMinSketch ipPresencelessViews;
+    private final RollingBloomFilter presentSessions;
+
+    private final Map<Reason, Counter> suspectedCounters = new EnumMap<>(Reason.class);
+
+    public TrackingBotDetector(
+        MeterRegistry meterRegistry,
+        @Value("${tracking.bot.enabled:true}") boolean enabled,
+        @Value("${tracking.bot.mode:DROP}") Mode mode,
+        @Value("${tracking.bot.rate-window-ms:60000}") long rateWindowMillis,
+        @Value("${tracking.bot.ip-max-events:3000}") long ipMaxEvents,
+        @Value("${tracking.bot.session-max-events:300}") long sessionMaxEvents,
+        @Value("${tracking.bot.view-window-ms:10000}") long viewWindowMillis,
+        @Value("${tracking.bot.session-max-views:15}") long sessionMaxViews,
+        @Value("${tracking.bot.presence-actions:ENTER_HALL}") String presenceActions,
+        @Value("${tracking.bot.ip-max-presenceless-views:30}") long ipMaxPresencelessViews,
+        @Value("${tracking.bot.presence-window-ms:3600000}") long presenceWindowMillis,
+        @Value("${tracking.bot.presence-warmup-ms:1800000}") long presenceWarmupMillis,
+        @Value("${tracking.bot.expected-sessions:500000}") long expectedSessions,
+        @Value("${tracking.bot.sketch-width:32768}") int sketchWidth,
+        @Value("${tracking.bot.sketch-depth:4}") int sketchDepth
+    ) {
+        this.enabled = enabled;
+        this.mode = mode;
+        this.presenceActions = new HashSet<>();
+        Arrays.stream(presenceActions.split(",")).map(String::trim).filter(a -> !a.isEmpty()).forEach(this.presenceActions::add);
+        this.ipMaxEvents = ipMaxEvents;
+        this.sessionMaxEvents = sessionMaxEvents;
+        this.sessionMaxViews = sessionMaxViews;
+        this.ipMaxPresencelessViews = ipMaxPresencelessViews;
+        this.presenceCheckFrom = System.currentTimeMillis() + presenceWarmupMillis;
+
+        this.ipEvents = new SlidingCountMinSketch(sketchWidth, sketchDepth, rateWindowMillis);
+        this.sessionEvents = new SlidingCountMinSketch(sketchWidth, sketchDepth, rateWindowMillis);
+        this.sessionViews = new SlidingCountMinSketch(sketchWidth, sketchDepth, viewWindowMillis);
+        this.ipPresencelessViews = new SlidingCountMinSketch(sketchWidth, sketchDepth, rateWindowMillis);
+        this.presentSessions = new RollingBloomFilter(expectedSessions, 0.001, presenceWindowMillis);
+
+        for (Reason reason : Reason.values()) {
+            suspectedCounters.put(reason, Counter.builder("tracking.bot.suspected")
+                .tag("reason", reason.name())
+                .tag("mode", mode.name())
+                .register(meterRegistry));
+        }
+        if (enabled) {
+            log.info("Tracking bot detection: mode={}, sketches {} KB", mode,
+                (ipEvents.getSizeInBytes() * 4 + presentSessions.getSizeInBytes()) / 1024);
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * 이벤트 하나를 세고 판별한다. 모든 스케치를 먼저 갱신하므로 앞 검사에 걸려도 뒤 카운트는 정확하다.
+     *
+     * @param clientIp 알 수 없으면 null (IP 기준 검사 생략)
+     * @return 의심 사유, 정상이면 null
+     */
+    public Reason inspect(String clientIp, TrackEventRequest request, long nowMillis) {
+        if (!enabled) return null;
+
+        long sessionHash = SlidingWindowRateLimiter.hash(SESSION_SEED, request.getSessionId());
+        long ipHash = clientIp != null ? SlidingWindowRateLimiter.hash(IP_SEED, clientIp) : 0;
+        long ipCount = clientIp != null ? ipEvents.add(ipHash, 1, nowMillis) : 0;
+        long sessionCount = sessionEvents.add(sessionHash, 1, nowMillis);
+
+        boolean view = VIEW.equals(request.getAction());
+        long viewCount = view ? sessionViews.add(sessionHash, 1, nowMillis) : 0;
+        long presencelessCount = 0;
+        String presenceKey = request.getExhibitionId() + ":" + request.getSessionId();
+        if (presenceActions.contains(request.getAction())) {
+            presentSessions.put(presenceKey);
+        } else if (view && clientIp != null && !presentSessions.mightContain(presenceKey)) {
+            presencelessCount = ipPresencelessViews.add(ipHash, 1, nowMillis);
+        }
+
+        Reason reason = null;
+        if (ipCount > ipMaxEvents) {
+            reason = Reason.IP_RATE;
+        } else if (sessionCount > sessionMaxEvents) {
+            reason = Reason.SESSION_RATE;
+        } else if (viewCount > sessionMaxViews) {
+            reason = Reason.VIEW_VELOCITY;
+        } else if (presencelessCount > ipMaxPresencelessViews && nowMillis >= presenceCheckFrom) {
+            reason = Reason.NO_PRESENCE;
+        }
+        if (reason != null) {
+            suspectedCounters.get(reason).increment();
+        }
+        return reason;
+    }
+}
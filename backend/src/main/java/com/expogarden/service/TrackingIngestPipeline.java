@@ -0,0 +1,410 @@
+package com.expogarden.service;
+
+import com.expogarden.domain.VisitEvent;
+import com.expogarden.repository.VisitEventJdbcRepository;
+import com.expogarden.repository.VisitEventRollupRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * /track 이벤트 비동기 수집 파이프라인
+ *
+ * 요청 스레드는 이벤트를 메모리 큐에 넣기만 하고 바로 응답한다.
+ * 백그라운드 writer가 큐를 비우며 batch-size 또는 linger-ms 중 먼저 도달하는 시점에 묶어서 기록한다.
+ * 큐 용량(아직 DB에 기록되지 않은 이벤트 수)은 Semaphore로 제한하며,
+ * 가득 차면 요청 전체를 거부(QueueFullException → 429)해 부분 저장이 생기지 않게 한다.
+ * 원본 기록과 집계 테이블(visit_event_rollups) 증가는 한 트랜잭션으로 묶어 둘이 어긋나지 않게 한다.
+ * 큐 적재/커밋 시점은 VisitEventListener 빈들에 알린다.
+ *
+ * DB가 느리거나 재시작 중이라 큐가 가득 차거나 기록에 실패하면 이벤트를 로컬 디스크(TrackingSpillLog)에 보관하고,
+ * 기록이 다시 성공하고 큐가 여유 있을 때 replay-interval-ms 마다 보관분을 재생한다 (at-least-once).
+ * 디스크 보관도 실패할 때만 기존처럼 429 응답 또는 폐기한다.
+ *
+ * 배치는 여러 클라이언트의 이벤트가 섞이므로, 데이터 오류(SQLState 22xxx/23xxx: 없는 부스/전시 FK, 길이 초과 등)로
+ * 실패하면 배치를 반씩 나눠 다시 기록해 문제 이벤트만 골라 격리 보관(TrackingSpillLog.quarantine)한다.
+ * 디스크 보관/재생은 연결 끊김, 타임아웃 같은 일시적 오류일 때만 한다.
+ */
+@Service
+@Slf4j
+public class TrackingIngestPipeline {
+
+    private final VisitEventJdbcRepository visitEventJdbcRepository;
+    private final VisitEventRollupRepository visitEventRollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TrackingSpillLog trackingSpillLog;
+    private final ObjectProvider<VisitEventListener> listenerProvider;
+    private volatile List<VisitEventListener> listeners;
+
+    private final int queueCapacity;
+    private final int batchSize;
+    private final long lingerMillis;
+    private final int writerThreads;
+
+    private final LinkedBlockingQueue<VisitEvent> queue = new LinkedBlockingQueue<>();
+    private final Semaphore capacity;
+    private ExecutorService writers;
+    private volatile boolean running;
+    // 마지막 기록 실패 시각 (재생 전 DB 상태 판단용)
+    private volatile long lastWriteFailureNanos = System.nanoTime() - TimeUnit.DAYS.toNanos(1);
+    private final long replayIntervalNanos;
+
+    private final Counter acceptedCounter;
+    private final Counter flushedCounter;
+    private final Counter queueFullCounter;
+    private final Counter writeFailedCounter;
+    private final Counter spilledQueueFullCounter;
+    private final Counter spilledWriteFailedCounter;
+    private final Counter replayedCounter;
+    private final Counter quarantinedCounter;
+    private final Counter rejectedCounter;
+    private final Timer flushTimer;
+
+    public TrackingIngestPipeline(
+        VisitEventJdbcRepository visitEventJdbcRepository,
+        VisitEventRollupRepository visitEventRollupRepository,
+        TransactionTemplate transactionTemplate,
+        TrackingSpillLog trackingSpillLog,
+        ObjectProvider<VisitEventListener> listenerProvider,
+        MeterRegistry meterRegistry,
+        @Value("${tracking.ingest.queue-capacity:50000}") int queueCapacity,
+        @Value("${tracking.ingest.batch-size:500}") int batchSize,
+        @Value("${tracking.ingest.linger-ms:200}") long lingerMillis,
+        @Value("${tracking.ingest.writer-threads:2}") int writerThreads,
+        @Value("${tracking.spill.replay-interval-ms:5000}") long replayIntervalMillis
+    ) {
+        this.visitEventJdbcRepository = visitEventJdbcRepository;
+        this.visitEventRollupRepository = visitEventRollupRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.trackingSpillLog = trackingSpillLog;
+        this.listenerProvider = listenerProvider;
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.lingerMillis = lingerMillis;
+        this.writerThreads = writerThreads;
+        this.replayIntervalNanos = TimeUnit.MILLISECONDS.toNanos(replayIntervalMillis);
+        this.capacity = new Semaphore(queueCapacity);
+
+        this.acceptedCounter = Counter.builder("tracking.ingest.accepted").register(meterRegistry);
+        this.flushedCounter = Counter.builder("tracking.ingest.flushed").register(meterRegistry);
+        this.queueFullCounter = Counter.builder("tracking.ingest.dropped").tag("reason", "queue_full").register(meterRegistry);
+        this.writeFailedCounter = Counter.builder("tracking.ingest.dropped").tag("reason", "write_failed").register(meterRegistry);
+        this.spilledQueueFullCounter = Counter.builder("tracking.ingest.spilled").tag("reason", "queue_full").register(meterRegistry);
+        this.spilledWriteFailedCounter = Counter.builder("tracking.ingest.spilled").tag("reason", "write_failed").register(meterRegistry);
+        this.replayedCounter = Counter.builder("tracking.spill.replayed").register(meterRegistry);
+        this.quarantinedCounter = Counter.builder("tracking.ingest.quarantined").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("tracking.ingest.dropped").tag("reason", "rejected").register(meterRegistry);
+        this.flushTimer = Timer.builder("tracking.ingest.flush").register(meterRegistry);
+        Gauge.builder("tracking.ingest.queue.size", this, TrackingIngestPipeline::getPendingCount).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        AtomicInteger sequence = new AtomicInteger();
+        writers = Executors.newFixedThreadPool(writerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "tracking-writer-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < writerThreads; i++) {
+            writers.submit(this::runWriter);
+        }
+        log.info("Tracking ingest pipeline started: capacity={}, batchSize={}, lingerMs={}, writers={}",
+            queueCapacity, batchSize, lingerMillis, writerThreads);
+    }
+
+    /**
+     * 종료 시 큐에 남은 이벤트를 모두 기록한다. 제시간에 끝나지 않으면 남은 이벤트를 디스크에 보관한다.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writers.shutdown();
+        if (!writers.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Tracking writers did not finish in time, {} events pending", queue.size());
+            writers.shutdownNow();
+            List<VisitEvent> remaining = new ArrayList<>();
+            queue.drainTo(remaining);
+            if (!remaining.isEmpty() && trackingSpillLog.spill(remaining)) {
+                log.info("Spilled {} pending tracking events to disk", remaining.size());
+            }
+        }
+    }
+
+    /**
+     * 이벤트를 모두 받거나 하나도 받지 않는다.
+     */
+    public void submit(List<VisitEvent> events) {
+        if (events.isEmpty()) return;
+
+        if (!capacity.tryAcquire(events.size())) {
+            // 큐에 넣지 않았으므로 onAccepted는 알리지 않고, 재생 후 onReplayed로 알린다
+            if (trackingSpillLog.spill(events)) {
+                spilledQueueFullCounter.increment(events.size());
+                return;
+            }
+            queueFullCounter.increment(events.size());
+            throw new QueueFullException();
+        }
+        queue.addAll(events);
+        acceptedCounter.increment(events.size());
+
+        for (VisitEventListener listener : getListeners()) {
+            try {
+                listener.onAccepted(events);
+            } catch (Exception e) {
+                log.warn("Visit event listener {} failed on accept", listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    /**
+     * 큐에 있거나 기록 중인(아직 DB에 반영되지 않은) 이벤트 수
+     */
+    public int getPendingCount() {
+        return queueCapacity - capacity.availablePermits();
+    }
+
+    public double getFillRatio() {
+        return (double) getPendingCount() / queueCapacity;
+    }
+
+    private void runWriter() {
+        List<VisitEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                VisitEvent first = queue.poll(lingerMillis, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+
+                // linger 시간 동안 batch-size까지 모은다
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    if (batch.size() >= batchSize) break;
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0 || !running) break;
+                    VisitEvent next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                if (!batch.isEmpty()) {
+                    capacity.release(batch.size());
+                    batch.clear();
+                }
+            }
+        }
+    }
+
+    private void flush(List<VisitEvent> batch) {
+        long start = System.nanoTime();
+        WriteResult result;
+        try {
+            result = write(batch);
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        flushedCounter.increment(result.written.size());
+        quarantine(result);
+
+        if (!result.unwritten.isEmpty()) {
+            lastWriteFailureNanos = System.nanoTime();
+            if (trackingSpillLog.spill(result.unwritten)) {
+                spilledWriteFailedCounter.increment(result.unwritten.size());
+                log.warn("Failed to write {} tracking events, spilled to disk: {}", result.unwritten.size(),
+                    result.failure.getMessage());
+            } else {
+                writeFailedCounter.increment(result.unwritten.size());
+                log.error("Failed to write {} tracking events", result.unwritten.size(), result.failure);
+            }
+        }
+        notifyListeners(result.written, true);
+        // 재생분은 onReplayed로 다시 알리므로 보관한 이벤트도 일단 빠진 것으로 알린다
+        List<VisitEvent> dropped = new ArrayList<>(result.rejected);
+        dropped.addAll(result.unwritten);
+        notifyListeners(dropped, false);
+    }
+
+    private static final class WriteResult {
+        final List<VisitEvent> written = new ArrayList<>();
+        final List<VisitEvent> rejected = new ArrayList<>();
+        final List<VisitEvent> unwritten = new ArrayList<>();
+        Exception rejectCause;  // 처음 격리한 이벤트의 오류
+        Exception failure;      // 일시적 오류 (이후 이벤트는 시도하지 않음)
+    }
+
+    private WriteResult write(List<VisitEvent> batch) {
+        WriteResult result = new WriteResult();
+        writeIsolating(batch, result);
+        return result;
+    }
+
+    /**
+     * 이벤트 묶음을 한 트랜잭션으로 기록한다. 데이터 오류면 반씩 나눠 다시 시도해(잘못된 이벤트 k개에 약 2k·log2(n)번)
+     * 한 건짜리 묶음까지 실패한 이벤트만 rejected로 남긴다. 일시적 오류면 나머지를 시도하지 않고 unwritten으로 돌린다.
+     */
+    private void writeIsolating(List<VisitEvent> events, WriteResult result) {
+        if (result.failure != null) {
+            result.unwritten.addAll(events);
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                visitEventJdbcRepository.writeBatch(events);
+                visitEventRollupRepository.applyBatch(events);
+            });
+            result.written.addAll(events);
+        } catch (Exception e) {
+            if (!isDataError(e)) {
+                result.failure = e;
+                result.unwritten.addAll(events);
+            } else if (events.size() == 1) {
+                if (result.rejectCause == null) result.rejectCause = e;
+                result.rejected.addAll(events);
+            } else {
+                int middle = events.size() / 2;
+                writeIsolating(events.subList(0, middle), result);
+                writeIsolating(events.subList(middle, events.size()), result);
+            }
+        }
+    }
+
+    // 다시 시도해도 같은 결과인 오류: 무결성 위반(23xxx), 데이터 오류(22xxx: 길이 초과, 잘못된 값), metadata 직렬화 실패
+    private static boolean isDataError(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IllegalArgumentException) return true;
+            if (cause instanceof SQLException sqlException) {
+                for (SQLException next = sqlException; next != null; next = next.getNextException()) {
+                    String state = next.getSQLState();
+                    if (state != null && (state.startsWith("23") || state.startsWith("22"))) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void quarantine(WriteResult result) {
+        if (result.rejected.isEmpty()) return;
+        if (trackingSpillLog.quarantine(result.rejected)) {
+            quarantinedCounter.increment(result.rejected.size());
+            log.warn("Quarantined {} tracking events that cannot be written: {}", result.rejected.size(),
+                result.rejectCause.getMessage());
+        } else {
+            rejectedCounter.increment(result.rejected.size());
+            log.error("Dropped {} tracking events that cannot be written", result.rejected.size(), result.rejectCause);
+        }
+    }
+
+    /**
+     * 디스크에 보관된 이벤트를 재생한다. 최근 replay-interval-ms 안에 기록 실패가 있었거나
+     * 큐가 절반 넘게 차 있으면 DB가 아직 회복되지 않은 것으로 보고 건너뛴다.
+     */
+    @Scheduled(fixedDelayString = "${tracking.spill.replay-interval-ms:5000}")
+    public void replaySpilled() {
+        if (!running || trackingSpillLog.isEmpty()) return;
+        if (System.nanoTime() - lastWriteFailureNanos < replayIntervalNanos || getFillRatio() > 0.5) return;
+
+        try {
+            int batches = trackingSpillLog.replay(this::writeReplayed);
+            if (batches > 0) {
+                log.info("Replayed {} spilled tracking batches, {} bytes remaining", batches,
+                    trackingSpillLog.sizeInBytes());
+            }
+        } catch (IOException e) {
+            log.error("Failed to read tracking spill log", e);
+        }
+    }
+
+    private boolean writeReplayed(List<VisitEvent> batch) {
+        // 큐가 다시 차면 실시간 수집을 먼저 처리하도록 중단
+        if (!running || getFillRatio() > 0.5) return false;
+        WriteResult result = write(batch);
+        if (result.written.isEmpty() && result.rejected.isEmpty()) {
+            lastWriteFailureNanos = System.nanoTime();
+            log.warn("Replay of {} spilled tracking events failed, will retry: {}", batch.size(),
+                result.failure.getMessage());
+            return false;
+        }
+        quarantine(result);
+
+        boolean consumed = true;
+        if (!result.unwritten.isEmpty()) {
+            // 일부만 기록됐으면 남은 이벤트만 다시 보관하고 이 배치는 처리한 것으로 본다
+            // (다시 보관하지 못하면 배치 전체를 다음에 재시도 → 기록된 이벤트가 중복될 수 있음)
+            lastWriteFailureNanos = System.nanoTime();
+            consumed = trackingSpillLog.spill(result.unwritten);
+            log.warn("Replay of {} spilled tracking events stopped after {}: {}", batch.size(),
+                result.written.size(), result.failure.getMessage());
+        }
+        replayedCounter.increment(result.written.size());
+        if (!result.written.isEmpty()) {
+            for (VisitEventListener listener : getListeners()) {
+                try {
+                    listener.onReplayed(result.written);
+                } catch (Exception e) {
+                    log.warn("Visit event listener {} failed on replay", listener.getClass().getSimpleName(), e);
+                }
+            }
+        }
+        return consumed;
+    }
+
+    private void notifyListeners(List<VisitEvent> batch, boolean flushed) {
+        if (batch.isEmpty()) return;
+        for (VisitEventListener listener : getListeners()) {
+            try {
+                if (flushed) {
+                    listener.onFlushed(batch);
+                } else {
+                    listener.onDropped(batch);
+                }
+            } catch (Exception e) {
+                log.warn("Visit event listener {} failed on {}", listener.getClass().getSimpleName(),
+                    flushed ? "flush" : "drop", e);
+            }
+        }
+    }
+
+    // 구독자가 파이프라인을 주입받아도 순환 참조가 생기지 않도록 처음 사용할 때 조회
+    private List<VisitEventListener> getListeners() {
+        List<VisitEventListener> resolved = listeners;
+        if (resolved == null) {
+            resolved = listenerProvider.orderedStream().toList();
+            listeners = resolved;
+        }
+        return resolved;
+    }
+
+    public static class QueueFullException extends RuntimeException {
+        public QueueFullException() {
+            super("Tracking queue is full");
+        }
+    }
+}
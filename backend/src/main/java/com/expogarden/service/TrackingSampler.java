@@ -0,0 +1,140 @@
+package com.expogarden.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 액션별 수집 이벤트 표본 추출 (1-in-N)
+ *
+ * 정책에 있는 액션만 N개 중 하나를 무작위로 남기고, 남긴 이벤트는 weight = N으로 저장한다.
+ * 집계(visit_event_rollups, 실시간 카운터, 인기 부스)는 weight를 더하므로 기대값이 전수 저장과 같다.
+ * 수집 큐 사용률이 pressure-threshold를 넘으면 정책에 있는 액션의 N에 2 / 4 / 8배를 곱해 쓰기 부하를 줄인다.
+ * 정책에 없는 액션(VIEW 등)은 압력과 무관하게 항상 전수 저장한다.
+ *
+ * 정책은 tracking.sampling.rates (예: HOVER:10,SCROLL:20)로 시작하고 PUT /track/sampling으로 실행 중에 바꿀 수 있다.
+ * 실행 중 변경은 재시작하면 설정값으로 돌아간다.
+ */
+@Service
+@Slf4j
+public class TrackingSampler {
+
+    private static final int MAX_PRESSURE_SHIFT = 3;
+
+    private final TrackingIngestPipeline trackingIngestPipeline;
+    private final Counter sampledOutCounter;
+    private final double pressureThreshold;
+    private final int maxRate;
+    private volatile Map<String, Integer> rates;
+
+    public TrackingSampler(
+        TrackingIngestPipeline trackingIngestPipeline,
+        MeterRegistry meterRegistry,
+        @Value("${tracking.sampling.rates:}") String rates,
+        @Value("${tracking.sampling.pressure-threshold:0.5}") double pressureThreshold,
+        @Value("${tracking.sampling.max-rate:1000}") int maxRate
+    ) {
+        this.trackingIngestPipeline = trackingIngestPipeline;
+        this.sampledOutCounter = Counter.builder("tracking.ingest.sampled_out").register(meterRegistry);
+        this.pressureThreshold = pressureThreshold;
+        this.maxRate = maxRate;
+        this.rates = parseRates(rates);
+        if (!this.rates.isEmpty()) {
+            log.info("Tracking sampling rates: {}", this.rates);
+        }
+    }
+
+    /**
+     * 이벤트를 남길지 정한다.
+     *
+     * @return 남기면 저장할 weight(1 이상), 버리면 0
+     */
+    public int sample(String action) {
+        Integer rate = rates.get(action);
+        if (rate == null) return 1;
+        int effective = effectiveRate(rate, pressureMultiplier());
+        if (effective <= 1 || ThreadLocalRandom.current().nextInt(effective) == 0) {
+            return effective;
+        }
+        sampledOutCounter.increment();
+        return 0;
+    }
+
+    public Map<String, Integer> getRates() {
+        return rates;
+    }
+
+    public void setRates(Map<String, Integer> rates) {
+        Map<String, Integer> validated = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : rates.entrySet()) {
+            validated.put(validateAction(entry.getKey()), validateRate(entry.getValue()));
+        }
+        this.rates = Collections.unmodifiableMap(validated);
+        log.info("Tracking sampling rates changed: {}", this.rates);
+    }
+
+    /**
+     * 큐 사용률이 임계치 미만이면 1, 이상이면 남은 구간을 셋으로 나눠 2 / 4 / 8
+     */
+    public int pressureMultiplier() {
+        double fill = trackingIngestPipeline.getFillRatio();
+        if (fill < pressureThreshold) return 1;
+        double step = (1 - pressureThreshold) / MAX_PRESSURE_SHIFT;
+        int shift = step > 0 ? 1 + (int) ((fill - pressureThreshold) / step) : MAX_PRESSURE_SHIFT;
+        return 1 << Math.min(shift, MAX_PRESSURE_SHIFT);
+    }
+
+    public double getFillRatio() {
+        return trackingIngestPipeline.getFillRatio();
+    }
+
+    public Map<String, Integer> getEffectiveRates() {
+        int multiplier = pressureMultiplier();
+        Map<String, Integer> effective = new LinkedHashMap<>();
+        rates.forEach((action, rate) -> effective.put(action, effectiveRate(rate, multiplier)));
+        return effective;
+    }
+
+    private int effectiveRate(int rate, int multiplier) {
+        return (int) Math.min((long) rate * multiplier, maxRate);
+    }
+
+    private Map<String, Integer> parseRates(String value) {
+        Map<String, Integer> parsed = new LinkedHashMap<>();
+        if (value == null || value.isBlank()) return Collections.unmodifiableMap(parsed);
+        for (String entry : value.split(",")) {
+            if (entry.isBlank()) continue;
+            String[] parts = entry.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid tracking.sampling.rates entry: " + entry.trim());
+            }
+            try {
+                parsed.put(validateAction(parts[0].trim()), validateRate(Integer.parseInt(parts[1].trim())));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid tracking.sampling.rates entry: " + entry.trim());
+            }
+        }
+        return Collections.unmodifiableMap(parsed);
+    }
+
+    private static String validateAction(String action) {
+        if (action == null || action.isBlank()) {
+            throw new IllegalArgumentException("Action must not be blank");
+        }
+        return action;
+    }
+
+    private int validateRate(Integer rate) {
+        if (rate == null || rate < 1 || rate > maxRate) {
+            throw new IllegalArgumentException("Sampling rate must be between 1 and " + maxRate);
+        }
+        return rate;
+    }
+}
@@ -2,39 +2,153 @@ package com.expogarden.service;
 
 import com.expogarden.domain.VisitEvent;
 import com.expogarden.dto.TrackEventRequest;
-import com.expogarden.repository.VisitEventRepository;
 import com.expogarden.security.UserPrincipal;
-import lombok.RequiredArgsConstructor;
+import com.expogarden.util.RollingBloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+/**
+ * 없는 전시/부스를 가리키는 이벤트는 TrackingTargetRegistry로 걸러 큐에 넣지 않는다 (rejected).
+ *
+ * clientEventId가 있는 이벤트는 최근 본 ID를 기억하는 Bloom 필터로 중복을 걸러, 재전송된 이벤트가
+ * 큐나 DB에 닿지 않게 한다. 필터는 오탐만 있으므로 처음 보는 이벤트가 드물게(약 tracking.dedupe.false-positive-rate)
+ * 중복으로 버려질 수 있고, tracking.dedupe.window-ms보다 늦게 재전송된 이벤트는 거르지 못할 수 있다.
+ *
+ * 중복이 아닌 이벤트는 TrackingBotDetector로 스크립트 트래픽을 걸러(DROP) 내거나 표시(FLAG)한 뒤,
+ * TrackingSampler의 액션별 정책에 따라 표본 추출하고, 남긴 이벤트에 weight를 붙인다.
+ * 봇 판별은 표본 추출 전에 하므로 표본에서 빠질 이벤트도 빈도에 포함된다.
+ */
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class TrackingService {
     
-    private final VisitEventRepository visitEventRepository;
+    public record TrackResult(int recorded, int duplicates, int sampledOut, int rejected) {
+    }
     
-    @Transactional
-    public void trackEvent(TrackEventRequest request, UserPrincipal principal) {
-        VisitEvent event = VisitEvent.builder()
-            .exhibitionId(request.getExhibitionId())
-            .boothId(request.getBoothId())
-            .userId(principal != null ? principal.getId() : null)
-            .sessionId(request.getSessionId())
-            .action(request.getAction())
-            .metadata(request.getMetadata())
-            .build();
-        
-        visitEventRepository.save(event);
+    private final TrackingIngestPipeline trackingIngestPipeline;
+    private final TrackingSampler trackingSampler;
+    private final TrackingBotDetector trackingBotDetector;
+    private final TrackingTargetRegistry trackingTargetRegistry;
+    private final RollingBloomFilter recentEventIds;  // 비활성화면 null
+    private final Counter duplicateCounter;
+    private final Counter rejectedCounter;
+    
+    public TrackingService(
+        TrackingIngestPipeline trackingIngestPipeline,
+        TrackingSampler trackingSampler,
+        TrackingBotDetector trackingBotDetector,
+        TrackingTargetRegistry trackingTargetRegistry,
+        MeterRegistry meterRegistry,
+        @Value("${tracking.dedupe.enabled:true}") boolean dedupeEnabled,
+        @Value("${tracking.dedupe.expected-per-window:1000000}") long expectedPerWindow,
+        @Value("${tracking.dedupe.false-positive-rate:0.001}") double falsePositiveRate,
+        @Value("${tracking.dedupe.window-ms:600000}") long windowMillis
+    ) {
+        this.trackingIngestPipeline = trackingIngestPipeline;
+        this.trackingSampler = trackingSampler;
+        this.trackingBotDetector = trackingBotDetector;
+        this.trackingTargetRegistry = trackingTargetRegistry;
+        this.recentEventIds = dedupeEnabled
+            ? new RollingBloomFilter(expectedPerWindow, falsePositiveRate, windowMillis)
+            : null;
+        this.duplicateCounter = Counter.builder("tracking.ingest.duplicates").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("tracking.ingest.unknown_target").register(meterRegistry);
+        if (recentEventIds != null) {
+            log.info("Tracking dedupe filter: {} KB, {} hashes", recentEventIds.getSizeInBytes() / 1024,
+                recentEventIds.getHashCount());
+        }
     }
     
-    @Transactional
-    public void trackEvents(List<TrackEventRequest> requests, UserPrincipal principal) {
+    /**
+     * 이벤트를 수집 큐에 넣는다. DB 기록은 TrackingIngestPipeline이 비동기로 처리한다.
+     * 큐가 가득 차면 TrackingIngestPipeline.QueueFullException을 던진다.
+     *
+     * @param clientIp 봇 판별용 클라이언트 IP (알 수 없으면 null)
+     */
+    public TrackResult trackEvent(TrackEventRequest request, UserPrincipal principal, String clientIp) {
+        return trackEvents(List.of(request), principal, clientIp);
+    }
+    
+    public TrackResult trackEvents(List<TrackEventRequest> requests, UserPrincipal principal, String clientIp) {
+        Instant now = Instant.now();
+        Long userId = principal != null ? principal.getId() : null;
+        
+        List<VisitEvent> events = new ArrayList<>(requests.size());
+        List<String> dedupeKeys = new ArrayList<>();
+        Set<String> seenInRequest = new HashSet<>();
+        int duplicates = 0;
+        int sampledOut = 0;
+        int rejected = 0;
         for (TrackEventRequest request : requests) {
-            trackEvent(request, principal);
+            if (!trackingTargetRegistry.isValidTarget(request.getExhibitionId(), request.getBoothId())) {
+                rejected++;
+                continue;
+            }
+            String dedupeKey = dedupeKey(request);
+            if (dedupeKey != null) {
+                if (!seenInRequest.add(dedupeKey) || recentEventIds.mightContain(dedupeKey)) {
+                    duplicates++;
+                    continue;
+                }
+            }
+            Map<String, Object> metadata = request.getMetadata();
+            TrackingBotDetector.Reason suspect = trackingBotDetector.inspect(clientIp, request, now.toEpochMilli());
+            if (suspect != null) {
+                // 판별 기준을 역추적하지 못하도록 응답에 사유나 건수를 따로 알리지 않는다
+                // 버린 이벤트의 clientEventId는 기억하지 않아 오탐이었을 때 재전송이 중복으로 버려지지 않는다
+                if (trackingBotDetector.getMode() == TrackingBotDetector.Mode.DROP) continue;
+                metadata = metadata != null ? new HashMap<>(metadata) : new HashMap<>();
+                metadata.put("botSuspect", suspect.name());
+            }
+            if (dedupeKey != null) {
+                dedupeKeys.add(dedupeKey);
+            }
+            // 표본에서 빠진 이벤트도 받은 것으로 보고 clientEventId는 기억한다
+            int weight = trackingSampler.sample(request.getAction());
+            if (weight == 0) {
+                sampledOut++;
+                continue;
+            }
+            events.add(VisitEvent.builder()
+                .exhibitionId(request.getExhibitionId())
+                .boothId(request.getBoothId())
+                .userId(userId)
+                .sessionId(request.getSessionId())
+                .action(request.getAction())
+                .metadata(metadata)
+                .createdAt(now)
+                .weight(weight)
+                .build());
         }
+        
+        if (!events.isEmpty()) {
+            trackingIngestPipeline.submit(events);
+        }
+        // 큐에 들어간 뒤에 기억해야 429 응답 후 재전송이 중복으로 버려지지 않는다
+        for (String dedupeKey : dedupeKeys) {
+            recentEventIds.put(dedupeKey);
+        }
+        duplicateCounter.increment(duplicates);
+        rejectedCounter.increment(rejected);
+        return new TrackResult(events.size(), duplicates, sampledOut, rejected);
+    }
+    
+    // 클라이언트마다 ID 생성 방식이 달라도 충돌하지 않도록 세션으로 범위를 나눈다
+    private String dedupeKey(TrackEventRequest request) {
+        if (recentEventIds == null || request.getClientEventId() == null || request.getClientEventId().isBlank()) {
+            return null;
+        }
+        return request.getSessionId() + '\u0000' + request.getClientEventId();
     }
 }
-
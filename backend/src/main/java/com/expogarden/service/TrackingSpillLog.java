@@ -0,0 +1,204 @@
+package com.expogarden.service;
+
+import com.expogarden.domain.VisitEvent;
+import com.expogarden.util.SegmentLog;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * DB에 기록하지 못한 수집 이벤트의 로컬 디스크 보관소
+ *
+ * 배치 하나를 JSON 레코드 하나로 SegmentLog(길이 + CRC32C, 세그먼트 파일)에 추가한다.
+ * fsync 정책(tracking.spill.fsync)은 ALWAYS / INTERVAL / NEVER 중 선택하며, INTERVAL이면 fsync-interval-ms 마다 내린다.
+ * 보관량이 max-bytes를 넘으면 더 받지 않고 호출 측이 기존처럼 거부/폐기한다.
+ * 재생(replay)은 TrackingIngestPipeline이 DB가 정상일 때 호출한다.
+ *
+ * 다시 시도해도 기록할 수 없는 이벤트(없는 부스 ID 등)는 재생 대상과 분리해 quarantine-dir에 같은 포맷으로 남긴다.
+ * 격리분은 자동으로 재생하지 않으므로 원인을 확인한 뒤 운영자가 처리한다.
+ */
+@Service
+@Slf4j
+public class TrackingSpillLog {
+
+    // 디스크 포맷 (VisitEvent 엔티티 변경과 분리)
+    record SpilledEvent(Long exhibitionId, Long boothId, Long userId, String sessionId, String action,
+                        Map<String, Object> metadata, Instant createdAt, Integer weight) {
+    }
+
+    private static final TypeReference<List<SpilledEvent>> BATCH_TYPE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+    private final SegmentLog segmentLog;  // 비활성화되었거나 열지 못했으면 null
+    private final SegmentLog quarantineLog;  // 비활성화되었거나 열지 못했으면 null
+
+    public TrackingSpillLog(
+        ObjectMapper objectMapper,
+        MeterRegistry meterRegistry,
+        @Value("${tracking.spill.enabled:true}") boolean enabled,
+        @Value("${tracking.spill.dir:data/tracking-spill}") String directory,
+        @Value("${tracking.spill.segment-bytes:67108864}") long segmentBytes,
+        @Value("${tracking.spill.max-bytes:1073741824}") long maxBytes,
+        @Value("${tracking.spill.fsync:INTERVAL}") SegmentLog.FsyncPolicy fsyncPolicy,
+        @Value("${tracking.spill.fsync-interval-ms:1000}") long fsyncIntervalMillis,
+        @Value("${tracking.spill.quarantine-dir:data/tracking-quarantine}") String quarantineDirectory,
+        @Value("${tracking.spill.quarantine-max-bytes:104857600}") long quarantineMaxBytes
+    ) {
+        this.objectMapper = objectMapper;
+        SegmentLog opened = null;
+        if (enabled) {
+            try {
+                opened = new SegmentLog(Path.of(directory), segmentBytes, maxBytes, fsyncPolicy, fsyncIntervalMillis);
+                if (!opened.isEmpty()) {
+                    log.info("Tracking spill log has {} bytes to replay", opened.sizeInBytes());
+                }
+            } catch (IOException e) {
+                log.error("Could not open tracking spill log at {}, spilling disabled", directory, e);
+            }
+        }
+        this.segmentLog = opened;
+
+        SegmentLog quarantine = null;
+        if (enabled) {
+            try {
+                quarantine = new SegmentLog(Path.of(quarantineDirectory), segmentBytes, quarantineMaxBytes,
+                    fsyncPolicy, fsyncIntervalMillis);
+                if (!quarantine.isEmpty()) {
+                    log.warn("Tracking quarantine at {} holds {} bytes of unwritable events", quarantineDirectory,
+                        quarantine.sizeInBytes());
+                }
+            } catch (IOException e) {
+                log.error("Could not open tracking quarantine at {}, unwritable events will be dropped",
+                    quarantineDirectory, e);
+            }
+        }
+        this.quarantineLog = quarantine;
+        Gauge.builder("tracking.spill.bytes", this, TrackingSpillLog::sizeInBytes).register(meterRegistry);
+        Gauge.builder("tracking.quarantine.bytes", this,
+            spillLog -> spillLog.quarantineLog != null ? spillLog.quarantineLog.sizeInBytes() : 0).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return segmentLog != null;
+    }
+
+    public boolean isEmpty() {
+        return segmentLog == null || segmentLog.isEmpty();
+    }
+
+    public long sizeInBytes() {
+        return segmentLog != null ? segmentLog.sizeInBytes() : 0;
+    }
+
+    /**
+     * @return 디스크에 보관했으면 true (비활성화, 용량 초과, I/O 오류면 false)
+     */
+    public boolean spill(List<VisitEvent> events) {
+        return append(segmentLog, events, "spill");
+    }
+
+    /**
+     * 재생하지 않을 이벤트를 격리 보관한다.
+     *
+     * @return 보관했으면 true (비활성화, 용량 초과, I/O 오류면 false)
+     */
+    public boolean quarantine(List<VisitEvent> events) {
+        return append(quarantineLog, events, "quarantine");
+    }
+
+    private boolean append(SegmentLog target, List<VisitEvent> events, String purpose) {
+        if (target == null) return false;
+        try {
+            List<SpilledEvent> records = new ArrayList<>(events.size());
+            for (VisitEvent event : events) {
+                records.add(new SpilledEvent(event.getExhibitionId(), event.getBoothId(), event.getUserId(),
+                    event.getSessionId(), event.getAction(), event.getMetadata(), event.getCreatedAt(),
+                    event.getWeight()));
+            }
+            return target.append(objectMapper.writeValueAsBytes(records));
+        } catch (IOException e) {
+            log.error("Failed to {} {} tracking events", purpose, events.size(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 보관된 배치를 오래된 순서로 writer에 넘긴다. writer가 false를 반환하면 그 배치부터 다음 재생 때 다시 시도한다.
+     * 쓰고 있는 세그먼트도 닫아서 함께 재생한다.
+     *
+     * @return 재생한 배치 수
+     */
+    public int replay(Predicate<List<VisitEvent>> writer) throws IOException {
+        if (segmentLog == null || segmentLog.isEmpty()) return 0;
+        segmentLog.seal();
+        SegmentLog.ReadResult result = segmentLog.readSealed(payload -> {
+            List<VisitEvent> events;
+            try {
+                events = toEvents(payload);
+            } catch (IOException e) {
+                // 체크섬은 맞지만 읽을 수 없는 레코드 (포맷 변경 등): 계속 막히지 않도록 건너뜀
+                log.error("Skipping unreadable spilled tracking batch ({} bytes)", payload.length, e);
+                return true;
+            }
+            return writer.test(events);
+        });
+        if (result.corrupted()) {
+            log.error("Tracking spill segment is corrupted after {} batches, moved aside as *.corrupt", result.records());
+        }
+        return result.records();
+    }
+
+    private List<VisitEvent> toEvents(byte[] payload) throws IOException {
+        List<SpilledEvent> records = objectMapper.readValue(payload, BATCH_TYPE);
+        List<VisitEvent> events = new ArrayList<>(records.size());
+        for (SpilledEvent record : records) {
+            events.add(VisitEvent.builder()
+                .exhibitionId(record.exhibitionId())
+                .boothId(record.boothId())
+                .userId(record.userId())
+                .sessionId(record.sessionId())
+                .action(record.action())
+                .metadata(record.metadata())
+                .createdAt(record.createdAt())
+                // weight가 없는 이전 포맷 레코드는 전수 저장분
+                .weight(record.weight() != null ? record.weight() : 1)
+                .build());
+        }
+        return events;
+    }
+
+    @Scheduled(fixedDelayString = "${tracking.spill.fsync-interval-ms:1000}")
+    public void sync() {
+        try {
+            if (segmentLog != null) segmentLog.sync();
+            if (quarantineLog != null) quarantineLog.sync();
+        } catch (IOException e) {
+            log.warn("Failed to fsync tracking spill log", e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (segmentLog != null) {
+            segmentLog.close();
+        }
+        if (quarantineLog != null) {
+            quarantineLog.close();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.expogarden.service;
+
+import com.expogarden.domain.Exhibition;
+import com.expogarden.domain.ExhibitionStatus;
+import com.expogarden.repository.BoothRepository;
+import com.expogarden.repository.ExhibitionRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 트래킹 이벤트가 가리킬 수 있는 전시/부스 ID (메모리 캐시)
+ *
+ * /track은 인증 없이 받으므로 클라이언트가 보낸 ID를 그대로 큐나 메모리 집계에 넣지 않도록
+ * 존재하는 전시와 삭제되지 않은 부스(부스는 그 전시 소속인지까지)만 통과시킨다.
+ * 목록은 refresh-interval-ms 마다 통째로 다시 읽으므로 새로 만든 부스/전시는 그만큼 늦게 반영된다.
+ * 아직 한 번도 읽지 못했으면(기동 직후 DB 장애 등) 모두 통과시키고 기록 단계의 격리에 맡긴다.
+ */
+@Service
+@Slf4j
+public class TrackingTargetRegistry {
+
+    private record Targets(Map<Long, ExhibitionStatus> exhibitions, Map<Long, Long> boothExhibitions) {
+    }
+
+    private final ExhibitionRepository exhibitionRepository;
+    private final BoothRepository boothRepository;
+
+    private volatile Targets targets;  // 아직 읽지 못했으면 null
+
+    public TrackingTargetRegistry(ExhibitionRepository exhibitionRepository, BoothRepository boothRepository) {
+        this.exhibitionRepository = exhibitionRepository;
+        this.boothRepository = boothRepository;
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${tracking.targets.refresh-interval-ms:60000}",
+        initialDelayString = "${tracking.targets.refresh-interval-ms:60000}")
+    public void refresh() {
+        try {
+            Map<Long, ExhibitionStatus> exhibitions = new HashMap<>();
+            for (Exhibition exhibition : exhibitionRepository.findAll()) {
+                exhibitions.put(exhibition.getId(), exhibition.getStatus());
+            }
+            Map<Long, Long> boothExhibitions = new HashMap<>();
+            for (Object[] row : boothRepository.findNotDeletedExhibitionIds()) {
+                boothExhibitions.put((Long) row[0], (Long) row[1]);
+            }
+            targets = new Targets(exhibitions, boothExhibitions);
+        } catch (Exception e) {
+            log.error("Failed to refresh tracking targets, keeping previous list", e);
+        }
+    }
+
+    /**
+     * 존재하는 전시이고, 부스가 있으면 그 전시의 삭제되지 않은 부스인지
+     */
+    public boolean isValidTarget(Long exhibitionId, Long boothId) {
+        Targets current = targets;
+        if (current == null) return true;
+        if (!current.exhibitions().containsKey(exhibitionId)) return false;
+        return boothId == null || exhibitionId.equals(current.boothExhibitions().get(boothId));
+    }
+
+    /**
+     * 공개(PUBLISHED) 전시인지 (목록을 아직 읽지 못했으면 true)
+     */
+    public boolean isPublishedExhibition(Long exhibitionId) {
+        Targets current = targets;
+        return current == null || current.exhibitions().get(exhibitionId) == ExhibitionStatus.PUBLISHED;
+    }
+}
@@ -0,0 +1,319 @@
+package com.expogarden.service;
+
+import com.expogarden.domain.RollupGranularity;
+import com.expogarden.domain.VisitEvent;
+import com.expogarden.repository.VisitSketchRepository;
+import com.expogarden.repository.VisitSketchRepository.Scope;
+import com.expogarden.repository.VisitSketchRepository.SketchRow;
+import com.expogarden.util.HyperLogLog;
+import com.expogarden.util.PendingDeltas;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * HyperLogLog 기반 고유 방문자(session_id) 수
+ *
+ * 커밋된 이벤트를 부스/전시 × 시간/일 버킷별 스케치에 반영해 메모리에 모아 두고,
+ * persist-interval-ms 마다 visit_sketches에 병합 저장한다.
+ * 조회는 범위에 걸친 스케치를 합친 뒤 추정하므로 비용이 이벤트 수가 아닌 스케치 수에 비례한다.
+ * 오차는 stats.hll.precision(p)에 따라 약 1.04 / sqrt(2^p) (기본 12 → ±1.6%).
+ */
+@Service
+@Slf4j
+public class UniqueVisitorService implements VisitEventListener {
+
+    private static final RollupGranularity[] SKETCH_GRANULARITIES = {RollupGranularity.HOUR, RollupGranularity.DAY};
+    private static final int BACKFILL_FETCH_SIZE = 10000;
+    private static final int BACKFILL_MAX_PENDING = 2000;
+
+    record SketchKey(Scope scope, long scopeId, RollupGranularity granularity, LocalDateTime bucketStart) {
+    }
+
+    private static final Comparator<SketchKey> KEY_ORDER = Comparator
+        .comparing(SketchKey::scope)
+        .thenComparingLong(SketchKey::scopeId)
+        .thenComparing(SketchKey::granularity)
+        .thenComparing(SketchKey::bucketStart);
+
+    private final VisitSketchRepository visitSketchRepository;
+    private final PartitionMaintenanceService partitionMaintenanceService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate persistTransactionTemplate;
+    private final JdbcTemplate backfillJdbcTemplate;
+    private final int precision;
+    private final boolean backfillOnStartup;
+
+    // 아직 DB에 병합되지 않은 스케치
+    private final PendingDeltas<SketchKey, HyperLogLog> pending = new PendingDeltas<>(VisitSketchRepository::union, KEY_ORDER);
+
+    public UniqueVisitorService(
+        VisitSketchRepository visitSketchRepository,
+        PartitionMaintenanceService partitionMaintenanceService,
+        TransactionTemplate transactionTemplate,
+        JdbcTemplate jdbcTemplate,
+        @Value("${stats.hll.precision:12}") int precision,
+        @Value("${stats.hll.backfill-on-startup:true}") boolean backfillOnStartup
+    ) {
+        if (precision < HyperLogLog.MIN_PRECISION || precision > HyperLogLog.MAX_PRECISION) {
+            throw new IllegalArgumentException("stats.hll.precision must be between "
+                + HyperLogLog.MIN_PRECISION + " and " + HyperLogLog.MAX_PRECISION);
+        }
+        this.visitSketchRepository = visitSketchRepository;
+        this.partitionMaintenanceService = partitionMaintenanceService;
+        this.transactionTemplate = transactionTemplate;
+        // 백필처럼 바깥 트랜잭션이 있어도 스케치 행 잠금은 짧게 유지
+        this.persistTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.persistTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.backfillJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.backfillJdbcTemplate.setFetchSize(BACKFILL_FETCH_SIZE);
+        this.precision = precision;
+        this.backfillOnStartup = backfillOnStartup;
+    }
+
+    public double getStandardError() {
+        return HyperLogLog.standardError(precision);
+    }
+
+    @Override
+    public void onFlushed(List<VisitEvent> events) {
+        offer(events, (key, hash) -> pending.update(key, () -> new HyperLogLog(precision), sketch -> sketch.offerHash(hash)));
+    }
+
+    private void offer(List<VisitEvent> events, ObjLongConsumer<SketchKey> target) {
+        ZoneId zone = ZoneId.systemDefault();
+        for (VisitEvent event : events) {
+            long hash = HyperLogLog.hash(event.getSessionId());
+            LocalDateTime createdAt = LocalDateTime.ofInstant(event.getCreatedAt(), zone);
+            for (RollupGranularity granularity : SKETCH_GRANULARITIES) {
+                LocalDateTime bucket = granularity.truncate(createdAt);
+                target.accept(new SketchKey(Scope.EXHIBITION, event.getExhibitionId(), granularity, bucket), hash);
+                if (event.getBoothId() != null) {
+                    target.accept(new SketchKey(Scope.BOOTH, event.getBoothId(), granularity, bucket), hash);
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stats.hll.persist-interval-ms:5000}")
+    public void persistPending() {
+        try {
+            pending.persist(this::persist);
+        } catch (Exception e) {
+            log.error("Failed to persist visitor sketches, will retry", e);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        persistPending();
+    }
+
+    // sketches는 KEY_ORDER 순이어야 한다
+    private void persist(List<Map.Entry<SketchKey, HyperLogLog>> sketches) {
+        persistTransactionTemplate.executeWithoutResult(status -> {
+            for (Map.Entry<SketchKey, HyperLogLog> entry : sketches) {
+                SketchKey key = entry.getKey();
+                visitSketchRepository.merge(key.scope(), key.scopeId(), key.granularity(), key.bucketStart(),
+                    entry.getValue());
+            }
+        });
+    }
+
+    private void persistBatch(Map<SketchKey, HyperLogLog> batch) {
+        List<Map.Entry<SketchKey, HyperLogLog>> sorted = new ArrayList<>(batch.entrySet());
+        sorted.sort(Map.Entry.comparingByKey(KEY_ORDER));
+        persist(sorted);
+    }
+
+    /**
+     * 스케치가 하나도 없고 원본 이벤트가 있으면 원본에서 스케치를 만든다 (V18 이전 데이터).
+     * 병합이 멱등이라 백필 중에 새로 들어온 이벤트와 겹쳐도 결과가 부풀지 않는다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (!backfillOnStartup) return;
+        try {
+            if (!visitSketchRepository.isEmpty()) return;
+
+            long started = System.currentTimeMillis();
+            Map<SketchKey, HyperLogLog> batch = new HashMap<>();
+            List<VisitEvent> single = new ArrayList<>(1);
+            long[] rows = {0};
+            // 월 파티션 단위로 나눠 읽어 한 번에 하나의 파티션만 스캔하고 커서 트랜잭션을 짧게 유지
+            for (String partition : partitionMaintenanceService.listPartitions("visit_events")) {
+                YearMonth month = PartitionMaintenanceService.parseMonth("visit_events", partition);
+                if (month == null) continue;
+                // PostgreSQL은 트랜잭션 안에서만 fetchSize 단위 커서로 읽는다
+                transactionTemplate.executeWithoutResult(status -> backfillJdbcTemplate.query("""
+                    SELECT exhibition_id, booth_id, session_id, created_at FROM visit_events
+                    WHERE created_at >= ? AND created_at < ?
+                    """,
+                    rs -> {
+                        long boothId = rs.getLong(2);
+                        single.clear();
+                        single.add(VisitEvent.builder()
+                            .exhibitionId(rs.getLong(1))
+                            .boothId(rs.wasNull() ? null : boothId)
+                            .sessionId(rs.getString(3))
+                            .createdAt(rs.getTimestamp(4).toInstant())
+                            .build());
+                        offer(single, (key, hash) ->
+                            batch.computeIfAbsent(key, k -> new HyperLogLog(precision)).offerHash(hash));
+                        rows[0]++;
+                        // 메모리를 일정하게 유지하도록 일정 개수마다 중간 병합
+                        if (batch.size() >= BACKFILL_MAX_PENDING) {
+                            persistBatch(batch);
+                            batch.clear();
+                        }
+                    },
+                    Timestamp.valueOf(month.atDay(1).atStartOfDay()),
+                    Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay())));
+            }
+            persistBatch(batch);
+
+            if (rows[0] > 0) {
+                log.info("Backfilled visitor sketches from {} events in {} ms", rows[0],
+                    System.currentTimeMillis() - started);
+            }
+        } catch (Exception e) {
+            log.error("Visitor sketch backfill failed", e);
+        }
+    }
+
+    public long countByExhibition(Long exhibitionId) {
+        return countAll(Scope.EXHIBITION, List.of(exhibitionId)).getOrDefault(exhibitionId, 0L);
+    }
+
+    public long countByBooth(Long boothId) {
+        return countAll(Scope.BOOTH, List.of(boothId)).getOrDefault(boothId, 0L);
+    }
+
+    public Map<Long, Long> countByBooths(Collection<Long> boothIds) {
+        return countAll(Scope.BOOTH, boothIds);
+    }
+
+    /**
+     * 전체 기간 고유 방문자 수 (일 단위 스케치 병합)
+     */
+    public Map<Long, Long> countAll(Scope scope, Collection<Long> scopeIds) {
+        return estimate(collect(scope, scopeIds, RollupGranularity.DAY, null, null));
+    }
+
+    /**
+     * [from, to) 구간 고유 방문자 수. 시간 단위로 올림/내림하며,
+     * 하루 전체가 들어가는 구간은 일 단위 스케치, 양 끝은 시간 단위 스케치를 사용한다.
+     */
+    public long count(Scope scope, long scopeId, Instant from, Instant to) {
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDateTime start = RollupGranularity.HOUR.truncate(LocalDateTime.ofInstant(from, zone));
+        LocalDateTime end = ceil(RollupGranularity.HOUR, LocalDateTime.ofInstant(to, zone));
+        LocalDateTime dayStart = ceil(RollupGranularity.DAY, start);
+        LocalDateTime dayEnd = RollupGranularity.DAY.truncate(end);
+
+        List<Long> ids = List.of(scopeId);
+        Map<Long, HyperLogLog> merged;
+        if (dayStart.isBefore(dayEnd)) {
+            merged = collect(scope, ids, RollupGranularity.DAY, dayStart, dayEnd);
+            mergeInto(merged, collect(scope, ids, RollupGranularity.HOUR, start, dayStart));
+            mergeInto(merged, collect(scope, ids, RollupGranularity.HOUR, dayEnd, end));
+        } else {
+            merged = collect(scope, ids, RollupGranularity.HOUR, start, end);
+        }
+        HyperLogLog sketch = merged.get(scopeId);
+        return sketch != null ? sketch.cardinality() : 0L;
+    }
+
+    /**
+     * start부터 (step × granularity) 간격 points개 구간의 고유 방문자 수.
+     * 한 구간에 여러 버킷이 들어가면 스케치를 합쳐 구간 전체의 고유 수를 추정한다.
+     */
+    public long[] countSeries(Scope scope, long scopeId, RollupGranularity granularity,
+                              LocalDateTime start, int step, int points) {
+        LocalDateTime end = start.plus((long) step * points, granularity.getUnit());
+        HyperLogLog[] merged = new HyperLogLog[points];
+
+        for (SketchRow row : visitSketchRepository.findSketches(scope, List.of(scopeId), granularity, start, end)) {
+            mergeAt(merged, bucketIndex(granularity, start, step, row.bucketStart()), HyperLogLog.fromBytes(row.sketch()));
+        }
+        List<Long> ids = List.of(scopeId);
+        pending.forEachUnsaved(key -> matches(key, scope, ids, granularity, start, end),
+            (key, sketch) -> mergeAt(merged, bucketIndex(granularity, start, step, key.bucketStart()), sketch.copy()));
+
+        long[] counts = new long[points];
+        for (int i = 0; i < points; i++) {
+            counts[i] = merged[i] != null ? merged[i].cardinality() : 0L;
+        }
+        return counts;
+    }
+
+    private static int bucketIndex(RollupGranularity granularity, LocalDateTime start, int step, LocalDateTime bucket) {
+        return (int) (granularity.getUnit().between(start, bucket) / step);
+    }
+
+    private static void mergeAt(HyperLogLog[] merged, int index, HyperLogLog sketch) {
+        merged[index] = merged[index] == null ? sketch : VisitSketchRepository.union(merged[index], sketch);
+    }
+
+    /**
+     * 저장된 스케치 + 아직 저장되지 않은 스케치를 scopeId별로 합친다.
+     */
+    Map<Long, HyperLogLog> collect(Scope scope, Collection<Long> scopeIds, RollupGranularity granularity,
+                                   LocalDateTime from, LocalDateTime to) {
+        Map<Long, HyperLogLog> merged = new HashMap<>();
+        if (scopeIds.isEmpty()) return merged;
+
+        for (SketchRow row : visitSketchRepository.findSketches(scope, scopeIds, granularity, from, to)) {
+            merged.merge(row.scopeId(), HyperLogLog.fromBytes(row.sketch()), VisitSketchRepository::union);
+        }
+
+        // 저장 중인 스케치는 DB와 겹칠 수 있지만 병합이 멱등이라 문제없다
+        pending.forEachUnsaved(key -> matches(key, scope, scopeIds, granularity, from, to),
+            (key, sketch) -> merged.merge(key.scopeId(), sketch.copy(), VisitSketchRepository::union));
+        return merged;
+    }
+
+    private static boolean matches(SketchKey key, Scope scope, Collection<Long> scopeIds,
+                                   RollupGranularity granularity, LocalDateTime from, LocalDateTime to) {
+        if (key.scope() != scope || key.granularity() != granularity || !scopeIds.contains(key.scopeId())) {
+            return false;
+        }
+        if (from != null && key.bucketStart().isBefore(from)) return false;
+        return to == null || key.bucketStart().isBefore(to);
+    }
+
+    private static void mergeInto(Map<Long, HyperLogLog> target, Map<Long, HyperLogLog> source) {
+        source.forEach((id, sketch) -> target.merge(id, sketch, VisitSketchRepository::union));
+    }
+
+    private static Map<Long, Long> estimate(Map<Long, HyperLogLog> sketches) {
+        Map<Long, Long> result = new HashMap<>();
+        sketches.forEach((id, sketch) -> result.put(id, sketch.cardinality()));
+        return result;
+    }
+
+    private static LocalDateTime ceil(RollupGranularity granularity, LocalDateTime time) {
+        LocalDateTime truncated = granularity.truncate(time);
+        return truncated.equals(time) ? time : truncated.plus(1, granularity.getUnit());
+    }
+}
@@ -0,0 +1,216 @@
+package com.expogarden.service;
+
+import com.expogarden.domain.RollupGranularity;
+import com.expogarden.repository.VisitEventCompactionRepository;
+import com.expogarden.repository.VisitEventCompactionRepository.BatchResult;
+import com.expogarden.repository.VisitEventCompactionRepository.Compaction;
+import com.expogarden.repository.VisitEventCompactionRepository.EndedExhibition;
+import com.expogarden.repository.VisitEventCompactionRepository.Mode;
+import com.expogarden.repository.VisitEventCompactionRepository.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 종료된 전시의 원본 이벤트(visit_events) 정리
+ *
+ * end_at + grace-days가 지난 전시마다 그 날짜 경계(cutoff) 이전 원본에 대해
+ * 1) 일 단위 집계가 원본 weight 합 이상인지, 2) 전시 일 단위 고유 방문자 스케치가 있는지,
+ * 3) 체류 시간 집계 시작(V22) 이후 부스별 체류 히스토그램이 있는지 확인하고,
+ * 통과하면 created_at 순으로 batch-size 행씩 삭제(또는 visit_events_archive로 이동)한다.
+ *
+ * 배치마다 짧은 트랜잭션에서 진행 행을 잠그고(FOR UPDATE SKIP LOCKED) 커서를 함께 갱신하므로
+ * 여러 인스턴스가 동시에 돌아도 한 곳만 진행하고, 재시작하면 커서부터 이어서 진행한다.
+ * 배치 사이에는 batch-pause-ms만큼 쉬어 잠금 시간과 복제 지연을 줄이고, 한 번 실행은 max-run-ms에서 멈춘다.
+ * 기본 스케줄러 스레드를 오래 잡지 않도록 전용 스레드에서 실행한다.
+ */
+@Service
+@Slf4j
+public class VisitEventCompactionService {
+
+    private final VisitEventCompactionRepository compactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration grace;
+    private final Mode mode;
+    private final int batchSize;
+    private final long batchPauseMillis;
+    private final long maxRunMillis;
+
+    private final ExecutorService executor;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Counter compactedCounter;
+    private final Counter verifyFailedCounter;
+
+    public VisitEventCompactionService(
+        VisitEventCompactionRepository compactionRepository,
+        TransactionTemplate transactionTemplate,
+        MeterRegistry meterRegistry,
+        @Value("${compaction.visit-events.enabled:true}") boolean enabled,
+        @Value("${compaction.visit-events.grace-days:30}") int graceDays,
+        @Value("${compaction.visit-events.mode:ARCHIVE}") Mode mode,
+        @Value("${compaction.visit-events.batch-size:5000}") int batchSize,
+        @Value("${compaction.visit-events.batch-pause-ms:200}") long batchPauseMillis,
+        @Value("${compaction.visit-events.max-run-ms:1800000}") long maxRunMillis
+    ) {
+        this.compactionRepository = compactionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.grace = Duration.ofDays(graceDays);
+        this.mode = mode;
+        this.batchSize = batchSize;
+        this.batchPauseMillis = batchPauseMillis;
+        this.maxRunMillis = maxRunMillis;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "visit-event-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.compactedCounter = Counter.builder("compaction.visit_events.rows").tag("mode", mode.name()).register(meterRegistry);
+        this.verifyFailedCounter = Counter.builder("compaction.visit_events.verify_failed").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Scheduled(cron = "${compaction.visit-events.cron:0 0 4 * * *}")
+    public void schedule() {
+        if (!enabled || !running.compareAndSet(false, true)) return;
+        executor.execute(() -> {
+            try {
+                runOnce();
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+
+    public void runOnce() {
+        long deadline = System.currentTimeMillis() + maxRunMillis;
+        List<EndedExhibition> exhibitions;
+        try {
+            exhibitions = compactionRepository.findNotCompacted(Instant.now().minus(grace));
+        } catch (Exception e) {
+            log.error("Failed to list exhibitions for visit event compaction", e);
+            return;
+        }
+
+        for (EndedExhibition exhibition : exhibitions) {
+            if (System.currentTimeMillis() >= deadline || Thread.currentThread().isInterrupted()) {
+                log.info("Visit event compaction paused, will resume next run");
+                return;
+            }
+            try {
+                compact(exhibition, deadline);
+            } catch (Exception e) {
+                log.error("Visit event compaction failed for exhibition {}", exhibition.exhibitionId(), e);
+            }
+        }
+    }
+
+    private void compact(EndedExhibition exhibition, long deadline) {
+        long exhibitionId = exhibition.exhibitionId();
+        // 일 단위 집계/스케치와 경계가 맞도록 날짜 경계로 내림 (end_at + grace < 현재이므로 cutoff도 과거)
+        LocalDateTime cutoff = RollupGranularity.DAY.truncate(
+            LocalDateTime.ofInstant(exhibition.endAt().plus(grace), ZoneId.systemDefault()));
+        compactionRepository.insertIfAbsent(exhibitionId, cutoff, mode);
+        Compaction compaction = compactionRepository.find(exhibitionId).orElseThrow();
+
+        if (compaction.status() == Status.PENDING || compaction.status() == Status.FAILED) {
+            String failure = verify(compaction);
+            if (failure != null) {
+                verifyFailedCounter.increment();
+                compactionRepository.markFailed(exhibitionId, failure);
+                log.warn("Skipping visit event compaction for exhibition {}: {}", exhibitionId, failure);
+                return;
+            }
+            compactionRepository.markVerified(exhibitionId);
+            log.info("Verified aggregates for exhibition {} before {}, compacting raw events ({})",
+                exhibitionId, compaction.cutoff(), compaction.mode());
+        }
+
+        long total = 0;
+        while (System.currentTimeMillis() < deadline) {
+            long rows = compactBatch(exhibitionId);
+            if (rows <= 0) break;
+            total += rows;
+            compactedCounter.increment(rows);
+            try {
+                Thread.sleep(batchPauseMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Compacted {} raw visit events of exhibition {}", total, exhibitionId);
+        }
+    }
+
+    /**
+     * @return 검증 실패 사유, 통과하면 null
+     */
+    private String verify(Compaction compaction) {
+        long exhibitionId = compaction.exhibitionId();
+        LocalDateTime cutoff = compaction.cutoff();
+        List<String> failures = new ArrayList<>();
+
+        long rollupMismatches = compactionRepository.countRollupMismatches(exhibitionId, cutoff);
+        if (rollupMismatches > 0) {
+            failures.add(rollupMismatches + " (day, booth, action) rollups are missing or smaller than raw events");
+        }
+        long missingSketchDays = compactionRepository.countMissingSketchDays(exhibitionId, cutoff);
+        if (missingSketchDays > 0) {
+            failures.add(missingSketchDays + " days have no visitor sketch");
+        }
+        Optional<LocalDateTime> dwellSince = compactionRepository.findDwellTrackingSince();
+        if (dwellSince.isPresent() && dwellSince.get().isBefore(cutoff)) {
+            long missingDwellBooths = compactionRepository.countMissingDwellBooths(exhibitionId, dwellSince.get(), cutoff);
+            if (missingDwellBooths > 0) {
+                failures.add(missingDwellBooths + " booths have no dwell histogram");
+            }
+        }
+        return failures.isEmpty() ? null : String.join("; ", failures);
+    }
+
+    /**
+     * @return 처리한 행 수, 끝났으면 0, 다른 인스턴스가 진행 중이면 -1
+     */
+    private long compactBatch(long exhibitionId) {
+        Long rows = transactionTemplate.execute(status -> {
+            Optional<Compaction> locked = compactionRepository.lockForBatch(exhibitionId);
+            if (locked.isEmpty()) return -1L;
+            Compaction compaction = locked.get();
+
+            LocalDateTime from = compaction.cursor() != null ? compaction.cursor() : LocalDateTime.of(1970, 1, 1, 0, 0);
+            BatchResult result = compactionRepository.compactBatch(compaction, from, batchSize);
+            if (result.rows() == 0) {
+                compactionRepository.markDone(exhibitionId);
+                log.info("Visit event compaction done for exhibition {} ({} rows, {})",
+                    exhibitionId, compaction.rowsCompacted(), compaction.mode());
+                return 0L;
+            }
+            compactionRepository.advance(exhibitionId, result.maxCreatedAt(), result.rows());
+            return result.rows();
+        });
+        return rows != null ? rows : -1;
+    }
+}
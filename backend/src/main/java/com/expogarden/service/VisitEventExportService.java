@@ -0,0 +1,257 @@
+package com.expogarden.service;
+
+import com.expogarden.repository.VisitEventJdbcRepository;
+import com.expogarden.repository.VisitEventJdbcRepository.ExportRow;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Semaphore;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * visit_events 원본 내보내기 (gzip CSV / NDJSON)
+ *
+ * 읽기 전용 트랜잭션에서 서버 측 커서로 fetch-size 행씩 읽어 바로 응답 스트림에 쓰므로
+ * 행 수와 무관하게 메모리 사용량이 일정하다. 동시에 실행되는 내보내기는 max-concurrent개로 제한한다.
+ * 스트림 도중 실패하면 상태 코드를 바꿀 수 없으므로 연결을 끊고, 클라이언트는 잘린 gzip으로 실패를 알 수 있다.
+ */
+@Service
+@Slf4j
+public class VisitEventExportService {
+
+    private static final String[] COLUMNS = {
+        "id", "createdAt", "exhibitionId", "boothId", "userId", "sessionId", "action", "metadata", "weight"
+    };
+
+    public enum Format {
+        CSV("csv"),
+        NDJSON("ndjson");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        // 응답은 application/gzip 파일이고, 안의 본문 형식은 파일명(.csv.gz / .ndjson.gz)으로 구분한다
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    public record ExportFilter(Long exhibitionId, Long boothId, String action, Instant from, Instant to) {
+    }
+
+    public static class TooManyExportsException extends RuntimeException {
+        public TooManyExportsException() {
+            super("Too many exports in progress");
+        }
+    }
+
+    private final VisitEventJdbcRepository visitEventJdbcRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final int fetchSize;
+    private final Duration maxRange;
+    private final Semaphore permits;
+
+    public VisitEventExportService(
+        VisitEventJdbcRepository visitEventJdbcRepository,
+        ObjectMapper objectMapper,
+        PlatformTransactionManager transactionManager,
+        @Value("${stats.export.fetch-size:5000}") int fetchSize,
+        @Value("${stats.export.max-range-days:400}") int maxRangeDays,
+        @Value("${stats.export.max-concurrent:2}") int maxConcurrent
+    ) {
+        this.visitEventJdbcRepository = visitEventJdbcRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.fetchSize = fetchSize;
+        this.maxRange = Duration.ofDays(maxRangeDays);
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * 조건을 검증하고 실행 슬롯을 잡은 뒤 응답 본문을 만든다. 슬롯은 본문 쓰기가 끝나면 반납한다.
+     */
+    public StreamingResponseBody export(ExportFilter filter, Format format) {
+        if (!filter.from().isBefore(filter.to())) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (Duration.between(filter.from(), filter.to()).compareTo(maxRange) > 0) {
+            throw new IllegalArgumentException("Range must not exceed " + maxRange.toDays() + " days");
+        }
+        if (!permits.tryAcquire()) {
+            throw new TooManyExportsException();
+        }
+
+        return out -> {
+            try {
+                write(filter, format, out);
+            } finally {
+                permits.release();
+            }
+        };
+    }
+
+    private void write(ExportFilter filter, Format format, OutputStream out) throws IOException {
+        long started = System.currentTimeMillis();
+        long[] rows = {0};
+        GZIPOutputStream gzip = new GZIPOutputStream(out, 64 * 1024);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), 64 * 1024);
+        RowWriter rowWriter = format == Format.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+
+        try {
+            rowWriter.writeHeader();
+            readOnlyTransactionTemplate.executeWithoutResult(status -> visitEventJdbcRepository.streamEvents(
+                filter.exhibitionId(), filter.boothId(), filter.action(), filter.from(), filter.to(), fetchSize,
+                row -> {
+                    try {
+                        rowWriter.write(row);
+                        rows[0]++;
+                    } catch (IOException e) {
+                        // 클라이언트 연결 끊김 → 커서를 닫고 트랜잭션 종료
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+            rowWriter.close();
+            gzip.finish();
+            log.info("Exported {} visit events ({}) in {} ms", rows[0], format, System.currentTimeMillis() - started);
+        } catch (UncheckedIOException e) {
+            log.warn("Visit event export aborted after {} rows: {}", rows[0], e.getCause().getMessage());
+            throw e.getCause();
+        }
+    }
+
+    private interface RowWriter {
+        void writeHeader() throws IOException;
+
+        void write(ExportRow row) throws IOException;
+
+        void close() throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void writeHeader() throws IOException {
+            writer.write(String.join(",", COLUMNS));
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(ExportRow row) throws IOException {
+            writer.write(Long.toString(row.id()));
+            writer.write(',');
+            writer.write(row.createdAt().toString());
+            writer.write(',');
+            writer.write(Long.toString(row.exhibitionId()));
+            writer.write(',');
+            if (row.boothId() != null) writer.write(row.boothId().toString());
+            writer.write(',');
+            if (row.userId() != null) writer.write(row.userId().toString());
+            writer.write(',');
+            writeField(row.sessionId());
+            writer.write(',');
+            writeField(row.action());
+            writer.write(',');
+            writeField(row.metadata());
+            writer.write(',');
+            writer.write(Integer.toString(row.weight()));
+            writer.write('\n');
+        }
+
+        // RFC 4180: 구분자/따옴표/줄바꿈이 있으면 따옴표로 감싸고 따옴표는 두 번 쓴다
+        private void writeField(String value) throws IOException {
+            if (value == null) return;
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(Writer writer) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(writer);
+            // 최상위 값 사이 구분자를 줄바꿈으로 → 한 줄에 한 이벤트
+            this.generator.setRootValueSeparator(new SerializedString("\n"));
+        }
+
+        @Override
+        public void writeHeader() {
+        }
+
+        @Override
+        public void write(ExportRow row) throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField(COLUMNS[0], row.id());
+            generator.writeStringField(COLUMNS[1], row.createdAt().toString());
+            generator.writeNumberField(COLUMNS[2], row.exhibitionId());
+            writeNullableNumber(COLUMNS[3], row.boothId());
+            writeNullableNumber(COLUMNS[4], row.userId());
+            generator.writeStringField(COLUMNS[5], row.sessionId());
+            generator.writeStringField(COLUMNS[6], row.action());
+            generator.writeFieldName(COLUMNS[7]);
+            if (row.metadata() == null) {
+                generator.writeNull();
+            } else {
+                // jsonb를 text로 읽은 값이라 이미 올바른 JSON
+                generator.writeRawValue(row.metadata());
+            }
+            generator.writeNumberField(COLUMNS[8], row.weight());
+            generator.writeEndObject();
+        }
+
+        private void writeNullableNumber(String name, Long value) throws IOException {
+            if (value == null) {
+                generator.writeNullField(name);
+            } else {
+                generator.writeNumberField(name, value);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.writeRaw('\n');
+            generator.flush();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.expogarden.service;
+
+import com.expogarden.domain.VisitEvent;
+
+import java.util.List;
+
+/**
+ * 수집 파이프라인 이벤트 구독자
+ *
+ * 실시간 집계 구조(스케치, 카운터 등)는 이 인터페이스를 구현한 빈으로 등록하면
+ * TrackingIngestPipeline이 자동으로 호출한다. 구현은 빠르게 반환해야 하며 예외는 로그만 남긴다.
+ */
+public interface VisitEventListener {
+
+    /**
+     * 큐에 들어간 직후 (요청 스레드, DB 기록 전)
+     */
+    default void onAccepted(List<VisitEvent> events) {
+    }
+
+    /**
+     * 원본/집계 기록 트랜잭션이 커밋된 직후 (writer 스레드)
+     */
+    default void onFlushed(List<VisitEvent> events) {
+    }
+
+    /**
+     * 수락했지만 기록에 실패해 버려지거나 디스크에 보관된 직후 (writer 스레드)
+     */
+    default void onDropped(List<VisitEvent> events) {
+    }
+
+    /**
+     * 디스크에 보관됐던 이벤트를 나중에 기록한 트랜잭션이 커밋된 직후 (스케줄러 스레드).
+     * onAccepted 없이 호출될 수 있다 (큐가 가득 차 바로 보관된 경우, 재시작 후 재생).
+     */
+    default void onReplayed(List<VisitEvent> events) {
+        onFlushed(events);
+    }
+}
@@ -0,0 +1,224 @@
+package com.expogarden.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 금칙어 사전을 컴파일한 Aho-Corasick 오토마톤
+ *
+ * 상태 전이를 CSR 형태의 배열(edgeStart/edgeChars/edgeTargets)로 압축해 두어
+ * 메시지 한 건을 단일 패스로 스캔하며, 스캔 중에는 객체를 할당하지 않는다.
+ * 컴파일된 인스턴스는 불변이므로 여러 스레드에서 동시에 사용해도 안전하다.
+ */
+public final class AhoCorasickMatcher {
+
+    private static final int ROOT = 0;
+
+    private final int[] edgeStart;
+    private final char[] edgeChars;
+    private final int[] edgeTargets;
+    private final int[] fail;
+    // 해당 상태에서 끝나는 가장 긴 패턴의 길이 (없으면 0)
+    private final int[] matchLength;
+    private final boolean ignoreSeparators;
+    private final int patternCount;
+
+    private AhoCorasickMatcher(int[] edgeStart, char[] edgeChars, int[] edgeTargets,
+                               int[] fail, int[] matchLength, boolean ignoreSeparators, int patternCount) {
+        this.edgeStart = edgeStart;
+        this.edgeChars = edgeChars;
+        this.edgeTargets = edgeTargets;
+        this.fail = fail;
+        this.matchLength = matchLength;
+        this.ignoreSeparators = ignoreSeparators;
+        this.patternCount = patternCount;
+    }
+
+    /**
+     * 패턴 목록으로 오토마톤을 만든다.
+     * ignoreSeparators가 true면 단어 안에 끼운 기호를 건너뛰고 매칭한다 ("시.발", "s*h*i*t" 등).
+     * 공백은 건너뛰지 않는다 ("his hit"이 "shit"으로 잡히는 식의 오탐 방지).
+     */
+    public static AhoCorasickMatcher compile(Collection<String> patterns, boolean ignoreSeparators) {
+        // 1. 임시 트라이 구성
+        List<Map<Character, Integer>> children = new ArrayList<>();
+        List<Integer> depth = new ArrayList<>();
+        List<Boolean> terminal = new ArrayList<>();
+        children.add(new HashMap<>());
+        depth.add(0);
+        terminal.add(false);
+
+        int count = 0;
+        for (String pattern : patterns) {
+            if (pattern == null) continue;
+            int state = ROOT;
+            int length = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                if (ignoreSeparators && isSeparator(c)) continue;
+                c = normalize(c);
+                Integer next = children.get(state).get(c);
+                if (next == null) {
+                    next = children.size();
+                    children.add(new HashMap<>());
+                    depth.add(length + 1);
+                    terminal.add(false);
+                    children.get(state).put(c, next);
+                }
+                state = next;
+                length++;
+            }
+            if (length > 0 && !terminal.get(state)) {
+                terminal.set(state, true);
+                count++;
+            }
+        }
+
+        // 2. CSR 배열로 압축 (자식은 문자 순으로 정렬해 이진 탐색)
+        int stateCount = children.size();
+        int[] edgeStart = new int[stateCount + 1];
+        int edgeCount = 0;
+        for (int s = 0; s < stateCount; s++) {
+            edgeStart[s] = edgeCount;
+            edgeCount += children.get(s).size();
+        }
+        edgeStart[stateCount] = edgeCount;
+
+        char[] edgeChars = new char[edgeCount];
+        int[] edgeTargets = new int[edgeCount];
+        for (int s = 0; s < stateCount; s++) {
+            Character[] keys = children.get(s).keySet().toArray(new Character[0]);
+            Arrays.sort(keys);
+            int offset = edgeStart[s];
+            for (int k = 0; k < keys.length; k++) {
+                edgeChars[offset + k] = keys[k];
+                edgeTargets[offset + k] = children.get(s).get(keys[k]);
+            }
+        }
+
+        // 3. BFS로 실패 링크와 출력(최장 매칭 길이) 계산
+        int[] fail = new int[stateCount];
+        int[] matchLength = new int[stateCount];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int e = edgeStart[ROOT]; e < edgeStart[ROOT + 1]; e++) {
+            int child = edgeTargets[e];
+            fail[child] = ROOT;
+            matchLength[child] = terminal.get(child) ? depth.get(child) : 0;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int e = edgeStart[state]; e < edgeStart[state + 1]; e++) {
+                char c = edgeChars[e];
+                int child = edgeTargets[e];
+                int f = fail[state];
+                int next;
+                while ((next = transition(edgeStart, edgeChars, edgeTargets, f, c)) < 0 && f != ROOT) {
+                    f = fail[f];
+                }
+                fail[child] = next >= 0 ? next : ROOT;
+                matchLength[child] = terminal.get(child) ? depth.get(child) : matchLength[fail[child]];
+                queue.add(child);
+            }
+        }
+
+        return new AhoCorasickMatcher(edgeStart, edgeChars, edgeTargets, fail, matchLength, ignoreSeparators, count);
+    }
+
+    public int getPatternCount() {
+        return patternCount;
+    }
+
+    public int getStateCount() {
+        return fail.length;
+    }
+
+    /**
+     * 첫 번째 매칭이 끝나는 위치(exclusive)를 반환한다. 매칭이 없으면 -1.
+     */
+    public int findFirst(CharSequence text) {
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (ignoreSeparators && isSeparator(c)) continue;
+            state = step(state, normalize(c));
+            if (matchLength[state] > 0) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    public boolean containsMatch(CharSequence text) {
+        return findFirst(text) >= 0;
+    }
+
+    /**
+     * 매칭된 구간을 maskChar로 치환한다. 매칭이 없으면 원본 인스턴스를 그대로 반환한다.
+     */
+    public String mask(String text, char maskChar) {
+        char[] masked = null;
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (ignoreSeparators && isSeparator(c)) continue;
+            state = step(state, normalize(c));
+            int remaining = matchLength[state];
+            if (remaining == 0) continue;
+
+            if (masked == null) {
+                masked = text.toCharArray();
+            }
+            // 매칭 끝에서부터 (구분자를 제외한) 패턴 길이만큼 거슬러 올라가며 가린다
+            for (int j = i; j >= 0 && remaining > 0; j--) {
+                if (ignoreSeparators && isSeparator(text.charAt(j))) continue;
+                masked[j] = maskChar;
+                remaining--;
+            }
+        }
+        return masked != null ? new String(masked) : text;
+    }
+
+    private int step(int state, char c) {
+        int next;
+        while ((next = transition(edgeStart, edgeChars, edgeTargets, state, c)) < 0) {
+            if (state == ROOT) return ROOT;
+            state = fail[state];
+        }
+        return next;
+    }
+
+    private static int transition(int[] edgeStart, char[] edgeChars, int[] edgeTargets, int state, char c) {
+        int low = edgeStart[state];
+        int high = edgeStart[state + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char value = edgeChars[mid];
+            if (value < c) {
+                low = mid + 1;
+            } else if (value > c) {
+                high = mid - 1;
+            } else {
+                return edgeTargets[mid];
+            }
+        }
+        return -1;
+    }
+
+    // 전각 영숫자는 반각으로, 영문은 소문자로 맞춘다
+    static char normalize(char c) {
+        if (c >= '\uFF01' && c <= '\uFF5E') {
+            c = (char) (c - 0xFEE0);
+        }
+        return Character.toLowerCase(c);
+    }
+
+    static boolean isSeparator(char c) {
+        return !Character.isLetterOrDigit(c) && !Character.isWhitespace(c);
+    }
+}
@@ -0,0 +1,110 @@
+package com.expogarden.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 수집 스트림에서 이어 붙이는 세션별 상태 (최대 개수 + 유휴 정리)
+ *
+ * 접근 순서 LinkedHashMap이라 가장 오래 갱신되지 않은 세션이 맨 앞에 온다.
+ * 그래서 maxSessions를 넘으면 맨 앞 세션을 버리고, 유휴 정리는 앞에서부터 훑다가 처음으로 최근 세션을 만나면 멈춘다.
+ * 조회/추가할 때마다 now를 마지막 갱신 시각으로 기록한다.
+ *
+ * 모든 메서드는 저장소 자체로 동기화한다. 배치처럼 여러 연산을 묶으려면 호출 측에서 synchronized (store)로 감싼다.
+ * 버려지는 세션을 받는 콜백도 이 잠금 안에서 불린다.
+ */
+public final class BoundedSessionStore<K, V> {
+
+    private static final class Entry<V> {
+        final V value;
+        long touchedAt;
+
+        Entry(V value, long touchedAt) {
+            this.value = value;
+            this.touchedAt = touchedAt;
+        }
+    }
+
+    private final LinkedHashMap<K, Entry<V>> sessions;
+
+    /**
+     * @param onCapacityEvicted maxSessions를 넘어 버려지는 세션 콜백
+     */
+    public BoundedSessionStore(int maxSessions, BiConsumer<K, V> onCapacityEvicted) {
+        this.sessions = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > maxSessions) {
+                    onCapacityEvicted.accept(eldest.getKey(), eldest.getValue().value);
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized V get(K key, long now) {
+        Entry<V> entry = sessions.get(key);
+        if (entry == null) return null;
+        entry.touchedAt = now;
+        return entry.value;
+    }
+
+    public synchronized V computeIfAbsent(K key, Function<K, V> factory, long now) {
+        Entry<V> entry = sessions.get(key);
+        if (entry != null) {
+            entry.touchedAt = now;
+            return entry.value;
+        }
+        V value = factory.apply(key);
+        sessions.put(key, new Entry<>(value, now));
+        return value;
+    }
+
+    public synchronized void put(K key, V value, long now) {
+        sessions.put(key, new Entry<>(value, now));
+    }
+
+    public synchronized V remove(K key) {
+        Entry<V> entry = sessions.remove(key);
+        return entry != null ? entry.value : null;
+    }
+
+    public synchronized int size() {
+        return sessions.size();
+    }
+
+    public int evictIdle(long cutoff) {
+        return evictIdle(cutoff, (key, value) -> {
+        });
+    }
+
+    /**
+     * 마지막 갱신이 cutoff보다 이전인 세션을 버린다.
+     *
+     * @return 버린 세션 수
+     */
+    public synchronized int evictIdle(long cutoff, BiConsumer<K, V> onEvicted) {
+        int evicted = 0;
+        Iterator<Map.Entry<K, Entry<V>>> iterator = sessions.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<K, Entry<V>> entry = iterator.next();
+            if (entry.getValue().touchedAt >= cutoff) break;
+            iterator.remove();
+            onEvicted.accept(entry.getKey(), entry.getValue().value);
+            evicted++;
+        }
+        return evicted;
+    }
+
+    /**
+     * 모든 세션을 넘기고 비운다 (종료 시 진행 중인 상태 마감용)
+     */
+    public synchronized void drain(BiConsumer<K, V> consumer) {
+        sessions.forEach((key, entry) -> consumer.accept(key, entry.value));
+        sessions.clear();
+    }
+}
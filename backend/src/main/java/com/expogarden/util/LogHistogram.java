@@ -0,0 +1,92 @@
+package com.expogarden.util;
+
+import java.util.Arrays;
+
+/**
+ * 로그 스케일 버킷 히스토그램 (0 이상의 long 값, 스레드 안전하지 않음)
+ *
+ * 2배 구간마다 SUB_BUCKETS개 버킷을 두어 상대 오차가 약 2^(1/4) - 1 ≈ 19% 이내가 된다.
+ * 버킷 개수가 고정이라 샘플 수와 무관하게 메모리가 일정하고, 버킷별 합산으로 병합할 수 있다.
+ * 버킷 인덱스는 저장 포맷으로도 쓰이므로 SUB_BUCKETS/BUCKET_COUNT를 바꾸면 기존 데이터와 호환되지 않는다.
+ */
+public final class LogHistogram {
+
+    public static final int SUB_BUCKETS = 4;
+    // 0..1, 그리고 2^0 ~ 2^40 (ms 기준 약 34년)
+    public static final int BUCKET_COUNT = 1 + 40 * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long total;
+
+    public static int bucketIndex(long value) {
+        if (value <= 1) return 0;
+        int index = 1 + (int) Math.floor(Math.log(value) / Math.log(2) * SUB_BUCKETS);
+        return Math.min(index, BUCKET_COUNT - 1);
+    }
+
+    /**
+     * 버킷의 대표값 (구간의 기하 평균)
+     */
+    public static long bucketValue(int index) {
+        if (index <= 0) return 0;
+        double lower = Math.pow(2, (double) (index - 1) / SUB_BUCKETS);
+        double upper = Math.pow(2, (double) index / SUB_BUCKETS);
+        return Math.round(Math.sqrt(lower * upper));
+    }
+
+    public void record(long value) {
+        add(bucketIndex(Math.max(0, value)), 1);
+    }
+
+    public void add(int bucket, long count) {
+        counts[bucket] += count;
+        total += count;
+    }
+
+    public void merge(LogHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getCount(int bucket) {
+        return counts[bucket];
+    }
+
+    public boolean isEmpty() {
+        return total == 0;
+    }
+
+    /**
+     * q 분위수 (0 < q <= 1), 샘플이 없으면 null
+     */
+    public Long quantile(double q) {
+        if (total == 0) return null;
+        long rank = (long) Math.ceil(q * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank && counts[i] > 0) {
+                return bucketValue(i);
+            }
+        }
+        return bucketValue(BUCKET_COUNT - 1);
+    }
+
+    public LogHistogram copy() {
+        LogHistogram copy = new LogHistogram();
+        System.arraycopy(counts, 0, copy.counts, 0, BUCKET_COUNT);
+        copy.total = total;
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return "LogHistogram{total=" + total + ", counts=" + Arrays.toString(counts) + "}";
+    }
+}
@@ -0,0 +1,116 @@
+package com.expogarden.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 주기적으로 DB에 더할 키별 증분
+ *
+ * 이벤트 스레드는 add/update로 모으고, persist가 모인 증분을 비워 키 순서대로 writer에 넘긴다.
+ * 키 순서로 넘기는 것은 여러 인스턴스가 같은 행들을 잠글 때 교착되지 않도록 하기 위함이다.
+ * writer가 실패하면 증분을 되돌려 다음 persist 때 다시 시도하고, 예외는 호출자에게 그대로 던진다.
+ *
+ * 저장 중인 증분도 forEachUnsaved/readUnsaved에 포함되므로 저장이 끝나기 전 조회에서 빠지지 않는다.
+ * 대신 커밋 직후 잠깐은 DB 값과 겹쳐 더 크게 보일 수 있다.
+ */
+public final class PendingDeltas<K, D> {
+
+    private final ConcurrentHashMap<K, D> pending = new ConcurrentHashMap<>();
+    private final BinaryOperator<D> merger;
+    private final Comparator<? super K> order;
+
+    private volatile Map<K, D> persisting = Map.of();
+
+    /**
+     * @param merger 같은 키 증분 합치기 (첫 인자를 고쳐 반환해도 된다)
+     * @param order  writer에 넘길 키 순서
+     */
+    public PendingDeltas(BinaryOperator<D> merger, Comparator<? super K> order) {
+        this.merger = merger;
+        this.order = order;
+    }
+
+    public void add(K key, D delta) {
+        pending.merge(key, delta, merger);
+    }
+
+    /**
+     * 키의 증분(없으면 factory로 생성)을 updater로 제자리에서 고친다.
+     */
+    public void update(K key, Supplier<D> factory, Consumer<D> updater) {
+        pending.compute(key, (k, delta) -> {
+            D target = delta != null ? delta : factory.get();
+            updater.accept(target);
+            return target;
+        });
+    }
+
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    /**
+     * 모인 증분을 키 순서대로 writer에 넘긴다. 동시에 한 번만 실행된다.
+     *
+     * @return 넘긴 키 수 (모인 증분이 없으면 0)
+     */
+    public synchronized int persist(Consumer<List<Map.Entry<K, D>>> writer) {
+        if (pending.isEmpty()) return 0;
+
+        Map<K, D> drained = new HashMap<>();
+        for (K key : pending.keySet()) {
+            D delta = pending.remove(key);
+            if (delta != null) drained.put(key, delta);
+        }
+        persisting = drained;
+        try {
+            List<Map.Entry<K, D>> sorted = new ArrayList<>(drained.entrySet());
+            sorted.sort(Map.Entry.comparingByKey(order));
+            writer.accept(sorted);
+            return sorted.size();
+        } catch (RuntimeException e) {
+            drained.forEach(this::add);
+            throw e;
+        } finally {
+            persisting = Map.of();
+        }
+    }
+
+    /**
+     * 아직 저장되지 않은(저장 중 포함) 증분 중 filter에 맞는 것을 넘긴다.
+     * consumer가 받는 증분은 계속 고쳐지는 원본이므로 보관하려면 복사해야 한다.
+     */
+    public void forEachUnsaved(Predicate<? super K> filter, BiConsumer<? super K, ? super D> consumer) {
+        persisting.forEach((key, delta) -> {
+            if (filter.test(key)) consumer.accept(key, delta);
+        });
+        for (K key : pending.keySet()) {
+            if (!filter.test(key)) continue;
+            pending.computeIfPresent(key, (k, delta) -> {
+                consumer.accept(k, delta);
+                return delta;
+            });
+        }
+    }
+
+    /**
+     * 한 키의 아직 저장되지 않은(저장 중 포함) 증분을 넘긴다 (forEachUnsaved와 같은 주의사항).
+     */
+    public void readUnsaved(K key, Consumer<? super D> reader) {
+        D saving = persisting.get(key);
+        if (saving != null) reader.accept(saving);
+        pending.computeIfPresent(key, (k, delta) -> {
+            reader.accept(delta);
+            return delta;
+        });
+    }
+}
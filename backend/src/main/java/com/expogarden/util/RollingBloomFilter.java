@@ -0,0 +1,130 @@
+package com.expogarden.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 시간 회전형 Bloom 필터 (최근 키 중복 판별, 스레드 안전)
+ *
+ * 현재/이전 두 세대의 필터를 두고 windowMillis가 지나거나 현재 세대에 expectedInsertions개가 들어가면
+ * 이전 세대를 버리고 새 세대를 만든다. 따라서 키는 최소 한 세대(보통 windowMillis), 최대 두 세대 동안 기억되고
+ * 메모리는 세대 크기의 2배로 고정된다.
+ * 오탐(처음 보는 키를 본 적 있다고 판단)은 세대당 falsePositiveRate 이하, 두 세대를 함께 보므로 최대 약 2배이며
+ * 미탐(기억 기간 안의 키를 놓침)은 없다.
+ */
+public final class RollingBloomFilter {
+
+    private static final class Generation {
+        final AtomicLongArray bits;
+        final AtomicLong insertions = new AtomicLong();
+        final long createdAt;
+
+        Generation(int words, long createdAt) {
+            this.bits = new AtomicLongArray(words);
+            this.createdAt = createdAt;
+        }
+    }
+
+    private final long expectedInsertions;
+    private final long windowMillis;
+    private final long bitCount;
+    private final int hashCount;
+
+    private volatile Generation current;
+    private volatile Generation previous;
+
+    public RollingBloomFilter(long expectedInsertions, double falsePositiveRate, long windowMillis) {
+        if (expectedInsertions < 1) {
+            throw new IllegalArgumentException("expectedInsertions must be positive");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1");
+        }
+        if (windowMillis < 1) {
+            throw new IllegalArgumentException("windowMillis must be positive");
+        }
+        // m = -n ln p / (ln 2)^2, k = m/n ln 2
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, (bits + 63) / 64);
+        this.expectedInsertions = expectedInsertions;
+        this.windowMillis = windowMillis;
+        this.bitCount = (long) words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+
+        long now = System.currentTimeMillis();
+        this.current = new Generation(words, now);
+        this.previous = new Generation(words, now);
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    /**
+     * 두 세대를 합친 메모리 사용량 (바이트)
+     */
+    public long getSizeInBytes() {
+        return bitCount / 8 * 2;
+    }
+
+    /**
+     * 기억 기간 안에 put 된 적이 있으면 true (오탐 가능)
+     */
+    public boolean mightContain(CharSequence key) {
+        long hash = HyperLogLog.hash(key);
+        rotateIfNeeded();
+        return contains(current, hash) || contains(previous, hash);
+    }
+
+    public void put(CharSequence key) {
+        long hash = HyperLogLog.hash(key);
+        rotateIfNeeded();
+        Generation generation = current;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            long index = bitIndex(h1, h2, i);
+            setBit(generation.bits, (int) (index >>> 6), 1L << (index & 63));
+        }
+        generation.insertions.incrementAndGet();
+    }
+
+    private boolean contains(Generation generation, long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            long index = bitIndex(h1, h2, i);
+            if ((generation.bits.get((int) (index >>> 6)) & (1L << (index & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Kirsch-Mitzenmacher: g_i = h1 + i * h2 로 k개의 해시를 만든다
+    private long bitIndex(int h1, int h2, int i) {
+        long combined = (long) h1 + (long) i * h2;
+        return Math.floorMod(combined, bitCount);
+    }
+
+    private static void setBit(AtomicLongArray words, int word, long mask) {
+        long value;
+        do {
+            value = words.get(word);
+            if ((value & mask) != 0) return;
+        } while (!words.compareAndSet(word, value, value | mask));
+    }
+
+    private void rotateIfNeeded() {
+        Generation generation = current;
+        long now = System.currentTimeMillis();
+        if (now - generation.createdAt < windowMillis && generation.insertions.get() < expectedInsertions) {
+            return;
+        }
+        synchronized (this) {
+            if (current != generation) return; // 다른 스레드가 이미 회전
+            previous = generation;
+            current = new Generation(generation.bits.length(), now);
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.expogarden.util;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * 로컬 디스크 추가 전용(append-only) 세그먼트 로그 (스레드 안전)
+ *
+ * 레코드 포맷: [int 길이][int CRC32C][payload]. 세그먼트 파일(seg-{번호}.log)이 maxSegmentBytes를 넘으면 새 파일로 넘어간다.
+ * 기록 중 프로세스가 죽어 끝부분이 잘린 레코드나 체크섬이 맞지 않는 레코드를 만나면 그 세그먼트 읽기를 멈춘다.
+ *
+ * 읽은 위치는 checkpoint 파일에 (세그먼트, 오프셋)으로 원자적으로 남기므로 재시작 후 이어서 읽을 수 있다.
+ * 레코드 처리와 checkpoint 기록 사이에 죽으면 그 레코드는 다시 읽힌다 (at-least-once).
+ */
+public final class SegmentLog implements AutoCloseable {
+
+    public enum FsyncPolicy {
+        ALWAYS,     // 레코드마다 fsync
+        INTERVAL,   // 마지막 fsync 후 fsyncIntervalMillis가 지났을 때만 (sync() 호출 시에도)
+        NEVER       // OS에 맡김
+    }
+
+    /**
+     * 레코드 처리기. false를 반환하거나 예외를 던지면 그 레코드에서 읽기를 멈추고 위치를 남기지 않는다.
+     */
+    @FunctionalInterface
+    public interface RecordHandler {
+        boolean handle(byte[] payload) throws Exception;
+    }
+
+    public record ReadResult(int records, boolean completed, boolean corrupted) {
+    }
+
+    private static final String PREFIX = "seg-";
+    private static final String SUFFIX = ".log";
+    private static final String CHECKPOINT = "checkpoint";
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 64 * 1024 * 1024;
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final long maxTotalBytes;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalNanos;
+
+    private long activeSequence;
+    private FileChannel active;
+    private long activeBytes;
+    private long sealedBytes;
+    private long lastSyncNanos = System.nanoTime();
+    private boolean dirty;
+
+    public SegmentLog(Path directory, long maxSegmentBytes, long maxTotalBytes,
+                      FsyncPolicy fsyncPolicy, long fsyncIntervalMillis) throws IOException {
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.maxTotalBytes = maxTotalBytes;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalNanos = fsyncIntervalMillis * 1_000_000L;
+        Files.createDirectories(directory);
+
+        // 이전 프로세스가 남긴 세그먼트는 모두 닫힌 것으로 보고 다음 번호부터 쓴다
+        for (Path segment : listSegments()) {
+            activeSequence = Math.max(activeSequence, sequenceOf(segment));
+            sealedBytes += Files.size(segment);
+        }
+        activeSequence++;
+    }
+
+    /**
+     * @return 용량(maxTotalBytes)이 부족하면 false
+     */
+    public synchronized boolean append(byte[] payload) throws IOException {
+        long recordBytes = HEADER_BYTES + payload.length;
+        if (sealedBytes + activeBytes + recordBytes > maxTotalBytes) {
+            return false;
+        }
+        if (active != null && activeBytes > 0 && activeBytes + recordBytes > maxSegmentBytes) {
+            seal();
+        }
+        if (active == null) {
+            active = FileChannel.open(segmentPath(activeSequence),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            activeBytes = active.size();
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        ByteBuffer buffer = ByteBuffer.allocate((int) recordBytes);
+        buffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        while (buffer.hasRemaining()) {
+            active.write(buffer);
+        }
+        activeBytes += recordBytes;
+        dirty = true;
+
+        if (fsyncPolicy == FsyncPolicy.ALWAYS
+            || (fsyncPolicy == FsyncPolicy.INTERVAL && System.nanoTime() - lastSyncNanos >= fsyncIntervalNanos)) {
+            force();
+        }
+        return true;
+    }
+
+    /**
+     * INTERVAL 정책에서 아직 디스크에 내리지 않은 기록을 내린다.
+     */
+    public synchronized void sync() throws IOException {
+        if (fsyncPolicy != FsyncPolicy.NEVER && dirty) {
+            force();
+        }
+    }
+
+    private void force() throws IOException {
+        if (active != null) {
+            active.force(false);
+        }
+        lastSyncNanos = System.nanoTime();
+        dirty = false;
+    }
+
+    /**
+     * 쓰고 있는 세그먼트를 닫아 읽을 수 있게 한다.
+     */
+    public synchronized void seal() throws IOException {
+        if (active == null) return;
+        if (fsyncPolicy != FsyncPolicy.NEVER) {
+            force();
+        }
+        active.close();
+        active = null;
+        sealedBytes += activeBytes;
+        activeBytes = 0;
+        activeSequence++;
+    }
+
+    public synchronized long sizeInBytes() {
+        return sealedBytes + activeBytes;
+    }
+
+    public synchronized boolean isEmpty() {
+        return sealedBytes + activeBytes == 0;
+    }
+
+    /**
+     * 닫힌 세그먼트를 오래된 순서로 checkpoint 이후부터 읽는다. 끝까지 읽은 세그먼트는 지우고,
+     * 손상된 세그먼트는 .corrupt로 이름을 바꿔 남겨 둔다.
+     */
+    public ReadResult readSealed(RecordHandler handler) throws IOException {
+        int records = 0;
+        for (Path segment : listSegments()) {
+            long sequence = sequenceOf(segment);
+            synchronized (this) {
+                if (active != null && sequence == activeSequence) break;
+            }
+
+            long offset = checkpointOffset(sequence);
+            SegmentRead read = readSegment(segment, offset, handler);
+            records += read.records;
+            if (read.corrupted) {
+                Path quarantined = segment.resolveSibling(segment.getFileName() + ".corrupt");
+                Files.move(segment, quarantined, StandardCopyOption.REPLACE_EXISTING);
+                removeSealed(Files.size(quarantined));
+                return new ReadResult(records, false, true);
+            }
+            if (!read.completed) {
+                return new ReadResult(records, false, false);
+            }
+            long size = Files.size(segment);
+            Files.delete(segment);
+            removeSealed(size);
+        }
+        return new ReadResult(records, true, false);
+    }
+
+    private synchronized void removeSealed(long bytes) {
+        sealedBytes = Math.max(0, sealedBytes - bytes);
+    }
+
+    private record SegmentRead(int records, boolean completed, boolean corrupted) {
+    }
+
+    private SegmentRead readSegment(Path segment, long offset, RecordHandler handler) throws IOException {
+        long sequence = sequenceOf(segment);
+        int records = 0;
+        try (InputStream raw = Files.newInputStream(segment);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(raw, 64 * 1024))) {
+            in.skipNBytes(offset);
+            long position = offset;
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return new SegmentRead(records, true, false);
+                }
+                int checksum;
+                byte[] payload;
+                try {
+                    checksum = in.readInt();
+                    if (length < 0 || length > MAX_RECORD_BYTES) {
+                        return new SegmentRead(records, false, true);
+                    }
+                    payload = in.readNBytes(length);
+                } catch (EOFException e) {
+                    return new SegmentRead(records, false, true);
+                }
+                if (payload.length < length) {
+                    return new SegmentRead(records, false, true);
+                }
+                CRC32C crc = new CRC32C();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    return new SegmentRead(records, false, true);
+                }
+
+                boolean handled;
+                try {
+                    handled = handler.handle(payload);
+                } catch (Exception e) {
+                    handled = false;
+                }
+                if (!handled) {
+                    return new SegmentRead(records, false, false);
+                }
+                records++;
+                position += HEADER_BYTES + length;
+                writeCheckpoint(sequence, position);
+            }
+        }
+    }
+
+    private long checkpointOffset(long sequence) throws IOException {
+        Path checkpoint = directory.resolve(CHECKPOINT);
+        if (!Files.exists(checkpoint)) return 0;
+        String[] parts = Files.readString(checkpoint, StandardCharsets.UTF_8).trim().split(":");
+        if (parts.length != 2) return 0;
+        try {
+            return Long.parseLong(parts[0]) == sequence ? Long.parseLong(parts[1]) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private void writeCheckpoint(long sequence, long position) throws IOException {
+        Path temp = directory.resolve(CHECKPOINT + ".tmp");
+        Files.writeString(temp, sequence + ":" + position, StandardCharsets.UTF_8);
+        Files.move(temp, directory.resolve(CHECKPOINT), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private List<Path> listSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            stream.forEach(segments::add);
+        }
+        // 번호를 0으로 채워 이름순 = 기록순
+        segments.sort(null);
+        return segments;
+    }
+
+    private Path segmentPath(long sequence) {
+        return directory.resolve(String.format("%s%020d%s", PREFIX, sequence, SUFFIX));
+    }
+
+    private static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (active != null) {
+            if (fsyncPolicy != FsyncPolicy.NEVER) {
+                force();
+            }
+            active.close();
+            active = null;
+        }
+    }
+}
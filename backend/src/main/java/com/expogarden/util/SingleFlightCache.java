@@ -0,0 +1,160 @@
+package com.expogarden.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * TTL + stale-while-revalidate 캐시 (키별 single flight)
+ *
+ * - fresh(ttl 이내): 캐시 값을 그대로 반환
+ * - stale(ttl 경과 후 staleTtl 이내, 또는 invalidate 됨): 캐시 값을 반환하고 백그라운드에서 한 번만 다시 계산
+ * - miss: 호출 스레드에서 계산하며, 같은 키를 동시에 요청한 스레드들은 그 결과를 함께 기다린다
+ * 계산 중 예외는 캐시하지 않고 호출자에게 그대로 던진다.
+ *
+ * 메트릭: cache.requests{cache, result=hit|stale|miss}, cache.load{cache, result=success|failure}, cache.size{cache}
+ */
+public final class SingleFlightCache<K, V> {
+
+    private static final class Entry<V> {
+        final V value;
+        final long freshUntil;
+        final long staleUntil;
+        volatile boolean invalidated;
+
+        Entry(V value, long freshUntil, long staleUntil, boolean invalidated) {
+            this.value = value;
+            this.freshUntil = freshUntil;
+            this.staleUntil = staleUntil;
+            this.invalidated = invalidated;
+        }
+    }
+
+    private static final class Flight<V> {
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        // 계산 도중 invalidate 되면 결과를 stale로 저장
+        volatile boolean invalidated;
+    }
+
+    private final long ttlNanos;
+    private final long staleNanos;
+    private final Executor refreshExecutor;
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+
+    private final Counter hitCounter;
+    private final Counter staleCounter;
+    private final Counter missCounter;
+    private final Timer loadSuccessTimer;
+    private final Timer loadFailureTimer;
+
+    /**
+     * @param ttlMillis   fresh 유지 시간
+     * @param staleMillis fresh가 지난 뒤에도 stale 값으로 응답할 수 있는 추가 시간
+     */
+    public SingleFlightCache(String name, long ttlMillis, long staleMillis, Executor refreshExecutor,
+                             MeterRegistry meterRegistry) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.staleNanos = TimeUnit.MILLISECONDS.toNanos(staleMillis);
+        this.refreshExecutor = refreshExecutor;
+
+        this.hitCounter = Counter.builder("cache.requests").tag("cache", name).tag("result", "hit").register(meterRegistry);
+        this.staleCounter = Counter.builder("cache.requests").tag("cache", name).tag("result", "stale").register(meterRegistry);
+        this.missCounter = Counter.builder("cache.requests").tag("cache", name).tag("result", "miss").register(meterRegistry);
+        this.loadSuccessTimer = Timer.builder("cache.load").tag("cache", name).tag("result", "success").register(meterRegistry);
+        this.loadFailureTimer = Timer.builder("cache.load").tag("cache", name).tag("result", "failure").register(meterRegistry);
+        Gauge.builder("cache.size", entries, ConcurrentHashMap::size).tag("cache", name).register(meterRegistry);
+    }
+
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        long now = System.nanoTime();
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            if (!entry.invalidated && now - entry.freshUntil < 0) {
+                hitCounter.increment();
+                return entry.value;
+            }
+            if (now - entry.staleUntil < 0) {
+                staleCounter.increment();
+                refreshAsync(key, loader);
+                return entry.value;
+            }
+        }
+
+        missCounter.increment();
+        Flight<V> flight = new Flight<>();
+        Flight<V> existing = flights.putIfAbsent(key, flight);
+        if (existing != null) {
+            return await(existing);
+        }
+        load(key, loader, flight);
+        return await(flight);
+    }
+
+    /**
+     * 값을 stale로 표시한다. 다음 조회는 기존 값을 반환하면서 다시 계산한다.
+     */
+    public void invalidate(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) entry.invalidated = true;
+        Flight<V> flight = flights.get(key);
+        if (flight != null) flight.invalidated = true;
+    }
+
+    public void evict(K key) {
+        entries.remove(key);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private void refreshAsync(K key, Function<? super K, ? extends V> loader) {
+        Flight<V> flight = new Flight<>();
+        if (flights.putIfAbsent(key, flight) != null) {
+            return; // 이미 다시 계산 중
+        }
+        try {
+            refreshExecutor.execute(() -> load(key, loader, flight));
+        } catch (RuntimeException e) {
+            flights.remove(key, flight);
+            flight.future.completeExceptionally(e);
+        }
+    }
+
+    private void load(K key, Function<? super K, ? extends V> loader, Flight<V> flight) {
+        long start = System.nanoTime();
+        try {
+            V value = loader.apply(key);
+            long loadedAt = System.nanoTime();
+            entries.put(key, new Entry<>(value, loadedAt + ttlNanos, loadedAt + ttlNanos + staleNanos, flight.invalidated));
+            loadSuccessTimer.record(loadedAt - start, TimeUnit.NANOSECONDS);
+            flight.future.complete(value);
+        } catch (RuntimeException | Error e) {
+            loadFailureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            flight.future.completeExceptionally(e);
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    private V await(Flight<V> flight) {
+        try {
+            return flight.future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) throw runtime;
+            if (cause instanceof Error error) throw error;
+            throw e;
+        }
+    }
+}
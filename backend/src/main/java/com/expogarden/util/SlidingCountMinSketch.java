@@ -0,0 +1,132 @@
+package com.expogarden.util;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 슬라이딩 윈도우 Count-Min 스케치 (키별 최근 빈도 추정, 스레드 안전)
+ *
+ * windowMillis 단위로 정렬된 현재/이전 두 세대의 depth x width 카운터 표를 두고,
+ * 이전 세대 값은 현재 윈도우에 남은 비율만큼만 더해 슬라이딩 윈도우를 근사한다 (SlidingWindowRateLimiter와 같은 방식).
+ * 키 수와 무관하게 메모리는 depth * width * 4바이트 * 2로 고정된다.
+ *
+ * 추정값은 실제 값보다 작지 않다 (과소 추정 없음). 보수적 갱신(conservative update)을 쓰므로
+ * 과대 추정은 보통 세대 총합의 e/width보다 훨씬 작다.
+ */
+public final class SlidingCountMinSketch {
+
+    private static final class Generation {
+        final AtomicIntegerArray counters;
+        final long window;
+
+        Generation(int size, long window) {
+            this.counters = new AtomicIntegerArray(size);
+            this.window = window;
+        }
+    }
+
+    private final int width;
+    private final int depth;
+    private final long windowMillis;
+
+    private volatile Generation current;
+    private volatile Generation previous;
+
+    public SlidingCountMinSketch(int width, int depth, long windowMillis) {
+        if (width < 1 || depth < 1 || (long) width * depth > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("width and depth must be positive");
+        }
+        if (windowMillis < 1) {
+            throw new IllegalArgumentException("windowMillis must be positive");
+        }
+        this.width = width;
+        this.depth = depth;
+        this.windowMillis = windowMillis;
+
+        long window = System.currentTimeMillis() / windowMillis;
+        this.current = new Generation(width * depth, window);
+        this.previous = new Generation(width * depth, window - 1);
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    /**
+     * 두 세대를 합친 메모리 사용량 (바이트)
+     */
+    public long getSizeInBytes() {
+        return (long) width * depth * 4 * 2;
+    }
+
+    /**
+     * 키의 빈도를 count만큼 올리고, 올린 뒤의 최근 windowMillis 동안 빈도 추정값을 반환한다.
+     *
+     * @param hash 64비트 키 해시 (SlidingWindowRateLimiter.hash 등)
+     */
+    public long add(long hash, int count, long nowMillis) {
+        Generation generation = rotateIfNeeded(nowMillis);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        // 보수적 갱신: 현재 최솟값 + count 보다 작은 카운터만 그 값까지 올린다
+        long target = min(generation, h1, h2) + count;
+        int capped = (int) Math.min(Integer.MAX_VALUE, target);
+        for (int i = 0; i < depth; i++) {
+            int index = index(h1, h2, i);
+            int value;
+            do {
+                value = generation.counters.get(index);
+                if (value >= capped) break;
+            } while (!generation.counters.compareAndSet(index, value, capped));
+        }
+        return target + weightedPrevious(h1, h2, generation, nowMillis);
+    }
+
+    /**
+     * 최근 windowMillis 동안 키의 빈도 추정값 (추가하지 않음)
+     */
+    public long estimate(long hash, long nowMillis) {
+        Generation generation = rotateIfNeeded(nowMillis);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        return min(generation, h1, h2) + weightedPrevious(h1, h2, generation, nowMillis);
+    }
+
+    private long weightedPrevious(int h1, int h2, Generation generation, long nowMillis) {
+        Generation before = previous;
+        if (before.window != generation.window - 1) return 0;
+        long elapsed = nowMillis - generation.window * windowMillis;
+        long remaining = Math.max(0, windowMillis - elapsed);
+        return min(before, h1, h2) * remaining / windowMillis;
+    }
+
+    private long min(Generation generation, int h1, int h2) {
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            min = Math.min(min, generation.counters.get(index(h1, h2, i)));
+        }
+        return min;
+    }
+
+    // 행마다 다른 해시 (Kirsch-Mitzenmacher: g_i = h1 + i * h2), 행 i는 [i * width, (i + 1) * width) 구간
+    private int index(int h1, int h2, int row) {
+        long combined = (long) h1 + (long) row * h2;
+        return row * width + (int) Math.floorMod(combined, (long) width);
+    }
+
+    private Generation rotateIfNeeded(long nowMillis) {
+        Generation generation = current;
+        long window = nowMillis / windowMillis;
+        if (generation.window >= window) {
+            return generation;
+        }
+        synchronized (this) {
+            generation = current;
+            if (generation.window >= window) return generation; // 다른 스레드가 이미 회전
+            // 바로 앞 윈도우가 아니면 이전 세대도 비어 있는 것과 같다
+            previous = generation.window == window - 1 ? generation : new Generation(width * depth, window - 1);
+            current = new Generation(width * depth, window);
+            return current;
+        }
+    }
+}
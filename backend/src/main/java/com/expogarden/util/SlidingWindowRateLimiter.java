@@ -0,0 +1,135 @@
+package com.expogarden.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 고정 크기 슬롯 테이블 기반의 슬라이딩 윈도우 rate limiter (lock-free)
+ *
+ * 키마다 (이전 윈도우 카운트, 현재 윈도우 카운트)를 하나의 long에 묶어 CAS로 갱신하고,
+ * 이전 윈도우 카운트를 경과 비율만큼 가중해 슬라이딩 윈도우를 근사한다.
+ * 슬롯 수가 고정이라 세션이 아무리 생기고 사라져도 메모리 사용량은 일정하다.
+ *
+ * 슬롯 레이아웃: [fingerprint 16bit][window 24bit][prev 12bit][cur 12bit]
+ * 키는 두 후보 슬롯(2-choice hashing) 중 자기 fingerprint를 가진 슬롯이나
+ * 만료된 슬롯을 차지하며, 두 슬롯이 모두 다른 활성 키에 점유되어 있으면 첫 번째 슬롯을 공유한다.
+ */
+public final class SlidingWindowRateLimiter {
+
+    private static final int COUNT_BITS = 12;
+    private static final int WINDOW_BITS = 24;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long WINDOW_MASK = (1L << WINDOW_BITS) - 1;
+    public static final int MAX_LIMIT = (int) COUNT_MASK;
+
+    private final AtomicLongArray slots;
+    private final int slotMask;
+    private final int limit;
+    private final long windowMillis;
+
+    public SlidingWindowRateLimiter(int capacity, int limit, long windowMillis) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        if (windowMillis < 1) {
+            throw new IllegalArgumentException("windowMillis must be positive");
+        }
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new AtomicLongArray(size);
+        this.slotMask = size - 1;
+        this.limit = limit;
+        this.windowMillis = windowMillis;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    /**
+     * 키에 대해 요청 1건을 허용할지 판단하고, 허용하면 카운트를 올린다.
+     */
+    public boolean tryAcquire(long keyHash, long nowMillis) {
+        long window = nowMillis / windowMillis;
+        long currentWindow = window & WINDOW_MASK;
+        long previousWindow = (window - 1) & WINDOW_MASK;
+        long elapsed = nowMillis - window * windowMillis;
+
+        long fingerprint = (keyHash >>> 48) & 0xFFFF;
+        if (fingerprint == 0) fingerprint = 1; // 0은 빈 슬롯 표시
+
+        int first = (int) mix(keyHash) & slotMask;
+        int second = (int) mix(keyHash ^ 0x9E3779B97F4A7C15L) & slotMask;
+
+        while (true) {
+            int index = chooseSlot(first, second, fingerprint, currentWindow, previousWindow);
+            long value = slots.get(index);
+
+            long owner = value >>> 48;
+            long slotWindow = (value >>> (2 * COUNT_BITS)) & WINDOW_MASK;
+            long prev = (value >>> COUNT_BITS) & COUNT_MASK;
+            long cur = value & COUNT_MASK;
+            boolean active = owner != 0 && (slotWindow == currentWindow || slotWindow == previousWindow);
+
+            if (!active) {
+                // 빈 슬롯이거나 오래된 슬롯이면 새 키가 차지한다
+                owner = fingerprint;
+                prev = 0;
+                cur = 0;
+            } else if (slotWindow == previousWindow) {
+                prev = cur;
+                cur = 0;
+            }
+
+            // 이전 윈도우 카운트는 현재 윈도우에 남은 비율만큼만 반영
+            long weightedPrev = prev * (windowMillis - elapsed) / windowMillis;
+            if (cur + weightedPrev >= limit) {
+                return false;
+            }
+
+            long updated = (owner << 48) | (currentWindow << (2 * COUNT_BITS)) | (prev << COUNT_BITS) | (cur + 1);
+            if (slots.compareAndSet(index, value, updated)) {
+                return true;
+            }
+        }
+    }
+
+    private int chooseSlot(int first, int second, long fingerprint, long currentWindow, long previousWindow) {
+        long a = slots.get(first);
+        if ((a >>> 48) == fingerprint) return first;
+        long b = slots.get(second);
+        if ((b >>> 48) == fingerprint) return second;
+        if (!isActive(a, currentWindow, previousWindow)) return first;
+        if (!isActive(b, currentWindow, previousWindow)) return second;
+        return first;
+    }
+
+    private static boolean isActive(long value, long currentWindow, long previousWindow) {
+        if ((value >>> 48) == 0) return false;
+        long slotWindow = (value >>> (2 * COUNT_BITS)) & WINDOW_MASK;
+        return slotWindow == currentWindow || slotWindow == previousWindow;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * 문자열 키를 할당 없이 64비트 해시로 만든다 (FNV-1a, seed로 키 종류 구분).
+     */
+    public static long hash(long seed, CharSequence key) {
+        long h = 0xCBF29CE484222325L ^ seed;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    public static long hash(long seed, long key) {
+        return mix(seed * 0x100000001B3L ^ key);
+    }
+}
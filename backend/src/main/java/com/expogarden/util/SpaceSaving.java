@@ -0,0 +1,147 @@
+package com.expogarden.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving 빈출 항목(heavy hitter) 요약 (long 키, 스레드 안전하지 않음)
+ *
+ * 최대 capacity개의 카운터만 유지한다. 새 키가 들어왔는데 자리가 없으면 가장 작은 카운터를 넘겨받고,
+ * 넘겨받기 전 값을 error로 기록한다. 따라서 실제 빈도는 [count - error, count] 범위에 있으며,
+ * 서로 다른 키 수가 capacity 이하이면 결과는 정확하다.
+ * 카운터는 count 기준 최소 힙으로 관리해 갱신/교체가 O(log capacity)다.
+ */
+public final class SpaceSaving {
+
+    public record Entry(long key, long count, long error) {
+        // 실제 빈도의 하한
+        public long guaranteedCount() {
+            return count - error;
+        }
+    }
+
+    private final int capacity;
+    private final long[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    private final Map<Long, Integer> positions;
+    private int size;
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.keys = new long[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.positions = new HashMap<>(capacity * 2);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void offer(long key, long increment) {
+        Integer position = positions.get(key);
+        if (position != null) {
+            counts[position] += increment;
+            siftDown(position);
+            return;
+        }
+
+        if (size < capacity) {
+            int slot = size++;
+            keys[slot] = key;
+            counts[slot] = increment;
+            errors[slot] = 0;
+            positions.put(key, slot);
+            siftUp(slot);
+            return;
+        }
+
+        // 가장 작은 카운터를 새 키가 넘겨받는다
+        positions.remove(keys[0]);
+        errors[0] = counts[0];
+        keys[0] = key;
+        counts[0] += increment;
+        positions.put(key, 0);
+        siftDown(0);
+    }
+
+    /**
+     * 요약에 없는 키의 빈도 상한 (가득 차지 않았으면 0)
+     */
+    public long minCount() {
+        return size < capacity ? 0 : counts[0];
+    }
+
+    public Entry get(long key) {
+        Integer position = positions.get(key);
+        return position == null ? null : new Entry(key, counts[position], errors[position]);
+    }
+
+    public List<Entry> entries() {
+        List<Entry> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(new Entry(keys[i], counts[i], errors[i]));
+        }
+        return entries;
+    }
+
+    /**
+     * count 내림차순 상위 n개
+     */
+    public List<Entry> top(int n) {
+        List<Entry> entries = entries();
+        entries.sort(Comparator.comparingLong(Entry::count).reversed());
+        return entries.size() > n ? new ArrayList<>(entries.subList(0, n)) : entries;
+    }
+
+    public void clear() {
+        positions.clear();
+        size = 0;
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (counts[parent] <= counts[index]) break;
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= size) break;
+            int right = left + 1;
+            int smallest = right < size && counts[right] < counts[left] ? right : left;
+            if (counts[index] <= counts[smallest]) break;
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        long key = keys[a];
+        long count = counts[a];
+        long error = errors[a];
+        keys[a] = keys[b];
+        counts[a] = counts[b];
+        errors[a] = errors[b];
+        keys[b] = key;
+        counts[b] = count;
+        errors[b] = error;
+        positions.put(keys[a], a);
+        positions.put(keys[b], b);
+    }
+}
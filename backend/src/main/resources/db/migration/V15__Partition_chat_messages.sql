@@ -0,0 +1,54 @@
+-- V15__Partition_chat_messages.sql
+-- chat_messages를 created_at 기준 월별 RANGE 파티션 테이블로 전환
+-- 이후 파티션 생성/만료 처리는 PartitionMaintenanceService가 담당
+
+-- 1. 기존 테이블을 옆으로 치우고 시퀀스는 새 테이블이 이어받도록 분리
+ALTER TABLE chat_messages RENAME TO chat_messages_legacy;
+ALTER TABLE chat_messages_legacy RENAME CONSTRAINT chat_messages_pkey TO chat_messages_legacy_pkey;
+ALTER INDEX idx_chat_messages_booth_id RENAME TO idx_chat_messages_legacy_booth_id;
+ALTER SEQUENCE chat_messages_id_seq OWNED BY NONE;
+
+-- 2. 파티션 부모 테이블 (파티션 키가 PK에 포함되어야 함)
+CREATE TABLE chat_messages (
+    id BIGINT NOT NULL DEFAULT nextval('chat_messages_id_seq'),
+    booth_id BIGINT NOT NULL REFERENCES booths(id) ON DELETE RESTRICT,
+    user_id BIGINT REFERENCES users(id) ON DELETE SET NULL,
+    username VARCHAR(100) NOT NULL,
+    message TEXT NOT NULL,
+    type VARCHAR(20) NOT NULL DEFAULT 'CHAT' CHECK (type IN ('CHAT', 'JOIN', 'LEAVE')),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE chat_messages_id_seq OWNED BY chat_messages.id;
+
+-- 부모에 만든 인덱스는 모든 파티션에 자동으로 생성됨
+CREATE INDEX idx_chat_messages_booth_id ON chat_messages(booth_id, created_at DESC);
+
+-- 3. 기존 데이터가 있는 달부터 3개월 뒤까지 월별 파티션 생성 (이름: chat_messages_pYYYYMM)
+DO $$
+DECLARE
+    month_start DATE;
+    last_month DATE := date_trunc('month', CURRENT_DATE + INTERVAL '3 months')::DATE;
+BEGIN
+    SELECT COALESCE(date_trunc('month', MIN(created_at))::DATE, date_trunc('month', CURRENT_DATE)::DATE)
+    INTO month_start
+    FROM chat_messages_legacy;
+
+    WHILE month_start <= last_month LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF chat_messages FOR VALUES FROM (%L) TO (%L)',
+            'chat_messages_p' || to_char(month_start, 'YYYYMM'),
+            month_start,
+            (month_start + INTERVAL '1 month')::DATE
+        );
+        month_start := (month_start + INTERVAL '1 month')::DATE;
+    END LOOP;
+END $$;
+
+-- 4. 데이터 이관 후 기존 테이블 제거
+INSERT INTO chat_messages (id, booth_id, user_id, username, message, type, created_at)
+SELECT id, booth_id, user_id, username, message, type, created_at
+FROM chat_messages_legacy;
+
+DROP TABLE chat_messages_legacy;
@@ -0,0 +1,20 @@
+-- V16__Add_chat_and_question_search.sql
+-- 부스 채팅/질문 검색용 tsvector 컬럼과 GIN 인덱스
+-- - search_vector는 STORED generated column이라 INSERT 시점에 함께 계산됨
+-- - 한국어는 형태소 분석 사전이 없으므로 'simple' 설정 + pg_trgm(부분 일치)을 함께 사용
+-- - btree_gin으로 booth_id를 GIN 인덱스에 포함시켜 부스 단위 검색이 인덱스만으로 끝나도록 함
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+ALTER TABLE chat_messages
+    ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (to_tsvector('simple', message)) STORED;
+
+CREATE INDEX idx_chat_messages_search ON chat_messages USING GIN (booth_id, search_vector);
+CREATE INDEX idx_chat_messages_message_trgm ON chat_messages USING GIN (booth_id, message gin_trgm_ops);
+
+ALTER TABLE questions
+    ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (to_tsvector('simple', content)) STORED;
+
+CREATE INDEX idx_questions_search ON questions USING GIN (booth_id, search_vector);
+CREATE INDEX idx_questions_content_trgm ON questions USING GIN (booth_id, content gin_trgm_ops);
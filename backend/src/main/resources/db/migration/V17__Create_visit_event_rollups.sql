@@ -0,0 +1,32 @@
+-- V17__Create_visit_event_rollups.sql
+-- visit_events 집계 테이블 (분/시간/일 단위 × 전시 × 부스 × 액션)
+-- 수집 파이프라인이 원본 배치를 기록하는 같은 트랜잭션에서 event_count를 증가시킨다.
+
+CREATE TABLE visit_event_rollups (
+    granularity VARCHAR(10) NOT NULL CHECK (granularity IN ('MINUTE', 'HOUR', 'DAY')),
+    bucket_start TIMESTAMP NOT NULL,
+    exhibition_id BIGINT NOT NULL,
+    booth_id BIGINT NOT NULL DEFAULT 0, -- 0 = 부스 밖(전시장 공용 공간) 이벤트
+    action VARCHAR(50) NOT NULL,
+    event_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (granularity, exhibition_id, action, booth_id, bucket_start)
+);
+
+-- 부스 단위 조회용 (PK는 전시 단위 조회/TOP 부스 집계에 사용)
+CREATE INDEX idx_visit_event_rollups_booth ON visit_event_rollups(granularity, booth_id, action, bucket_start);
+
+-- 기존 원본 데이터로 초기 적재
+INSERT INTO visit_event_rollups (granularity, bucket_start, exhibition_id, booth_id, action, event_count)
+SELECT 'MINUTE', date_trunc('minute', created_at), exhibition_id, COALESCE(booth_id, 0), action, COUNT(*)
+FROM visit_events
+GROUP BY 2, 3, 4, 5;
+
+INSERT INTO visit_event_rollups (granularity, bucket_start, exhibition_id, booth_id, action, event_count)
+SELECT 'HOUR', date_trunc('hour', created_at), exhibition_id, COALESCE(booth_id, 0), action, COUNT(*)
+FROM visit_events
+GROUP BY 2, 3, 4, 5;
+
+INSERT INTO visit_event_rollups (granularity, bucket_start, exhibition_id, booth_id, action, event_count)
+SELECT 'DAY', date_trunc('day', created_at), exhibition_id, COALESCE(booth_id, 0), action, COUNT(*)
+FROM visit_events
+GROUP BY 2, 3, 4, 5;
@@ -0,0 +1,13 @@
+-- V18__Create_visit_sketches.sql
+-- 고유 방문자(session_id) HyperLogLog 스케치 (부스/전시 × 시간/일 단위)
+-- sketch는 com.expogarden.util.HyperLogLog 직렬화 포맷, UniqueVisitorService가 주기적으로 병합 저장
+
+CREATE TABLE visit_sketches (
+    scope VARCHAR(12) NOT NULL CHECK (scope IN ('BOOTH', 'EXHIBITION')),
+    scope_id BIGINT NOT NULL,
+    granularity VARCHAR(10) NOT NULL CHECK (granularity IN ('HOUR', 'DAY')),
+    bucket_start TIMESTAMP NOT NULL,
+    sketch BYTEA NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (scope, scope_id, granularity, bucket_start)
+);
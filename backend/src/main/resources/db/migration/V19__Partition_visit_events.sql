@@ -0,0 +1,65 @@
+-- V19__Partition_visit_events.sql
+-- visit_events를 created_at 기준 월별 RANGE 파티션 테이블로 전환 (V15 chat_messages와 같은 방식)
+-- 이후 파티션 생성/만료 처리는 PartitionMaintenanceService가 담당
+--
+-- 통계는 visit_event_rollups / visit_sketches에서 읽으므로 원본 인덱스는 기간 조회용 두 개만 남긴다.
+-- (idx_visit_events_session, idx_visit_events_action 제거 → INSERT 시 갱신할 인덱스 감소)
+-- 원본을 읽는 쿼리(내보내기, 압축/검증, 고유 방문자 백필)는 모두 created_at 범위에 exhibition_id/booth_id만 걸고,
+-- session_id나 action으로 찾는 쿼리는 없다. 세션 중복 제거·퍼널·체류 시간은 수집 스트림에서 메모리로 처리한다.
+-- 세션 단위 조회가 필요해지면 (session_id, created_at) 인덱스를 새 마이그레이션으로 추가한다.
+
+-- 1. 기존 테이블을 옆으로 치우고 시퀀스는 새 테이블이 이어받도록 분리
+ALTER TABLE visit_events RENAME TO visit_events_legacy;
+ALTER TABLE visit_events_legacy RENAME CONSTRAINT visit_events_pkey TO visit_events_legacy_pkey;
+ALTER INDEX idx_visit_events_exhibition_created RENAME TO idx_visit_events_legacy_exhibition_created;
+ALTER INDEX idx_visit_events_booth_created RENAME TO idx_visit_events_legacy_booth_created;
+DROP INDEX idx_visit_events_session;
+DROP INDEX idx_visit_events_action;
+ALTER SEQUENCE visit_events_id_seq OWNED BY NONE;
+
+-- 2. 파티션 부모 테이블 (파티션 키가 PK에 포함되어야 함)
+CREATE TABLE visit_events (
+    id BIGINT NOT NULL DEFAULT nextval('visit_events_id_seq'),
+    exhibition_id BIGINT NOT NULL REFERENCES exhibitions(id) ON DELETE RESTRICT,
+    booth_id BIGINT REFERENCES booths(id) ON DELETE RESTRICT,
+    user_id BIGINT REFERENCES users(id) ON DELETE SET NULL,
+    session_id VARCHAR(255) NOT NULL,
+    action VARCHAR(50) NOT NULL,
+    metadata JSONB,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE visit_events_id_seq OWNED BY visit_events.id;
+
+-- 부모에 만든 인덱스는 모든 파티션에 자동으로 생성됨
+CREATE INDEX idx_visit_events_exhibition_created ON visit_events(exhibition_id, created_at DESC);
+CREATE INDEX idx_visit_events_booth_created ON visit_events(booth_id, created_at DESC) WHERE booth_id IS NOT NULL;
+
+-- 3. 기존 데이터가 있는 달부터 3개월 뒤까지 월별 파티션 생성 (이름: visit_events_pYYYYMM)
+DO $$
+DECLARE
+    month_start DATE;
+    last_month DATE := date_trunc('month', CURRENT_DATE + INTERVAL '3 months')::DATE;
+BEGIN
+    SELECT COALESCE(date_trunc('month', MIN(created_at))::DATE, date_trunc('month', CURRENT_DATE)::DATE)
+    INTO month_start
+    FROM visit_events_legacy;
+
+    WHILE month_start <= last_month LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF visit_events FOR VALUES FROM (%L) TO (%L)',
+            'visit_events_p' || to_char(month_start, 'YYYYMM'),
+            month_start,
+            (month_start + INTERVAL '1 month')::DATE
+        );
+        month_start := (month_start + INTERVAL '1 month')::DATE;
+    END LOOP;
+END $$;
+
+-- 4. 데이터 이관 후 기존 테이블 제거
+INSERT INTO visit_events (id, exhibition_id, booth_id, user_id, session_id, action, metadata, created_at)
+SELECT id, exhibition_id, booth_id, user_id, session_id, action, metadata, created_at
+FROM visit_events_legacy;
+
+DROP TABLE visit_events_legacy;
@@ -0,0 +1,22 @@
+-- V20__Create_booth_funnels.sql
+-- 부스별 참여 퍼널 (조회 → 링크 클릭 → 영상 재생, 세션 단위)
+-- FunnelService가 수집 스트림을 세션별로 이어 붙여 계산한 증분을 주기적으로 더한다.
+-- 원본(visit_events)에서 다시 계산하지 않으므로 V20 이전 이벤트는 포함되지 않는다.
+
+CREATE TABLE booth_funnels (
+    booth_id BIGINT PRIMARY KEY,
+    viewed BIGINT NOT NULL DEFAULT 0,   -- 부스를 조회한 세션 수
+    clicked BIGINT NOT NULL DEFAULT 0,  -- 조회 후 링크를 클릭한 세션 수
+    played BIGINT NOT NULL DEFAULT 0,   -- 클릭 후 영상을 재생한 세션 수
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- 단계 간 소요 시간(ms) 로그 스케일 히스토그램
+-- bucket은 com.expogarden.util.LogHistogram 버킷 인덱스 (2배 구간당 4개)
+CREATE TABLE booth_funnel_latency (
+    booth_id BIGINT NOT NULL,
+    transition VARCHAR(20) NOT NULL CHECK (transition IN ('VIEW_TO_CLICK', 'CLICK_TO_PLAY')),
+    bucket SMALLINT NOT NULL,
+    sample_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (booth_id, transition, bucket)
+);
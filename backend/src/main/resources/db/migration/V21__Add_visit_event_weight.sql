@@ -0,0 +1,6 @@
+-- V21__Add_visit_event_weight.sql
+-- 표본 추출(sampling) 가중치: 1-in-N으로 추출해 저장한 이벤트는 weight = N (전수 저장은 1)
+-- 집계(visit_event_rollups.event_count)는 이후 weight 합으로 증가한다.
+-- 상수 DEFAULT라 기존 행/파티션을 다시 쓰지 않는다.
+
+ALTER TABLE visit_events ADD COLUMN weight INTEGER NOT NULL DEFAULT 1 CHECK (weight >= 1);
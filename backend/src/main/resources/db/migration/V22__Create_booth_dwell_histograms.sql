@@ -0,0 +1,14 @@
+-- V22__Create_booth_dwell_histograms.sql
+-- 부스 체류 시간(ms) 히스토그램 (부스 × 시간 단위)
+-- DwellService가 수집 스트림을 세션별로 이어 붙여 방문이 끝날 때마다 증분을 모아 주기적으로 더한다.
+-- bucket은 com.expogarden.util.LogHistogram 버킷 인덱스 (2배 구간당 4개)
+-- bucket_start는 방문 시작 시각이 속한 시간 (visit_event_rollups와 같은 서버 로컬 시각)
+-- 원본(visit_events)에서 다시 계산하지 않으므로 V22 이전 이벤트는 포함되지 않는다.
+
+CREATE TABLE booth_dwell_histograms (
+    booth_id BIGINT NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    bucket SMALLINT NOT NULL,
+    sample_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (booth_id, bucket_start, bucket)
+);
@@ -0,0 +1,35 @@
+-- V23__Create_visit_event_compactions.sql
+-- 종료된 전시의 원본 이벤트 정리(compaction) 진행 상태
+-- VisitEventCompactionService가 집계(visit_event_rollups), 고유 방문자 스케치(visit_sketches),
+-- 체류 시간 히스토그램(booth_dwell_histograms)이 원본을 모두 반영했는지 확인한 뒤
+-- created_at < cutoff 원본을 작은 배치로 삭제하거나 visit_events_archive로 옮긴다.
+-- 배치마다 같은 트랜잭션에서 cursor_created_at / rows_compacted를 갱신하므로 재시작 후 이어서 진행한다.
+
+CREATE TABLE visit_event_compactions (
+    exhibition_id BIGINT PRIMARY KEY,
+    cutoff TIMESTAMP NOT NULL,                 -- 이 시각 이전(미포함) 원본이 대상 (일 경계)
+    mode VARCHAR(10) NOT NULL CHECK (mode IN ('DELETE', 'ARCHIVE')),
+    status VARCHAR(20) NOT NULL CHECK (status IN ('PENDING', 'FAILED', 'COMPACTING', 'DONE')),
+    cursor_created_at TIMESTAMP,               -- 마지막 배치에서 처리한 가장 늦은 created_at
+    rows_compacted BIGINT NOT NULL DEFAULT 0,
+    message TEXT,                              -- 검증 실패 사유
+    verified_at TIMESTAMP,
+    completed_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- ARCHIVE 모드 보관 테이블 (파티션/외래키/보조 인덱스 없음, 조회용이 아니라 보관용)
+CREATE TABLE visit_events_archive (
+    id BIGINT NOT NULL,
+    exhibition_id BIGINT NOT NULL,
+    booth_id BIGINT,
+    user_id BIGINT,
+    session_id VARCHAR(255) NOT NULL,
+    action VARCHAR(50) NOT NULL,
+    metadata JSONB,
+    created_at TIMESTAMP NOT NULL,
+    weight INTEGER NOT NULL DEFAULT 1,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, created_at)
+);
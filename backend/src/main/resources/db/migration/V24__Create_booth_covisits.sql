@@ -0,0 +1,13 @@
+-- V24__Create_booth_covisits.sql
+-- 부스 동시 방문(co-visitation) 희소 행렬: 한 세션이 두 부스를 모두 조회한 횟수
+-- CoVisitationService가 수집 스트림에서 세션별 최근 조회 부스를 이어 붙여 증분을 주기적으로 더한다.
+-- booth_a < booth_b 행은 쌍, booth_a = booth_b 행은 그 부스를 조회한 세션 수 (유사도 정규화용)
+-- 원본(visit_events)에서 다시 계산하지 않으므로 V24 이전 이벤트는 포함되지 않는다.
+
+CREATE TABLE booth_covisits (
+    booth_a BIGINT NOT NULL,
+    booth_b BIGINT NOT NULL,
+    visits BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (booth_a, booth_b),
+    CHECK (booth_a <= booth_b)
+);
@@ -0,0 +1,5 @@
+-- V25__Add_chat_messages_default_partition.sql
+-- 월별 파티션이 없는 시각(시계 오차, 사전 생성 실패 등)의 채팅도 INSERT가 실패하지 않도록 DEFAULT 파티션 추가
+-- 평소에는 비어 있다. 행이 들어온 달의 파티션을 나중에 만들 때는 PartitionMaintenanceService가 해당 범위를 옮겨 붙인다.
+-- (DEFAULT에 범위가 겹치는 행이 있으면 CREATE TABLE ... PARTITION OF가 실패하기 때문)
+CREATE TABLE IF NOT EXISTS chat_messages_default PARTITION OF chat_messages DEFAULT;
@@ -0,0 +1,5 @@
+-- V26__Add_visit_event_rollups_retention_index.sql
+-- MINUTE/HOUR 집계 행 보존 기간 정리용 인덱스 (PartitionMaintenanceService가 매일 오래된 행을 배치로 삭제)
+-- PK는 bucket_start가 마지막 컬럼이라 "단위 + 기간" 삭제에 쓸 수 없다.
+-- UPSERT는 event_count만 바꾸므로 이 인덱스가 있어도 HOT 갱신은 그대로 가능하다.
+CREATE INDEX idx_visit_event_rollups_bucket ON visit_event_rollups(granularity, bucket_start);
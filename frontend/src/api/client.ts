@@ -8,7 +8,7 @@ import type {
   Page,
   Question,
   GuestbookEntry,
-  ChatMessage,
+  ChatHistory,
   User,
 } from '@/types';
 
@@ -263,10 +263,10 @@ class ApiClient {
   }
 
   // Chat
-  async getChatMessages(boothId: number, page: number = 0) {
-    const response = await this.client.get<ApiResponse<Page<ChatMessage>>>(
+  async getChatMessages(boothId: number, before?: string, beforeId?: number) {
+    const response = await this.client.get<ApiResponse<ChatHistory>>(
       `/booths/${boothId}/chat/messages`,
-      { params: { page, size: 50 } }
+      { params: { before, beforeId, size: 50 } }
     );
     return response.data;
   }
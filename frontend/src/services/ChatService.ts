@@ -1,5 +1,6 @@
 import { Client, IMessage } from '@stomp/stompjs';
 import SockJS from 'sockjs-client';
+import { stompConnectHeaders } from './stompAuth';
 import type { ChatMessage } from '@/types';
 
 export class ChatService {
@@ -13,6 +14,9 @@ export class ChatService {
 
     this.client = new Client({
       webSocketFactory: () => new SockJS('/api/ws'),
+      beforeConnect: () => {
+        if (this.client) this.client.connectHeaders = stompConnectHeaders();
+      },
       debug: (str) => {
         console.log('[STOMP]', str);
       },
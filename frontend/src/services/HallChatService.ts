@@ -1,5 +1,6 @@
 import { Client, IMessage } from '@stomp/stompjs';
 import SockJS from 'sockjs-client';
+import { stompConnectHeaders } from './stompAuth';
 
 export interface HallChatMessage {
   hallId: number;
@@ -28,6 +29,9 @@ export class HallChatService {
 
     this.client = new Client({
       webSocketFactory: () => new SockJS('/api/ws'),
+      beforeConnect: () => {
+        if (this.client) this.client.connectHeaders = stompConnectHeaders();
+      },
       debug: (str) => {
         console.log('[HallChat STOMP]', str);
       },
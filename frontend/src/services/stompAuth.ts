@@ -0,0 +1,13 @@
+// STOMP CONNECT 헤더: 로그인 상태면 access token을 보내 서버가 세션 사용자를 알 수 있게 한다
+// (사용자별 채팅 도배 제한 등). 재연결 때마다 localStorage에서 다시 읽어 갱신된 토큰을 쓴다.
+export function stompConnectHeaders(): Record<string, string> {
+  const stored = localStorage.getItem('tokens');
+  if (!stored) return {};
+  try {
+    const tokens = JSON.parse(stored);
+    return tokens.accessToken ? { Authorization: `Bearer ${tokens.accessToken}` } : {};
+  } catch (e) {
+    console.error('[STOMP] Failed to parse tokens from localStorage:', e);
+    return {};
+  }
+}
@@ -134,6 +134,15 @@ export interface ChatMessage {
   type: 'CHAT' | 'JOIN' | 'LEAVE';
 }
 
+// 커서 기반 목록 (다음 페이지는 nextBefore/nextBeforeId로 요청)
+export interface ChatHistory {
+  content: ChatMessage[];
+  size: number;
+  hasNext: boolean;
+  nextBefore: string | null;
+  nextBeforeId: number | null;
+}
+
 export interface Page<T> {
   content: T[];
   totalElements: number;